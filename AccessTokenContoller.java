@@ -16,6 +16,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.codahale.metrics.annotation.Timed;
+import com.gl.platform.security.jwt.JWTAuthenticationCache;
 import com.gl.platform.security.jwt.TokenProvider;
 import com.gl.platform.web.rest.vm.AccessTokenVM;
 
@@ -27,9 +28,13 @@ public class AccessTokenContoller {
 
 	private final AuthenticationManager authenticationManager;
 
-	public AccessTokenContoller(TokenProvider tokenProvider, AuthenticationManager authenticationManager) {
+	private final JWTAuthenticationCache jwtAuthenticationCache;
+
+	public AccessTokenContoller(TokenProvider tokenProvider, AuthenticationManager authenticationManager,
+			JWTAuthenticationCache jwtAuthenticationCache) {
 		this.tokenProvider = tokenProvider;
 		this.authenticationManager = authenticationManager;
+		this.jwtAuthenticationCache = jwtAuthenticationCache;
 	}
 
 	@PostMapping("/oauth/v1/token")
@@ -57,6 +62,7 @@ public class AccessTokenContoller {
 		Authentication authentication = this.authenticationManager.authenticate(authenticationToken);
 		SecurityContextHolder.getContext().setAuthentication(authentication);
 		String jwt = tokenProvider.createToken(authentication, true);
+		jwtAuthenticationCache.issued(jwt, authentication.getName());
 		httpHeaders.set("expires", "3600");
 		httpHeaders.set("Cache-Control", "no-store");
 		httpHeaders.set("Pragma", "no-cache");
@@ -36,10 +36,14 @@ import com.codahale.metrics.annotation.Timed;
 import com.gl.platform.domain.JhiUser;
 import com.gl.platform.repository.JhiUserRepository;
 import com.gl.platform.security.SecurityUtils;
+import com.gl.platform.security.jwt.CachingJWTFilter;
+import com.gl.platform.security.jwt.JWTAuthenticationCache;
 import com.gl.platform.service.GlUserQueryService;
 import com.gl.platform.service.GlUserService;
 import com.gl.platform.service.InstitutionUserQueryService;
 import com.gl.platform.service.MailService;
+import com.gl.platform.service.ReportCacheService;
+import com.gl.platform.service.ReportCacheService.Topic;
 import com.gl.platform.service.UserService;
 import com.gl.platform.service.dto.ForgetPasswordRequestDTO;
 import com.gl.platform.service.dto.GlUserCriteria;
@@ -94,6 +98,12 @@ public class AccountResource {
 	@Autowired
 	private GlUserQueryService glUserQueryService;
 
+	@Autowired
+	private JWTAuthenticationCache jwtAuthenticationCache;
+
+	@Autowired
+	private ReportCacheService reportCacheService;
+
 	public AccountResource(JhiUserRepository userRepository, UserService userService, MailService mailService,
 			InstitutionUserQueryService institutionUserQueryService) {
 
@@ -129,6 +139,7 @@ public class AccountResource {
 			throw new EmailAlreadyUsedException();
 		});
 		JhiUser user = userService.registerUser(managedUserVM, managedUserVM.getPassword());
+		reportCacheService.invalidate(Topic.REGISTRATION);
 		mailService.sendActivationEmail(user);
 	}
 
@@ -181,6 +192,7 @@ public class AccountResource {
 			throw new InternalServerErrorException("No user was found for this activation key");
 		}
 		JhiUser responseUser = userRepository.save(user.get());
+		reportCacheService.invalidate(Topic.REGISTRATION);
 		if (responseUser.isActivated()) {
 			log.debug("User Activated Successfully");
 		}
@@ -415,20 +427,23 @@ public class AccountResource {
 	 * POST /account/change-password : changes the current user's password
 	 *
 	 * @param passwordChangeDto current and new password
+	 * @param request           the HTTP request, whose token stays valid
 	 * @throws PasswordAlreadyUsedException
 	 * @throws InvalidPasswordException     400 (Bad Request) if the new password is
 	 *                                      incorrect
 	 */
 	@PostMapping(path = "/account/change-password")
 	@Timed
-	public ResponseEntity<?> changePassword(@RequestBody PasswordChangeDTO passwordChangeDto)
-			throws PasswordAlreadyUsedException {
+	public ResponseEntity<?> changePassword(@RequestBody PasswordChangeDTO passwordChangeDto,
+			HttpServletRequest request) throws PasswordAlreadyUsedException {
 		log.debug("REST request to change the current user's password:");
 		if (!checkPasswordLength(passwordChangeDto.getNewPassword())) {
 			throw new InvalidPasswordException();
 		}
 		Map<String, String> result = userService.changePassword(passwordChangeDto.getCurrentPassword(),
 				passwordChangeDto.getNewPassword());
+		SecurityUtils.getCurrentUserLogin().ifPresent(
+				login -> jwtAuthenticationCache.revokeUser(login, CachingJWTFilter.resolveToken(request)));
 
 		return new ResponseEntity<>(result, HttpStatus.OK);
 	}
@@ -487,7 +502,8 @@ public class AccountResource {
 	 */
 	@PostMapping("/change-profile-password")
 	@Timed
-	public ResponseEntity<?> resetProfilePassword(@RequestBody ResetProfilePasswordDTO profilePasswordChangeDto) {
+	public ResponseEntity<?> resetProfilePassword(@RequestBody ResetProfilePasswordDTO profilePasswordChangeDto,
+			HttpServletRequest request) {
 
 		log.debug("REST Request for profile password update on OTP validation:");
 		String result = userService.resetProfilePassword(profilePasswordChangeDto);
@@ -503,6 +519,8 @@ public class AccountResource {
 		if (result == "Failed") {
 			throw new TryCatchException();
 		}
+		SecurityUtils.getCurrentUserLogin().ifPresent(
+				login -> jwtAuthenticationCache.revokeUser(login, CachingJWTFilter.resolveToken(request)));
 
 		Map<String, String> response = new HashMap<String, String>();
 		response.put("message", result);
@@ -600,6 +618,23 @@ public class AccountResource {
 			log.debug("no user was found for the reset key:");
 			throw new InternalServerErrorException("No user was found for this reset key");
 		}
+		jwtAuthenticationCache.revokeUser(user.get().getLogin(), null);
+	}
+
+	/**
+	 * POST /account/logout : revoke the bearer token of the request, so it is no
+	 * longer accepted even though it has not expired.
+	 *
+	 * @param request the HTTP request
+	 */
+	@PostMapping(path = "/account/logout")
+	@Timed
+	public void logout(HttpServletRequest request) {
+		String jwt = CachingJWTFilter.resolveToken(request);
+		if (jwt != null) {
+			jwtAuthenticationCache.revoke(jwt);
+		}
+		log.debug("REST request to logout : {}", SecurityUtils.getCurrentUserLogin().orElse(null));
 	}
 
 	private static boolean checkPasswordLength(String password) {
@@ -0,0 +1,250 @@
+package com.gl.platform.service;
+
+import java.time.LocalDate;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.gl.platform.repository.NamedQuery;
+import com.gl.platform.repository.NamedQueryRegistry;
+import com.gl.platform.service.dto.GlUserAdActionRequestDTO;
+
+/**
+ * Service counting ad views and clicks in memory and flushing the counts as
+ * daily rollups in {@code ad_action_daily_count}.
+ * <p>
+ * Each ad has one pair of {@link LongAdder}s per day, so concurrent feed loads
+ * only contend on a cell of their own. Every
+ * {@code application.ad-action-flush-interval-millis} ms each counter is
+ * swapped for a fresh one and the old one's sums are added to the rollups with
+ * one batched upsert. A swapped out counter is read again on the next run for
+ * increments that were in flight during the swap. Deltas of a failed flush are
+ * added back and retried on the next run.
+ * <p>
+ * The rollups are only read by the daily counts endpoint, which sees the
+ * counts flushed by every instance. The per-student rows behind the existing
+ * ad statistics and reports are appended by {@link AdViewLogWriter} for views
+ * and written by {@link GlUserAdActionService} for clicks.
+ */
+@Service
+public class AdActionCounterService {
+
+	private final Logger log = LoggerFactory.getLogger(AdActionCounterService.class);
+
+	private static final class AdDay {
+
+		private final Long adId;
+
+		private final LocalDate day;
+
+		AdDay(Long adId, LocalDate day) {
+			this.adId = adId;
+			this.day = day;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof AdDay)) {
+				return false;
+			}
+			AdDay other = (AdDay) o;
+			return adId.equals(other.adId) && day.equals(other.day);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(adId, day);
+		}
+	}
+
+	private static final class Counter {
+
+		private final LongAdder views = new LongAdder();
+
+		private final LongAdder clicks = new LongAdder();
+
+		// what the flush that swapped this counter out has read, guarded by the
+		// service lock
+		private long flushedViews;
+
+		private long flushedClicks;
+	}
+
+	private final NamedQuery upsertQuery;
+
+	private final NamedQuery dailyQuery;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final Map<AdDay, Counter> counters = new ConcurrentHashMap<>();
+
+	private List<Map.Entry<AdDay, Counter>> swapped = new ArrayList<>();
+
+	private final Meter views;
+
+	private final Meter clicks;
+
+	private final Timer flushTimer;
+
+	public AdActionCounterService(NamedQueryRegistry namedQueryRegistry, TransactionTemplate transactionTemplate,
+			MetricRegistry metricRegistry) {
+		this.upsertQuery = namedQueryRegistry.get("ad-action", "ad.count.upsert");
+		this.dailyQuery = namedQueryRegistry.get("ad-action", "ad.count.daily");
+		this.transactionTemplate = transactionTemplate;
+		this.views = metricRegistry.meter("ad.actions.views");
+		this.clicks = metricRegistry.meter("ad.actions.clicks");
+		this.flushTimer = metricRegistry.timer("ad.actions.flush");
+		metricRegistry.register("ad.actions.counters", (Gauge<Integer>) counters::size);
+	}
+
+	/**
+	 * Count the ads a student has viewed. The raw view rows are written by the
+	 * caller.
+	 *
+	 * @param request the viewed ads
+	 */
+	public void viewed(GlUserAdActionRequestDTO request) {
+		LocalDate today = LocalDate.now();
+		for (Long adId : adIds(request.getAdIds())) {
+			counter(adId, today).views.increment();
+			views.mark();
+		}
+	}
+
+	/**
+	 * Count an ad click. The raw click row is written by the caller.
+	 *
+	 * @param request the clicked ad
+	 */
+	public void clicked(GlUserAdActionRequestDTO request) {
+		if (request.getAdId() == null) {
+			return;
+		}
+		counter(request.getAdId(), LocalDate.now()).clicks.increment();
+		clicks.mark();
+	}
+
+	/**
+	 * Get the daily view and click counts of an institution's ads, as flushed by
+	 * every instance up to the last flush interval.
+	 *
+	 * @param institutionId the institution id
+	 * @param adId          the ad id, or null for all the institution's ads
+	 * @param start         the first day, inclusive, or null
+	 * @param end           the last day, inclusive, or null
+	 * @return one row per ad and day
+	 */
+	public List<Map<String, Object>> getDailyCounts(Long institutionId, Long adId, LocalDate start, LocalDate end) {
+		MapSqlParameterSource params = new MapSqlParameterSource().addValue("institutionId", institutionId)
+				.addValue("adId", adId).addValue("startDate", start).addValue("endDate", end);
+		return dailyQuery.queryForList(params);
+	}
+
+	@Scheduled(fixedDelayString = "${application.ad-action-flush-interval-millis:10000}")
+	public synchronized void flush() {
+		Timer.Context context = flushTimer.time();
+		try {
+			flushCounts();
+		} finally {
+			context.stop();
+		}
+	}
+
+	private void flushCounts() {
+		LocalDate today = LocalDate.now();
+		Map<AdDay, long[]> deltas = new LinkedHashMap<>();
+		// increments that reached the counters swapped out by the last run after
+		// they were read
+		for (Map.Entry<AdDay, Counter> entry : swapped) {
+			addDelta(deltas, entry.getKey(), entry.getValue());
+		}
+		List<Map.Entry<AdDay, Counter>> swapping = new ArrayList<>();
+		for (Map.Entry<AdDay, Counter> entry : counters.entrySet()) {
+			AdDay key = entry.getKey();
+			Counter counter = entry.getValue();
+			// past days get no new events, so their counters are dropped rather
+			// than replaced; a request that crossed midnight lands in a new counter
+			boolean detached = key.day.isBefore(today) ? counters.remove(key, counter)
+					: counters.replace(key, counter, new Counter());
+			if (detached) {
+				swapping.add(new AbstractMap.SimpleImmutableEntry<>(key, counter));
+				addDelta(deltas, key, counter);
+			}
+		}
+		swapped = swapping;
+		deltas.values().removeIf(delta -> delta[0] == 0 && delta[1] == 0);
+		if (deltas.isEmpty()) {
+			return;
+		}
+
+		List<AdDay> keys = new ArrayList<>(deltas.keySet());
+		List<SqlParameterSource> batch = new ArrayList<>(keys.size());
+		for (int i = 0; i < keys.size(); i++) {
+			long[] delta = deltas.get(keys.get(i));
+			batch.add(new MapSqlParameterSource().addValue("adId", keys.get(i).adId)
+					.addValue("actionDate", keys.get(i).day).addValue("viewCount", delta[0])
+					.addValue("clickCount", delta[1]));
+		}
+		try {
+			transactionTemplate.execute(status -> upsertQuery.batchUpdate(batch));
+			log.debug("Flushed ad action counts for {} ad days", keys.size());
+		} catch (RuntimeException e) {
+			log.error("Failed to flush ad action counts for {} ad days, retrying on the next run", keys.size(), e);
+			deltas.forEach((key, delta) -> {
+				Counter counter = counter(key.adId, key.day);
+				counter.views.add(delta[0]);
+				counter.clicks.add(delta[1]);
+			});
+		}
+	}
+
+	/**
+	 * Add what a detached counter got since it was last read.
+	 */
+	private static void addDelta(Map<AdDay, long[]> deltas, AdDay key, Counter counter) {
+		long viewSum = counter.views.sum();
+		long clickSum = counter.clicks.sum();
+		long[] delta = deltas.computeIfAbsent(key, k -> new long[2]);
+		delta[0] += viewSum - counter.flushedViews;
+		delta[1] += clickSum - counter.flushedClicks;
+		counter.flushedViews = viewSum;
+		counter.flushedClicks = clickSum;
+	}
+
+	private Counter counter(Long adId, LocalDate day) {
+		return counters.computeIfAbsent(new AdDay(adId, day), key -> new Counter());
+	}
+
+	private static Collection<Long> adIds(Collection<Long> adIds) {
+		return adIds == null ? Collections.emptyList() : adIds;
+	}
+
+	@PreDestroy
+	public void destroy() {
+		flush();
+	}
+}
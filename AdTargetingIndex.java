@@ -0,0 +1,170 @@
+package com.gl.platform.service;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable index of the active ads by targeting attribute.
+ * <p>
+ * Ads are numbered densely in the order they are added and every attribute
+ * value has a posting list, a bitmap of the ads targeting it. An ad with no
+ * criteria on an attribute is open on it and sits in that attribute's open
+ * bitmap. The ads a student is eligible for are the AND, over the attributes,
+ * of the open ads OR the postings of the student's values; that eligibility
+ * vector is then ANDed with the ads of an institution type.
+ */
+public class AdTargetingIndex {
+
+	public enum Attribute {
+		INSTITUTION, AFFILIATION, PROGRAM, GEOGRAPHY
+	}
+
+	/**
+	 * An active ad with its targeting criteria.
+	 */
+	public static final class Target {
+
+		private final long adId;
+
+		private final long institutionId;
+
+		private final String institutionType;
+
+		private final Map<Attribute, Set<String>> criteria;
+
+		public Target(long adId, long institutionId, String institutionType, Map<Attribute, Set<String>> criteria) {
+			this.adId = adId;
+			this.institutionId = institutionId;
+			this.institutionType = institutionType;
+			this.criteria = criteria;
+		}
+
+		public long getAdId() {
+			return adId;
+		}
+
+		public long getInstitutionId() {
+			return institutionId;
+		}
+
+		public String getInstitutionType() {
+			return institutionType;
+		}
+
+		public Map<Attribute, Set<String>> getCriteria() {
+			return criteria;
+		}
+	}
+
+	private final long[] adIds;
+
+	private final Map<Long, Target> targets = new LinkedHashMap<>();
+
+	private final Map<Attribute, Map<String, BitSet>> postings = new EnumMap<>(Attribute.class);
+
+	private final Map<Attribute, BitSet> open = new EnumMap<>(Attribute.class);
+
+	private final Map<String, BitSet> byInstitutionType = new HashMap<>();
+
+	public AdTargetingIndex(Collection<Target> ads) {
+		for (Attribute attribute : Attribute.values()) {
+			postings.put(attribute, new HashMap<>());
+			open.put(attribute, new BitSet(ads.size()));
+		}
+		adIds = new long[ads.size()];
+		int number = 0;
+		for (Target ad : ads) {
+			int n = number++;
+			adIds[n] = ad.getAdId();
+			targets.put(ad.getAdId(), ad);
+			for (Attribute attribute : Attribute.values()) {
+				Set<String> values = ad.getCriteria().get(attribute);
+				if (values == null || values.isEmpty()) {
+					open.get(attribute).set(n);
+				} else {
+					values.forEach(value -> postings.get(attribute).computeIfAbsent(value, key -> new BitSet()).set(n));
+				}
+			}
+			if (ad.getInstitutionType() != null) {
+				byInstitutionType.computeIfAbsent(ad.getInstitutionType().toLowerCase(), key -> new BitSet()).set(n);
+			}
+		}
+	}
+
+	public int size() {
+		return adIds.length;
+	}
+
+	/**
+	 * Get the indexed ads, in index order.
+	 *
+	 * @return the ads
+	 */
+	public Collection<Target> getTargets() {
+		return Collections.unmodifiableCollection(targets.values());
+	}
+
+	/**
+	 * Get an indexed ad.
+	 *
+	 * @param adId the ad id
+	 * @return the ad, or null if it is not active
+	 */
+	public Target getTarget(Long adId) {
+		return targets.get(adId);
+	}
+
+	/**
+	 * Compute the eligibility vector of a student.
+	 *
+	 * @param profile the attribute values of the student, normalized
+	 * @return the bitmap of the numbers of the ads the student is eligible for,
+	 *         owned by the caller
+	 */
+	public BitSet eligible(Map<Attribute, Set<String>> profile) {
+		BitSet result = new BitSet(adIds.length);
+		result.set(0, adIds.length);
+		for (Attribute attribute : Attribute.values()) {
+			BitSet allowed = (BitSet) open.get(attribute).clone();
+			Map<String, BitSet> attributePostings = postings.get(attribute);
+			for (String value : profile.getOrDefault(attribute, Collections.emptySet())) {
+				BitSet posting = attributePostings.get(value);
+				if (posting != null) {
+					allowed.or(posting);
+				}
+			}
+			result.and(allowed);
+			if (result.isEmpty()) {
+				break;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Get the ads of an eligibility vector posted by institutions of a type.
+	 *
+	 * @param eligible        an eligibility vector of this index
+	 * @param institutionType the type of the posting institutions, or null for
+	 *                        every type
+	 * @return the ad ids, in index order
+	 */
+	public long[] select(BitSet eligible, String institutionType) {
+		BitSet selected = eligible;
+		if (institutionType != null) {
+			BitSet ofType = byInstitutionType.get(institutionType.toLowerCase());
+			if (ofType == null) {
+				return new long[0];
+			}
+			selected = (BitSet) eligible.clone();
+			selected.and(ofType);
+		}
+		return selected.stream().mapToLong(n -> adIds[n]).toArray();
+	}
+}
@@ -0,0 +1,445 @@
+package com.gl.platform.service;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.gl.platform.config.ApplicationProperties;
+import com.gl.platform.repository.NamedQuery;
+import com.gl.platform.repository.NamedQueryRegistry;
+import com.gl.platform.service.AdTargetingIndex.Attribute;
+import com.gl.platform.service.AdTargetingIndex.Target;
+import com.gl.platform.service.dto.InstitutionAdsManagementDTO;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Service keeping the {@link AdTargetingIndex} of the active ads in memory.
+ * <p>
+ * The index is loaded once the application is ready and fully reloaded every
+ * night. Ad and subscription writes call {@link #adChanged} or
+ * {@link #institutionChanged}: only that institution's ads are read again and
+ * a new index is swapped in. A student's attributes are cached for
+ * {@link #PROFILE_TTL_MINUTES} minutes and their eligibility vector until the
+ * index changes, so a home page load is a cache hit or a few bitmap ANDs. An
+ * ad aimed at an affiliation reaches the students of every institution under
+ * it in the {@link InstitutionHierarchy}. Only ads whose subscription window
+ * covers today are indexed, and the index is reloaded on the day a window
+ * opens or closes.
+ * <p>
+ * {@code InstitutionAdsManagementService.processTagettedAds} stays the source of
+ * truth: a {@code application.ad-targeting-shadow-sample-rate} share of the
+ * lookups is evaluated on the index too and compared with it, and the index
+ * only serves the ads once {@code application.ad-targeting-serve-index} is
+ * set. Evaluation latency is
+ * timed as {@code ads.targeting.evaluate} against {@code ads.targeting.source},
+ * and the comparisons are metered as {@code ads.targeting.shadow.match} and
+ * {@code ads.targeting.shadow.mismatch}.
+ */
+@Service
+public class AdTargetingService {
+
+	private final Logger log = LoggerFactory.getLogger(AdTargetingService.class);
+
+	private static final String QUERY_GROUP = "ad-targeting";
+
+	private static final long PROFILE_TTL_MINUTES = 10;
+
+	private static final int STUDENT_CACHE_SIZE = 50000;
+
+	private static final long POSTED_ADS_TTL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+	private static final class Eligibility {
+
+		private final AdTargetingIndex index;
+
+		private final BitSet ads;
+
+		Eligibility(AdTargetingIndex index, BitSet ads) {
+			this.index = index;
+			this.ads = ads;
+		}
+	}
+
+	private static final class PostedAds {
+
+		private final List<Map<String, Object>> ads;
+
+		private final long expiresAt;
+
+		PostedAds(List<Map<String, Object>> ads, long expiresAt) {
+			this.ads = ads;
+			this.expiresAt = expiresAt;
+		}
+	}
+
+	private final InstitutionAdsManagementService institutionAdsManagementService;
+
+	private final InstitutionHierarchyService institutionHierarchyService;
+
+	private final NamedQuery targetsQuery;
+
+	private final NamedQuery adInstitutionQuery;
+
+	private final NamedQuery nextWindowChangeQuery;
+
+	private final NamedQuery studentAttributesQuery;
+
+	private final Cache<Long, Map<Attribute, Set<String>>> profiles = CacheBuilder.newBuilder()
+			.maximumSize(STUDENT_CACHE_SIZE).expireAfterWrite(PROFILE_TTL_MINUTES, TimeUnit.MINUTES).build();
+
+	private final Cache<Long, Eligibility> eligibilities = CacheBuilder.newBuilder().maximumSize(STUDENT_CACHE_SIZE)
+			.expireAfterWrite(PROFILE_TTL_MINUTES, TimeUnit.MINUTES).build();
+
+	private final Timer evaluateTimer;
+
+	private final Timer sourceTimer;
+
+	private final Meter shadowMatches;
+
+	private final Meter shadowMismatches;
+
+	private final boolean serveIndex;
+
+	private final double shadowSampleRate;
+
+	private volatile AdTargetingIndex index;
+
+	private volatile LocalDate nextWindowChange;
+
+	private volatile Map<Long, InstitutionAdsManagementDTO> ads = Collections.emptyMap();
+
+	private volatile PostedAds allPostedAds;
+
+	public AdTargetingService(InstitutionAdsManagementService institutionAdsManagementService,
+			InstitutionHierarchyService institutionHierarchyService, NamedQueryRegistry namedQueryRegistry,
+			ApplicationProperties applicationProperties, MetricRegistry metricRegistry) {
+		this.institutionAdsManagementService = institutionAdsManagementService;
+		this.institutionHierarchyService = institutionHierarchyService;
+		this.targetsQuery = namedQueryRegistry.get(QUERY_GROUP, "ad.targets");
+		this.adInstitutionQuery = namedQueryRegistry.get(QUERY_GROUP, "ad.institution");
+		this.nextWindowChangeQuery = namedQueryRegistry.get(QUERY_GROUP, "ad.window.next.change");
+		this.studentAttributesQuery = namedQueryRegistry.get(QUERY_GROUP, "student.targeting.attributes");
+		this.serveIndex = applicationProperties.isAdTargetingServeIndex();
+		this.shadowSampleRate = applicationProperties.getAdTargetingShadowSampleRate();
+		this.evaluateTimer = metricRegistry.timer("ads.targeting.evaluate");
+		this.sourceTimer = metricRegistry.timer("ads.targeting.source");
+		this.shadowMatches = metricRegistry.meter("ads.targeting.shadow.match");
+		this.shadowMismatches = metricRegistry.meter("ads.targeting.shadow.mismatch");
+		metricRegistry.register("ads.targeting.ads", (Gauge<Integer>) () -> {
+			AdTargetingIndex current = index;
+			return current == null ? 0 : current.size();
+		});
+	}
+
+	@Async
+	@EventListener(ApplicationReadyEvent.class)
+	public void onApplicationReady() {
+		rebuild();
+	}
+
+	/**
+	 * Reload every active ad and swap in a new index.
+	 */
+	@Scheduled(cron = "0 15 3 * * ?")
+	public synchronized void rebuild() {
+		List<Target> targets = loadTargets(null);
+		Set<Long> active = adIds(targets);
+		Map<Long, InstitutionAdsManagementDTO> loaded = new HashMap<>();
+		targets.stream().map(Target::getInstitutionId).distinct()
+				.forEach(institutionId -> loaded.putAll(loadAds(institutionId, active)));
+		swap(targets, loaded);
+		List<LocalDate> changes = nextWindowChangeQuery.query(new MapSqlParameterSource(), (rs, rowNum) -> {
+			Date changeDate = rs.getDate("change_date");
+			return changeDate == null ? null : changeDate.toLocalDate();
+		});
+		nextWindowChange = changes.isEmpty() ? null : changes.get(0);
+		log.info("Built the ad targeting index of {} active ads, next subscription window change on {}",
+				targets.size(), nextWindowChange);
+	}
+
+	/**
+	 * Reload the index once a subscription window opened or closed since it was
+	 * built.
+	 */
+	@Scheduled(fixedDelay = 60000)
+	public void reloadOnWindowChange() {
+		LocalDate change = nextWindowChange;
+		if (change != null && index != null && !LocalDate.now().isBefore(change)) {
+			rebuild();
+		}
+	}
+
+	/**
+	 * Reload the ads of the institution owning an ad that was created, enabled,
+	 * disabled or deleted.
+	 *
+	 * @param adId the ad id
+	 */
+	public void adChanged(Long adId) {
+		if (adId == null) {
+			return;
+		}
+		AdTargetingIndex current = index;
+		Target target = current == null ? null : current.getTarget(adId);
+		if (target != null) {
+			institutionChanged(target.getInstitutionId());
+			return;
+		}
+		List<Long> institutionIds = adInstitutionQuery.query(new MapSqlParameterSource("adId", adId),
+				(rs, rowNum) -> rs.getLong("institution_id"));
+		institutionIds.forEach(this::institutionChanged);
+	}
+
+	/**
+	 * Reload the ads of an institution whose ads or subscription changed, and
+	 * swap in a new index.
+	 *
+	 * @param institutionId the institution id
+	 */
+	public synchronized void institutionChanged(Long institutionId) {
+		AdTargetingIndex current = index;
+		if (institutionId == null || current == null) {
+			return;
+		}
+		List<Target> reloaded = loadTargets(institutionId);
+		List<Target> targets = new ArrayList<>(reloaded);
+		Map<Long, InstitutionAdsManagementDTO> updated = new HashMap<>(ads);
+		for (Target target : current.getTargets()) {
+			if (target.getInstitutionId() == institutionId) {
+				updated.remove(target.getAdId());
+			} else {
+				targets.add(target);
+			}
+		}
+		targets.sort(Comparator.comparingLong(Target::getAdId).reversed());
+		updated.putAll(loadAds(institutionId, adIds(reloaded)));
+		swap(targets, updated);
+		log.debug("Refreshed the ads of institution {} in the ad targeting index", institutionId);
+	}
+
+	/**
+	 * Forget the cached attributes of a student whose profile changed.
+	 *
+	 * @param studentId the student's user id
+	 */
+	public void studentChanged(Long studentId) {
+		if (studentId != null) {
+			profiles.invalidate(studentId);
+			eligibilities.invalidate(studentId);
+		}
+	}
+
+	/**
+	 * Get the active ads a student is targeted with, from the source of truth
+	 * unless the index is set to serve them, in which case the ads are shared
+	 * between requests and must not be modified.
+	 *
+	 * @param studentId       the student's user id
+	 * @param institutionType the type of the posting institutions, or null for
+	 *                        every type
+	 * @param source          evaluates the targeting on the database
+	 * @return the ads
+	 */
+	public List<InstitutionAdsManagementDTO> getTargettedAds(Long studentId, String institutionType,
+			Supplier<List<InstitutionAdsManagementDTO>> source) {
+		if (serveIndex) {
+			Optional<List<InstitutionAdsManagementDTO>> served = evaluate(studentId, institutionType);
+			if (served.isPresent()) {
+				return served.get();
+			}
+		}
+		// only a sample of the lookups is checked against the index
+		boolean shadow = !serveIndex && ThreadLocalRandom.current().nextDouble() < shadowSampleRate;
+		Optional<List<InstitutionAdsManagementDTO>> indexed = shadow ? evaluate(studentId, institutionType)
+				: Optional.empty();
+		List<InstitutionAdsManagementDTO> result;
+		Timer.Context context = sourceTimer.time();
+		try {
+			result = source.get();
+		} finally {
+			context.stop();
+		}
+		indexed.ifPresent(indexedAds -> compare(studentId, institutionType, indexedAds, result));
+		return result;
+	}
+
+	/**
+	 * Get every posted ad for the student view, computed at most once a minute
+	 * and again after an ad change. The list is shared between requests and must
+	 * not be modified.
+	 *
+	 * @param loader reads the posted ads
+	 * @return the posted ads
+	 */
+	public List<Map<String, Object>> getAllPostedAds(Supplier<List<Map<String, Object>>> loader) {
+		PostedAds current = allPostedAds;
+		long now = System.currentTimeMillis();
+		if (current != null && now < current.expiresAt) {
+			return current.ads;
+		}
+		AdTargetingIndex loadedFor = index;
+		List<Map<String, Object>> loaded = Collections.unmodifiableList(loader.get());
+		// an ad change while loading may have made this list stale already
+		if (loadedFor != null && loadedFor == index) {
+			allPostedAds = new PostedAds(loaded, now + POSTED_ADS_TTL_MILLIS);
+		}
+		return loaded;
+	}
+
+	private void compare(Long studentId, String institutionType, List<InstitutionAdsManagementDTO> indexed,
+			List<InstitutionAdsManagementDTO> expected) {
+		Set<Long> indexedIds = new HashSet<>();
+		indexed.forEach(ad -> indexedIds.add(ad.getId()));
+		Set<Long> expectedIds = new HashSet<>();
+		expected.forEach(ad -> expectedIds.add(ad.getId()));
+		if (indexedIds.equals(expectedIds)) {
+			shadowMatches.mark();
+		} else {
+			shadowMismatches.mark();
+			log.debug("Ad targeting index mismatch for student {} and type {}: index {}, source {}", studentId,
+					institutionType, indexedIds, expectedIds);
+		}
+	}
+
+	private Optional<List<InstitutionAdsManagementDTO>> evaluate(Long studentId, String institutionType) {
+		AdTargetingIndex current = index;
+		if (current == null) {
+			return Optional.empty();
+		}
+		Timer.Context context = evaluateTimer.time();
+		try {
+			Map<Long, InstitutionAdsManagementDTO> currentAds = ads;
+			List<InstitutionAdsManagementDTO> result = new ArrayList<>();
+			for (long adId : current.select(eligibility(studentId, current), institutionType)) {
+				InstitutionAdsManagementDTO ad = currentAds.get(adId);
+				if (ad != null) {
+					result.add(ad);
+				}
+			}
+			return Optional.of(result);
+		} finally {
+			context.stop();
+		}
+	}
+
+	private BitSet eligibility(Long studentId, AdTargetingIndex current) {
+		Eligibility cached = eligibilities.getIfPresent(studentId);
+		if (cached != null && cached.index == current) {
+			return cached.ads;
+		}
+		BitSet eligible = current.eligible(profile(studentId));
+		eligibilities.put(studentId, new Eligibility(current, eligible));
+		return eligible;
+	}
+
+	private Map<Attribute, Set<String>> profile(Long studentId) {
+		try {
+			return profiles.get(studentId, () -> loadProfile(studentId));
+		} catch (ExecutionException | UncheckedExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	private Map<Attribute, Set<String>> loadProfile(Long studentId) {
+		Map<Attribute, Set<String>> profile = new EnumMap<>(Attribute.class);
+		studentAttributesQuery.query(new MapSqlParameterSource("studentId", studentId), rs -> {
+			Attribute attribute = Attribute.valueOf(rs.getString("attribute"));
+			String value = rs.getString("value");
+			if (value != null) {
+				profile.computeIfAbsent(attribute, key -> new HashSet<>()).add(value);
+			}
+		});
+		// a student is affiliated with their institutions and everything above them
+		Set<String> affiliations = new HashSet<>();
+		InstitutionHierarchy hierarchy = institutionHierarchyService.getHierarchy();
+		for (String institutionId : profile.getOrDefault(Attribute.INSTITUTION, Collections.emptySet())) {
+			affiliations.add(institutionId);
+			hierarchy.getAncestors(Long.valueOf(institutionId)).forEach(id -> affiliations.add(id.toString()));
+		}
+		profile.put(Attribute.AFFILIATION, affiliations);
+		return profile;
+	}
+
+	private List<Target> loadTargets(Long institutionId) {
+		MapSqlParameterSource params = new MapSqlParameterSource().addValue("allInstitutions", institutionId == null)
+				.addValue("institutionId", institutionId);
+		Map<Long, Target> targets = new LinkedHashMap<>();
+		targetsQuery.query(params, rs -> {
+			long adId = rs.getLong("ad_id");
+			Target target = targets.get(adId);
+			if (target == null) {
+				target = new Target(adId, rs.getLong("institution_id"), rs.getString("institution_type"),
+						new EnumMap<>(Attribute.class));
+				targets.put(adId, target);
+			}
+			String attribute = rs.getString("attribute");
+			String value = rs.getString("value");
+			if (attribute != null && value != null) {
+				try {
+					target.getCriteria().computeIfAbsent(Attribute.valueOf(attribute), key -> new LinkedHashSet<>())
+							.add(value);
+				} catch (IllegalArgumentException e) {
+					log.warn("Ignoring unknown targeting attribute {} of ad {}", attribute, adId);
+				}
+			}
+		});
+		return new ArrayList<>(targets.values());
+	}
+
+	private Map<Long, InstitutionAdsManagementDTO> loadAds(Long institutionId, Set<Long> active) {
+		Map<Long, InstitutionAdsManagementDTO> loaded = new HashMap<>();
+		for (InstitutionAdsManagementDTO ad : institutionAdsManagementService.getAllAdsPosted(institutionId)) {
+			if (active.contains(ad.getId())) {
+				loaded.put(ad.getId(), ad);
+			}
+		}
+		return loaded;
+	}
+
+	private static Set<Long> adIds(List<Target> targets) {
+		Set<Long> adIds = new HashSet<>();
+		targets.forEach(target -> adIds.add(target.getAdId()));
+		return adIds;
+	}
+
+	private void swap(List<Target> targets, Map<Long, InstitutionAdsManagementDTO> updated) {
+		AdTargetingIndex rebuilt = new AdTargetingIndex(targets);
+		ads = Collections.unmodifiableMap(updated);
+		index = rebuilt;
+		allPostedAds = null;
+	}
+}
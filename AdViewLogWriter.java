@@ -0,0 +1,186 @@
+package com.gl.platform.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.gl.platform.service.dto.GlUserAdActionRequestDTO;
+
+/**
+ * Service appending the per-student ad view rows behind the ad reports off the
+ * request path.
+ * <p>
+ * {@link #append} captures the viewer's security context and queues the view
+ * in a bounded queue of {@link #QUEUE_CAPACITY} views. A dedicated writer
+ * thread, not the shared scheduler, drains it in batches of up to
+ * {@link #BATCH_SIZE} views and writes each batch through
+ * {@link GlUserAdActionService#saveAdsViewedByUser} in one transaction. When
+ * the queue is full the caller writes its own rows, so views are only lost if
+ * the instance dies with views still queued; the queue is drained on shutdown.
+ */
+@Service
+public class AdViewLogWriter {
+
+	private final Logger log = LoggerFactory.getLogger(AdViewLogWriter.class);
+
+	private static final int QUEUE_CAPACITY = 10000;
+
+	private static final int BATCH_SIZE = 200;
+
+	private static final long POLL_MILLIS = 1000;
+
+	private static final long SHUTDOWN_TIMEOUT_MILLIS = 30000;
+
+	private static final class View {
+
+		private final GlUserAdActionRequestDTO request;
+
+		private final SecurityContext securityContext;
+
+		View(GlUserAdActionRequestDTO request, SecurityContext securityContext) {
+			this.request = request;
+			this.securityContext = securityContext;
+		}
+	}
+
+	private final GlUserAdActionService glUserAdActionService;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final BlockingQueue<View> views = new LinkedBlockingQueue<>(QUEUE_CAPACITY);
+
+	private volatile boolean running = true;
+
+	private final Thread writer;
+
+	private final Meter written;
+
+	private final Meter callerWrites;
+
+	private final Meter failed;
+
+	private final Timer batchTimer;
+
+	public AdViewLogWriter(GlUserAdActionService glUserAdActionService,
+			PlatformTransactionManager transactionManager, MetricRegistry metricRegistry) {
+		this.glUserAdActionService = glUserAdActionService;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		this.written = metricRegistry.meter("ad.views.log.written");
+		this.callerWrites = metricRegistry.meter("ad.views.log.caller-writes");
+		this.failed = metricRegistry.meter("ad.views.log.failed");
+		this.batchTimer = metricRegistry.timer("ad.views.log.batch");
+		metricRegistry.register("ad.views.log.depth", (Gauge<Integer>) views::size);
+		this.writer = new CustomizableThreadFactory("ad-view-log-").newThread(this::run);
+		this.writer.start();
+	}
+
+	/**
+	 * Queue the rows of the ads a student has viewed.
+	 *
+	 * @param request the viewed ads
+	 */
+	public void append(GlUserAdActionRequestDTO request) {
+		View view = new View(request, SecurityContextHolder.getContext());
+		if (running && views.offer(view)) {
+			return;
+		}
+		callerWrites.mark();
+		save(request);
+	}
+
+	private void run() {
+		List<View> batch = new ArrayList<>(BATCH_SIZE);
+		while (running || !views.isEmpty()) {
+			try {
+				View first = views.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+				if (first == null) {
+					continue;
+				}
+				batch.add(first);
+				views.drainTo(batch, BATCH_SIZE - 1);
+				write(batch);
+			} catch (InterruptedException e) {
+				// stop taking new views, the loop drains what is queued
+				running = false;
+			} finally {
+				batch.clear();
+			}
+		}
+		log.info("Ad view log writer stopped");
+	}
+
+	private void write(List<View> batch) {
+		Timer.Context context = batchTimer.time();
+		try {
+			transactionTemplate.execute(status -> {
+				batch.forEach(this::write);
+				return null;
+			});
+			written.mark(batch.size());
+		} catch (RuntimeException e) {
+			log.warn("Ad view batch of {} views failed, writing them one by one", batch.size(), e);
+			for (View view : batch) {
+				try {
+					transactionTemplate.execute(status -> {
+						write(view);
+						return null;
+					});
+					written.mark();
+				} catch (RuntimeException viewFailure) {
+					failed.mark();
+					log.error("Could not log ads viewed by user {}", view.request.getUserId(), viewFailure);
+				}
+			}
+		} finally {
+			context.stop();
+		}
+	}
+
+	private void write(View view) {
+		SecurityContextHolder.setContext(view.securityContext);
+		try {
+			save(view.request);
+		} finally {
+			SecurityContextHolder.clearContext();
+		}
+	}
+
+	private void save(GlUserAdActionRequestDTO request) {
+		try {
+			glUserAdActionService.saveAdsViewedByUser(request);
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@PreDestroy
+	public void destroy() throws InterruptedException {
+		running = false;
+		writer.join(SHUTDOWN_TIMEOUT_MILLIS);
+		if (writer.isAlive()) {
+			log.warn("Ad view log writer did not drain within {} ms, {} views lost", SHUTDOWN_TIMEOUT_MILLIS,
+					views.size());
+		}
+	}
+}
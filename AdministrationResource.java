@@ -5,11 +5,14 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import javax.servlet.http.HttpServletResponse;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -18,6 +21,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -25,6 +29,7 @@ import org.springframework.web.multipart.MultipartFile;
 
 import com.gl.platform.service.AdministrationService;
 import com.gl.platform.service.AuthorizationService;
+import com.gl.platform.service.ReportStreamingService;
 import com.gl.platform.service.dto.CounsellorStudentIdsRequestDTO;
 import com.gl.platform.service.dto.GlCounsellorFilterDTO;
 import com.gl.platform.service.dto.MarketingUserAnalyticsDTO;
@@ -45,6 +50,9 @@ public class AdministrationResource {
 	@Autowired
 	private AuthorizationService authorizationService;
 
+	@Autowired
+	private ReportStreamingService reportStreamingService;
+
 	public static final String OWNER = "not the owner";
 
 	@PostMapping("/import/counsellor/students")
@@ -129,14 +137,16 @@ public class AdministrationResource {
 
 	@GetMapping("/export/all/students/{institutionId}/{counsellorId}")
 	public ResponseEntity<List<Map<String, Object>>> exportAll(@PathVariable Long institutionId,
-			@PathVariable Long counsellorId) {
+			@PathVariable Long counsellorId,
+			@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+			HttpServletResponse servletResponse) throws IOException {
 		log.info("REST request to get the students for institution id : {}", institutionId);
 		if (!authorizationService.ownedByInstitution(institutionId) || !authorizationService.isCounsellor()) {
 			throw new AccessDeniedException(OWNER);
 		}
 		List<Map<String, Object>> response = administrationService.exportAllStudentsByInstitutionId(institutionId,
 				counsellorId);
-		return new ResponseEntity<>(response, HttpStatus.OK);
+		return reportStreamingService.respond(accept, "students", response, servletResponse);
 	}
 
 	@DeleteMapping("/counsellor/student/{userId}")
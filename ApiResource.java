@@ -1,12 +1,13 @@
 package com.gl.platform.web.rest;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.nio.charset.StandardCharsets;
 import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
 
-import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,11 +20,10 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.codahale.metrics.annotation.Timed;
-import com.gl.platform.service.TranscriptsService;
+import com.gl.platform.service.TranscriptVerificationService;
 import com.gl.platform.service.dto.TranscriptVerification;
 import com.gl.platform.service.dto.VerificationResult;
 import com.gl.platform.web.rest.errors.BadRequestAlertException;
-import com.google.common.hash.Hashing;
 
 @RestController
 @RequestMapping("/api/v1")
@@ -32,10 +32,12 @@ public class ApiResource {
 	private final Logger log = LoggerFactory.getLogger(ApiResource.class);
 
 	@Autowired
-	private TranscriptsService transcriptsService;
+	private TranscriptVerificationService transcriptVerificationService;
 
 	private static final String TRANSCRIPT_ENTITY_NAME = "transcripts";
 
+	private static final int MAX_BATCH_SIZE = 50;
+
 	@PostMapping("/verifycredentials")
 	@Timed
 	public @ResponseBody ResponseEntity<VerificationResult> verifyCredentials(
@@ -51,30 +53,58 @@ public class ApiResource {
 
 		log.info("Files Came through : {}", files.getSize());
 
-		TranscriptVerification transcriptVerification = new TranscriptVerification();
-
 		VerificationResult verificationResult = new VerificationResult();
 
-		try {
+		try (InputStream in = files.getInputStream()) {
+			verificationResult = toVerificationResult(transcriptVerificationService.verify(in));
+		} catch (IOException e) {
+			log.error("Error occured access the file", e);
+		}
 
-			String transcript = IOUtils.toString(files.getInputStream(), StandardCharsets.UTF_8);
+		return ResponseEntity.created(new URI("/api/v1/verifyCredentials")).body(verificationResult);
+	}
 
-			String transcriptSha256hex = Hashing.sha256().hashString(transcript, StandardCharsets.UTF_8).toString();
-			transcriptVerification = transcriptsService.validateTranscript(transcriptSha256hex);
+	@PostMapping("/verifycredentials/batch")
+	@Timed
+	public @ResponseBody ResponseEntity<List<VerificationResult>> verifyCredentialsBatch(
+			@RequestParam("files") MultipartFile[] files) throws URISyntaxException {
 
-			verificationResult.setResult(transcriptVerification.isVerified());
-			verificationResult.setCredentialType(transcriptVerification.getType());
-			verificationResult.setIssuedBy(transcriptVerification.getUniversityName());
-			verificationResult.setIssuedTo(
-					transcriptVerification.getStudentFirstName() + " " + transcriptVerification.getStudentLastName());
-			verificationResult.setRecipientEmail(transcriptVerification.getShareRecipientEmailAddress());
-			verificationResult.setRecipientName(transcriptVerification.getShareRecipientName());
-			verificationResult.setSharedDate(transcriptVerification.getShareDate().toString());
+		if (files == null || files.length == 0) {
+			throw new BadRequestAlertException(" Transcript File missing", TRANSCRIPT_ENTITY_NAME, "idnull");
+		}
+		if (files.length > MAX_BATCH_SIZE) {
+			throw new BadRequestAlertException("At most " + MAX_BATCH_SIZE + " files can be verified at once",
+					TRANSCRIPT_ENTITY_NAME, "batchsize");
+		}
 
-		} catch (IOException e) {
-			log.error("Error occured access the file", e);
+		log.info("Files Came through : {}", files.length);
+
+		List<VerificationResult> results = new ArrayList<>(files.length);
+		for (MultipartFile file : files) {
+			VerificationResult verificationResult = new VerificationResult();
+			try (InputStream in = file.getInputStream()) {
+				verificationResult = toVerificationResult(transcriptVerificationService.verify(in));
+			} catch (IOException e) {
+				log.error("Error occured access the file", e);
+			}
+			results.add(verificationResult);
 		}
 
-		return ResponseEntity.created(new URI("/api/v1/verifyCredentials")).body(verificationResult);
+		return ResponseEntity.created(new URI("/api/v1/verifyCredentials/batch")).body(results);
+	}
+
+	private VerificationResult toVerificationResult(TranscriptVerification transcriptVerification) {
+		VerificationResult verificationResult = new VerificationResult();
+		verificationResult.setResult(transcriptVerification.isVerified());
+		verificationResult.setCredentialType(transcriptVerification.getType());
+		verificationResult.setIssuedBy(transcriptVerification.getUniversityName());
+		verificationResult.setIssuedTo(
+				transcriptVerification.getStudentFirstName() + " " + transcriptVerification.getStudentLastName());
+		verificationResult.setRecipientEmail(transcriptVerification.getShareRecipientEmailAddress());
+		verificationResult.setRecipientName(transcriptVerification.getShareRecipientName());
+		if (transcriptVerification.getShareDate() != null) {
+			verificationResult.setSharedDate(transcriptVerification.getShareDate().toString());
+		}
+		return verificationResult;
 	}
 }
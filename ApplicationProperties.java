@@ -94,6 +94,56 @@ public class ApplicationProperties {
 	private String edreadyRedirectUrl;
 
 	private String adManagmentPath;
+
+	private int shareExportPoolSize = 4;
+
+	private int shareExportInstitutionLimit = 2;
+
+	private int transcriptUploadPoolSize = 4;
+
+	private int trexLoadBatchSize = 500;
+
+	private long slowQueryThresholdMs = 1000;
+
+	private long slowRequestThresholdMs = 2000;
+
+	private double profilerSampleRate = 0.01;
+
+	private String replicaDatasourceUrl;
+
+	private String replicaDatasourceUsername;
+
+	private String replicaDatasourcePassword;
+
+	private int replicaPoolSize = 10;
+
+	private long replicaMaxLagSeconds = 10;
+
+	private int reportCacheSize = 500;
+
+	private long reportCacheTtlSeconds = 300;
+
+	private int jobMatchTopK = 50;
+
+	private int jobMatchCacheSize = 20000;
+
+	private int auditQueueCapacity = 10000;
+
+	private int auditBatchSize = 500;
+
+	private long auditFlushIntervalMillis = 1000;
+
+	private String auditOverflowPolicy = "CALLER_WRITES";
+
+	private long adActionFlushIntervalMillis = 10000;
+
+	private long jwtRevocationPollMillis = 10000;
+
+	private int schedulerPoolSize = 8;
+
+	private boolean adTargetingServeIndex = false;
+
+	private double adTargetingShadowSampleRate = 0.01;
 	
 	public String getSsnapRedirectApi() {
 		return ssnapRedirectApi;
@@ -440,4 +490,204 @@ public class ApplicationProperties {
 	public void setAdManagmentPath(String adManagmentPath) {
 		this.adManagmentPath = adManagmentPath;
 	}
+
+	public int getShareExportPoolSize() {
+		return shareExportPoolSize;
+	}
+
+	public void setShareExportPoolSize(int shareExportPoolSize) {
+		this.shareExportPoolSize = shareExportPoolSize;
+	}
+
+	public int getShareExportInstitutionLimit() {
+		return shareExportInstitutionLimit;
+	}
+
+	public void setShareExportInstitutionLimit(int shareExportInstitutionLimit) {
+		this.shareExportInstitutionLimit = shareExportInstitutionLimit;
+	}
+
+	public int getTranscriptUploadPoolSize() {
+		return transcriptUploadPoolSize;
+	}
+
+	public void setTranscriptUploadPoolSize(int transcriptUploadPoolSize) {
+		this.transcriptUploadPoolSize = transcriptUploadPoolSize;
+	}
+
+	public int getTrexLoadBatchSize() {
+		return trexLoadBatchSize;
+	}
+
+	public void setTrexLoadBatchSize(int trexLoadBatchSize) {
+		this.trexLoadBatchSize = trexLoadBatchSize;
+	}
+
+	public long getSlowQueryThresholdMs() {
+		return slowQueryThresholdMs;
+	}
+
+	public void setSlowQueryThresholdMs(long slowQueryThresholdMs) {
+		this.slowQueryThresholdMs = slowQueryThresholdMs;
+	}
+
+	public long getSlowRequestThresholdMs() {
+		return slowRequestThresholdMs;
+	}
+
+	public void setSlowRequestThresholdMs(long slowRequestThresholdMs) {
+		this.slowRequestThresholdMs = slowRequestThresholdMs;
+	}
+
+	public double getProfilerSampleRate() {
+		return profilerSampleRate;
+	}
+
+	public void setProfilerSampleRate(double profilerSampleRate) {
+		this.profilerSampleRate = profilerSampleRate;
+	}
+
+	public String getReplicaDatasourceUrl() {
+		return replicaDatasourceUrl;
+	}
+
+	public void setReplicaDatasourceUrl(String replicaDatasourceUrl) {
+		this.replicaDatasourceUrl = replicaDatasourceUrl;
+	}
+
+	public String getReplicaDatasourceUsername() {
+		return replicaDatasourceUsername;
+	}
+
+	public void setReplicaDatasourceUsername(String replicaDatasourceUsername) {
+		this.replicaDatasourceUsername = replicaDatasourceUsername;
+	}
+
+	public String getReplicaDatasourcePassword() {
+		return replicaDatasourcePassword;
+	}
+
+	public void setReplicaDatasourcePassword(String replicaDatasourcePassword) {
+		this.replicaDatasourcePassword = replicaDatasourcePassword;
+	}
+
+	public int getReplicaPoolSize() {
+		return replicaPoolSize;
+	}
+
+	public void setReplicaPoolSize(int replicaPoolSize) {
+		this.replicaPoolSize = replicaPoolSize;
+	}
+
+	public long getReplicaMaxLagSeconds() {
+		return replicaMaxLagSeconds;
+	}
+
+	public void setReplicaMaxLagSeconds(long replicaMaxLagSeconds) {
+		this.replicaMaxLagSeconds = replicaMaxLagSeconds;
+	}
+
+	public int getReportCacheSize() {
+		return reportCacheSize;
+	}
+
+	public void setReportCacheSize(int reportCacheSize) {
+		this.reportCacheSize = reportCacheSize;
+	}
+
+	public long getReportCacheTtlSeconds() {
+		return reportCacheTtlSeconds;
+	}
+
+	public void setReportCacheTtlSeconds(long reportCacheTtlSeconds) {
+		this.reportCacheTtlSeconds = reportCacheTtlSeconds;
+	}
+
+	public int getJobMatchTopK() {
+		return jobMatchTopK;
+	}
+
+	public void setJobMatchTopK(int jobMatchTopK) {
+		this.jobMatchTopK = jobMatchTopK;
+	}
+
+	public int getJobMatchCacheSize() {
+		return jobMatchCacheSize;
+	}
+
+	public void setJobMatchCacheSize(int jobMatchCacheSize) {
+		this.jobMatchCacheSize = jobMatchCacheSize;
+	}
+
+	public int getAuditQueueCapacity() {
+		return auditQueueCapacity;
+	}
+
+	public void setAuditQueueCapacity(int auditQueueCapacity) {
+		this.auditQueueCapacity = auditQueueCapacity;
+	}
+
+	public int getAuditBatchSize() {
+		return auditBatchSize;
+	}
+
+	public void setAuditBatchSize(int auditBatchSize) {
+		this.auditBatchSize = auditBatchSize;
+	}
+
+	public long getAuditFlushIntervalMillis() {
+		return auditFlushIntervalMillis;
+	}
+
+	public void setAuditFlushIntervalMillis(long auditFlushIntervalMillis) {
+		this.auditFlushIntervalMillis = auditFlushIntervalMillis;
+	}
+
+	public String getAuditOverflowPolicy() {
+		return auditOverflowPolicy;
+	}
+
+	public void setAuditOverflowPolicy(String auditOverflowPolicy) {
+		this.auditOverflowPolicy = auditOverflowPolicy;
+	}
+
+	public long getAdActionFlushIntervalMillis() {
+		return adActionFlushIntervalMillis;
+	}
+
+	public void setAdActionFlushIntervalMillis(long adActionFlushIntervalMillis) {
+		this.adActionFlushIntervalMillis = adActionFlushIntervalMillis;
+	}
+
+	public long getJwtRevocationPollMillis() {
+		return jwtRevocationPollMillis;
+	}
+
+	public void setJwtRevocationPollMillis(long jwtRevocationPollMillis) {
+		this.jwtRevocationPollMillis = jwtRevocationPollMillis;
+	}
+
+	public int getSchedulerPoolSize() {
+		return schedulerPoolSize;
+	}
+
+	public void setSchedulerPoolSize(int schedulerPoolSize) {
+		this.schedulerPoolSize = schedulerPoolSize;
+	}
+
+	public boolean isAdTargetingServeIndex() {
+		return adTargetingServeIndex;
+	}
+
+	public void setAdTargetingServeIndex(boolean adTargetingServeIndex) {
+		this.adTargetingServeIndex = adTargetingServeIndex;
+	}
+
+	public double getAdTargetingShadowSampleRate() {
+		return adTargetingShadowSampleRate;
+	}
+
+	public void setAdTargetingShadowSampleRate(double adTargetingShadowSampleRate) {
+		this.adTargetingShadowSampleRate = adTargetingShadowSampleRate;
+	}
 }
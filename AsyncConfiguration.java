@@ -12,6 +12,7 @@ import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 import io.github.jhipster.async.ExceptionHandlingAsyncTaskExecutor;
 import io.github.jhipster.config.JHipsterProperties;
@@ -25,8 +26,11 @@ public class AsyncConfiguration implements AsyncConfigurer {
 
 	private final JHipsterProperties jHipsterProperties;
 
-	public AsyncConfiguration(JHipsterProperties jHipsterProperties) {
+	private final ApplicationProperties applicationProperties;
+
+	public AsyncConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
 		this.jHipsterProperties = jHipsterProperties;
+		this.applicationProperties = applicationProperties;
 	}
 
 	@Override
@@ -41,6 +45,20 @@ public class AsyncConfiguration implements AsyncConfigurer {
 		return new ExceptionHandlingAsyncTaskExecutor(executor);
 	}
 
+	/**
+	 * Scheduler of the {@code @Scheduled} methods. Without it they all share a
+	 * single thread, and one slow job delays every other one.
+	 */
+	@Bean(name = "taskScheduler")
+	public ThreadPoolTaskScheduler taskScheduler() {
+		log.debug("Creating Task Scheduler");
+		ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+		scheduler.setPoolSize(Math.max(1, applicationProperties.getSchedulerPoolSize()));
+		scheduler.setThreadNamePrefix("greenlightapp-Scheduler-");
+		scheduler.setErrorHandler(t -> log.error("Scheduled task failed", t));
+		return scheduler;
+	}
+
 	@Override
 	public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
 		return new SimpleAsyncUncaughtExceptionHandler();
@@ -0,0 +1,291 @@
+package com.gl.platform.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.gl.platform.config.ApplicationProperties;
+
+/**
+ * Service writing user activity audits off the request path.
+ * <p>
+ * {@link #audit} captures the caller's security context and puts the event in
+ * a bounded lock-free ring buffer of {@code application.audit-queue-capacity}
+ * events. A single writer thread drains it in batches of up to
+ * {@code application.audit-batch-size} events, every
+ * {@code application.audit-flush-interval-millis} ms or as soon as a batch is
+ * full, and writes each batch through {@link UserActivityService#audit} in one
+ * transaction. When the buffer is full the event is written by the caller
+ * ({@code CALLER_WRITES}, the default) or dropped ({@code DROP}), as set by
+ * {@code application.audit-overflow-policy}; both are metered.
+ * {@link #flush} is a barrier returning once every event audited before it is
+ * committed, and the buffer is drained on shutdown.
+ */
+@Service
+public class AuditEventWriter {
+
+	private final Logger log = LoggerFactory.getLogger(AuditEventWriter.class);
+
+	private static final long FLUSH_TIMEOUT_MILLIS = 5000;
+
+	private static final long SHUTDOWN_TIMEOUT_MILLIS = 30000;
+
+	private static final long UNPUBLISHED_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+	/**
+	 * What {@link #audit} does when the buffer is full.
+	 */
+	public enum OverflowPolicy {
+		CALLER_WRITES, DROP
+	}
+
+	private static final class AuditEvent {
+
+		private final String type;
+
+		private final String description;
+
+		private final SecurityContext securityContext;
+
+		AuditEvent(String type, String description, SecurityContext securityContext) {
+			this.type = type;
+			this.description = description;
+			this.securityContext = securityContext;
+		}
+	}
+
+	private final UserActivityService userActivityService;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final OverflowPolicy overflowPolicy;
+
+	private final int batchSize;
+
+	private final long flushIntervalNanos;
+
+	private final int capacity;
+
+	private final AtomicReferenceArray<AuditEvent> slots;
+
+	/** Next sequence to claim, advanced by producers with a CAS. */
+	private final AtomicLong tail = new AtomicLong();
+
+	/** Next sequence to drain, only advanced by the writer. */
+	private volatile long head;
+
+	/** Every event below this sequence has been written or given up on. */
+	private volatile long written;
+
+	/** Sequence a {@link #flush} caller is waiting for. */
+	private volatile long flushRequested;
+
+	private volatile boolean running = true;
+
+	private final Object flushed = new Object();
+
+	private final Thread writer;
+
+	private final Meter queued;
+
+	private final Meter writtenEvents;
+
+	private final Meter callerWrites;
+
+	private final Meter dropped;
+
+	private final Meter failed;
+
+	private final Timer flushTimer;
+
+	public AuditEventWriter(UserActivityService userActivityService, PlatformTransactionManager transactionManager,
+			ApplicationProperties applicationProperties, MetricRegistry metricRegistry) {
+		this.userActivityService = userActivityService;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		this.overflowPolicy = OverflowPolicy.valueOf(applicationProperties.getAuditOverflowPolicy());
+		this.batchSize = Math.max(1, applicationProperties.getAuditBatchSize());
+		this.flushIntervalNanos = TimeUnit.MILLISECONDS
+				.toNanos(Math.max(1, applicationProperties.getAuditFlushIntervalMillis()));
+		this.capacity = Math.max(batchSize, applicationProperties.getAuditQueueCapacity());
+		this.slots = new AtomicReferenceArray<>(capacity);
+		this.queued = metricRegistry.meter("audit.events.queued");
+		this.writtenEvents = metricRegistry.meter("audit.events.written");
+		this.callerWrites = metricRegistry.meter("audit.events.caller-writes");
+		this.dropped = metricRegistry.meter("audit.events.dropped");
+		this.failed = metricRegistry.meter("audit.events.failed");
+		this.flushTimer = metricRegistry.timer("audit.flush");
+		metricRegistry.register("audit.queue.depth", (Gauge<Long>) () -> tail.get() - head);
+		this.writer = new CustomizableThreadFactory("audit-writer-").newThread(this::run);
+		this.writer.start();
+	}
+
+	/**
+	 * Audit a user activity of the current user.
+	 *
+	 * @param type        the activity type
+	 * @param description the activity description
+	 */
+	public void audit(String type, String description) {
+		AuditEvent event = new AuditEvent(type, description, SecurityContextHolder.getContext());
+		if (running && offer(event)) {
+			queued.mark();
+			return;
+		}
+		if (running && overflowPolicy == OverflowPolicy.DROP) {
+			dropped.mark();
+			log.warn("Audit buffer full, dropped audit {} : {}", type, description);
+			return;
+		}
+		callerWrites.mark();
+		userActivityService.audit(type, description);
+	}
+
+	/**
+	 * Wait until every event audited before this call is committed, so reads of
+	 * the user activities see them.
+	 */
+	public void flush() {
+		long target = tail.get();
+		if (written >= target) {
+			return;
+		}
+		synchronized (flushed) {
+			flushRequested = Math.max(flushRequested, target);
+		}
+		LockSupport.unpark(writer);
+		long deadline = System.currentTimeMillis() + FLUSH_TIMEOUT_MILLIS;
+		synchronized (flushed) {
+			while (written < target) {
+				long remaining = deadline - System.currentTimeMillis();
+				if (remaining <= 0) {
+					log.warn("Timed out waiting for {} audits to be written", target - written);
+					return;
+				}
+				try {
+					flushed.wait(remaining);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+	}
+
+	private boolean offer(AuditEvent event) {
+		long sequence;
+		do {
+			sequence = tail.get();
+			if (sequence - head >= capacity) {
+				return false;
+			}
+		} while (!tail.compareAndSet(sequence, sequence + 1));
+		slots.lazySet((int) (sequence % capacity), event);
+		return true;
+	}
+
+	private void run() {
+		List<AuditEvent> batch = new ArrayList<>(batchSize);
+		long lastFlush = System.nanoTime();
+		while (running || head < tail.get()) {
+			// a claimed slot may not be published yet, in which case the writer
+			// stops at it and picks it up on the next round
+			while (batch.size() < batchSize) {
+				int index = (int) (head % capacity);
+				AuditEvent event = slots.get(index);
+				if (event == null) {
+					break;
+				}
+				slots.lazySet(index, null);
+				batch.add(event);
+				head++;
+			}
+			long waited = System.nanoTime() - lastFlush;
+			boolean due = waited >= flushIntervalNanos || written < flushRequested || !running;
+			if (!batch.isEmpty() && (batch.size() == batchSize || due)) {
+				write(batch);
+				batch.clear();
+				lastFlush = System.nanoTime();
+			} else if (batch.isEmpty() && head == tail.get()) {
+				lastFlush = System.nanoTime();
+				LockSupport.parkNanos(this, flushIntervalNanos);
+			} else if (batch.isEmpty()) {
+				// claimed but not yet published
+				LockSupport.parkNanos(this, UNPUBLISHED_PARK_NANOS);
+			} else {
+				LockSupport.parkNanos(this, flushIntervalNanos - waited);
+			}
+		}
+		log.info("Audit writer stopped");
+	}
+
+	private void write(List<AuditEvent> batch) {
+		Timer.Context context = flushTimer.time();
+		try {
+			transactionTemplate.execute(status -> {
+				batch.forEach(this::write);
+				return null;
+			});
+			writtenEvents.mark(batch.size());
+		} catch (RuntimeException e) {
+			log.warn("Audit batch of {} events failed, writing them one by one", batch.size(), e);
+			for (AuditEvent event : batch) {
+				try {
+					transactionTemplate.execute(status -> {
+						write(event);
+						return null;
+					});
+					writtenEvents.mark();
+				} catch (RuntimeException eventFailure) {
+					failed.mark();
+					log.error("Could not write audit {} : {}", event.type, event.description, eventFailure);
+				}
+			}
+		} finally {
+			context.stop();
+			synchronized (flushed) {
+				written = head;
+				flushed.notifyAll();
+			}
+		}
+	}
+
+	private void write(AuditEvent event) {
+		SecurityContextHolder.setContext(event.securityContext);
+		try {
+			userActivityService.audit(event.type, event.description);
+		} finally {
+			SecurityContextHolder.clearContext();
+		}
+	}
+
+	@PreDestroy
+	public void destroy() throws InterruptedException {
+		running = false;
+		LockSupport.unpark(writer);
+		writer.join(SHUTDOWN_TIMEOUT_MILLIS);
+		if (writer.isAlive()) {
+			log.warn("Audit writer did not drain within {} ms, {} audits lost", SHUTDOWN_TIMEOUT_MILLIS,
+					tail.get() - head);
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package com.gl.platform.aop.authorization;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+
+import com.gl.platform.security.SecurityUtils;
+import com.gl.platform.service.AuthorizationDecisionCache;
+
+/**
+ * Aspect caching the boolean checks of the authorization service in
+ * {@link AuthorizationDecisionCache}.
+ * <p>
+ * Only checks whose arguments are ids, strings, booleans or enums are cached,
+ * and only for an authenticated user.
+ */
+@Aspect
+public class AuthorizationCacheAspect {
+
+	private final AuthorizationDecisionCache authorizationDecisionCache;
+
+	public AuthorizationCacheAspect(AuthorizationDecisionCache authorizationDecisionCache) {
+		this.authorizationDecisionCache = authorizationDecisionCache;
+	}
+
+	/**
+	 * Pointcut that matches the checks of the authorization service.
+	 */
+	@Pointcut("execution(public boolean com.gl.platform.service.AuthorizationService.*(..))")
+	public void authorizationCheckPointcut() {
+		// Method is empty as this is just a Pointcut, the implementations are in the
+		// advices.
+	}
+
+	@Around("authorizationCheckPointcut()")
+	public Object cacheDecision(ProceedingJoinPoint joinPoint) throws Throwable {
+		Optional<String> login = SecurityUtils.getCurrentUserLogin();
+		Object[] args = joinPoint.getArgs();
+		if (!login.isPresent() || !cacheable(args)) {
+			return joinPoint.proceed();
+		}
+		List<Object> key = new ArrayList<>(args.length + 2);
+		key.add(login.get());
+		key.add(joinPoint.getSignature().getName());
+		for (Object arg : args) {
+			key.add(arg);
+		}
+		return authorizationDecisionCache.get(key, () -> (Boolean) joinPoint.proceed());
+	}
+
+	private boolean cacheable(Object[] args) {
+		for (Object arg : args) {
+			if (arg != null && !(arg instanceof Number || arg instanceof String || arg instanceof Boolean
+					|| arg instanceof Enum)) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
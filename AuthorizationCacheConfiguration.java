@@ -0,0 +1,18 @@
+package com.gl.platform.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+
+import com.gl.platform.aop.authorization.AuthorizationCacheAspect;
+import com.gl.platform.service.AuthorizationDecisionCache;
+
+@Configuration
+@EnableAspectJAutoProxy
+public class AuthorizationCacheConfiguration {
+
+	@Bean
+	public AuthorizationCacheAspect authorizationCacheAspect(AuthorizationDecisionCache authorizationDecisionCache) {
+		return new AuthorizationCacheAspect(authorizationDecisionCache);
+	}
+}
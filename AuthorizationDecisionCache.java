@@ -0,0 +1,105 @@
+package com.gl.platform.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Cache of {@link AuthorizationService} decisions.
+ * <p>
+ * A decision is keyed by the current user login, the check and its arguments.
+ * It is memoized for the rest of the request, so a handler calling the same
+ * check twice resolves it once, and kept across requests for
+ * {@link #TTL_SECONDS} seconds. Endpoints changing institution memberships,
+ * roles or counsellor links call {@link #invalidateAll()} so a change is seen
+ * by the next request.
+ */
+@Service
+public class AuthorizationDecisionCache {
+
+	private final Logger log = LoggerFactory.getLogger(AuthorizationDecisionCache.class);
+
+	private static final long TTL_SECONDS = 30;
+
+	private static final String MEMO_ATTRIBUTE = AuthorizationDecisionCache.class.getName() + ".MEMO";
+
+	private final Cache<List<Object>, Boolean> decisions = CacheBuilder.newBuilder().maximumSize(50000)
+			.expireAfterWrite(TTL_SECONDS, TimeUnit.SECONDS).build();
+
+	private final AtomicLong generation = new AtomicLong();
+
+	/**
+	 * Get a decision, computing it if it is neither memoized for this request nor
+	 * cached.
+	 *
+	 * @param key      the login, check name and arguments
+	 * @param decision computes the decision
+	 * @return the decision
+	 * @throws Throwable whatever the decision throws, in which case nothing is
+	 *                   cached
+	 */
+	public boolean get(List<Object> key, Decision decision) throws Throwable {
+		Map<List<Object>, Boolean> memo = requestMemo();
+		Boolean result = memo == null ? null : memo.get(key);
+		if (result == null) {
+			result = decisions.getIfPresent(key);
+		}
+		if (result == null) {
+			long generationBefore = generation.get();
+			result = decision.decide();
+			// a decision computed while the cache was being invalidated may be stale
+			if (generation.get() == generationBefore) {
+				decisions.put(key, result);
+			}
+		}
+		if (memo != null) {
+			memo.put(key, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Drop every cached decision. Decisions memoized by requests in progress are
+	 * kept until they complete.
+	 */
+	public void invalidateAll() {
+		log.debug("Invalidating authorization decisions");
+		generation.incrementAndGet();
+		decisions.invalidateAll();
+	}
+
+	@SuppressWarnings("unchecked")
+	private Map<List<Object>, Boolean> requestMemo() {
+		RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+		if (attributes == null) {
+			return null;
+		}
+		Map<List<Object>, Boolean> memo = (Map<List<Object>, Boolean>) attributes.getAttribute(MEMO_ATTRIBUTE,
+				RequestAttributes.SCOPE_REQUEST);
+		if (memo == null) {
+			memo = new HashMap<>();
+			attributes.setAttribute(MEMO_ATTRIBUTE, memo, RequestAttributes.SCOPE_REQUEST);
+		}
+		return memo;
+	}
+
+	/**
+	 * An authorization decision.
+	 */
+	@FunctionalInterface
+	public interface Decision {
+
+		boolean decide() throws Throwable;
+	}
+}
@@ -0,0 +1,27 @@
+package com.gl.platform.security.jwt;
+
+import org.springframework.security.config.annotation.SecurityConfigurerAdapter;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.web.DefaultSecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+
+/**
+ * Configures the {@link CachingJWTFilter} in place of the plain JWT filter.
+ */
+public class CachingJWTConfigurer extends SecurityConfigurerAdapter<DefaultSecurityFilterChain, HttpSecurity> {
+
+	private final TokenProvider tokenProvider;
+
+	private final JWTAuthenticationCache jwtAuthenticationCache;
+
+	public CachingJWTConfigurer(TokenProvider tokenProvider, JWTAuthenticationCache jwtAuthenticationCache) {
+		this.tokenProvider = tokenProvider;
+		this.jwtAuthenticationCache = jwtAuthenticationCache;
+	}
+
+	@Override
+	public void configure(HttpSecurity http) throws Exception {
+		CachingJWTFilter customFilter = new CachingJWTFilter(tokenProvider, jwtAuthenticationCache);
+		http.addFilterBefore(customFilter, UsernamePasswordAuthenticationFilter.class);
+	}
+}
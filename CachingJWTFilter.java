@@ -0,0 +1,59 @@
+package com.gl.platform.security.jwt;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.GenericFilterBean;
+
+/**
+ * Filters incoming requests and installs a Spring Security principal if a
+ * header corresponding to a valid user is found, reusing the authentication
+ * cached for the token when there is one.
+ */
+public class CachingJWTFilter extends GenericFilterBean {
+
+	private final TokenProvider tokenProvider;
+
+	private final JWTAuthenticationCache jwtAuthenticationCache;
+
+	public CachingJWTFilter(TokenProvider tokenProvider, JWTAuthenticationCache jwtAuthenticationCache) {
+		this.tokenProvider = tokenProvider;
+		this.jwtAuthenticationCache = jwtAuthenticationCache;
+	}
+
+	@Override
+	public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse, FilterChain filterChain)
+			throws IOException, ServletException {
+		String jwt = resolveToken((HttpServletRequest) servletRequest);
+		if (StringUtils.hasText(jwt)) {
+			Authentication authentication = jwtAuthenticationCache.getAuthentication(jwt,
+					() -> tokenProvider.validateToken(jwt) ? tokenProvider.getAuthentication(jwt) : null);
+			if (authentication != null) {
+				SecurityContextHolder.getContext().setAuthentication(authentication);
+			}
+		}
+		filterChain.doFilter(servletRequest, servletResponse);
+	}
+
+	/**
+	 * Get the bearer token of a request.
+	 *
+	 * @param request the request
+	 * @return the token, or null if there is none
+	 */
+	public static String resolveToken(HttpServletRequest request) {
+		String bearerToken = request.getHeader(JWTConfigurer.AUTHORIZATION_HEADER);
+		if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
+			return bearerToken.substring(7);
+		}
+		return null;
+	}
+}
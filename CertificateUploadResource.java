@@ -28,6 +28,7 @@ import org.springframework.web.multipart.MultipartFile;
 import com.codahale.metrics.annotation.Timed;
 import com.gl.platform.service.AuthorizationService;
 import com.gl.platform.service.CertificateUploadService;
+import com.gl.platform.service.MarketplaceCandidateIndexService;
 import com.gl.platform.service.dto.CertificateCsvImportDTO;
 import com.gl.platform.service.dto.CertificateUploadDTO;
 import com.gl.platform.service.dto.EdreadyRequestDTO;
@@ -51,6 +52,9 @@ public class CertificateUploadResource {
 	@Autowired
 	private AuthorizationService authorizationService;
 
+	@Autowired
+	private MarketplaceCandidateIndexService marketplaceCandidateIndexService;
+
 	@PostMapping("/upload/certificate")
 	@ApiImplicitParam(name = "Authorization", required = true, paramType = "header", dataType = "string", value = "authorization header", defaultValue = "Bearer ")
 	@Timed
@@ -77,6 +81,7 @@ public class CertificateUploadResource {
 
 		CertificateUploadDTO response = certificateService.uploadCertificate(file, name, certificateName, userId,
 				message, id);
+		marketplaceCandidateIndexService.markChanged(userId);
 
 		return ResponseEntity.created(new URI("/api/upload/certificate/")).body(response);
 
@@ -122,6 +127,7 @@ public class CertificateUploadResource {
 
 		CertificateUploadDTO response = certificateService.uploadCertificate(file, name, certificateName, userId,
 				message, id);
+		marketplaceCandidateIndexService.markChanged(userId);
 
 		return new ResponseEntity<>(response, HttpStatus.OK);
 	}
@@ -134,6 +140,7 @@ public class CertificateUploadResource {
 		log.debug("REST request to delete certificate for id : {}", id);
 
 		certificateService.deleteCertificate(id);
+		marketplaceCandidateIndexService.markCurrentUserChanged();
 		return new ResponseEntity<>(HttpStatus.NO_CONTENT);
 	}
 
@@ -158,6 +165,7 @@ public class CertificateUploadResource {
 		log.info("REST request to claim the certificate with certificateId : {}", certificateIds);
 		CertificateUploadDTO response = !certificateIds.isEmpty() ? certificateService.claimCertificate(certificateIds)
 				: new CertificateUploadDTO();
+		marketplaceCandidateIndexService.markCurrentUserChanged();
 		return new ResponseEntity<>(response, HttpStatus.OK);
 	}
 
@@ -168,6 +176,7 @@ public class CertificateUploadResource {
 			throws IOException, NotFoundException {
 		log.info("REST request to claim the certificate with certificateId : {}", certificateId);
 		CertificateUploadDTO response = certificateService.claimSingleCertificate(certificateId);
+		marketplaceCandidateIndexService.markCurrentUserChanged();
 		return new ResponseEntity<>(response, HttpStatus.OK);
 	}
 
@@ -7,7 +7,6 @@ import java.util.Optional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -21,6 +20,8 @@ import org.springframework.web.bind.annotation.RestController;
 import com.codahale.metrics.annotation.Timed;
 import com.gl.platform.domain.Country;
 import com.gl.platform.service.CountryService;
+import com.gl.platform.service.ReferenceDataService;
+import com.gl.platform.service.ReferenceDataService.Dataset;
 import com.gl.platform.service.dto.CountryDTO;
 import com.gl.platform.web.rest.errors.BadRequestAlertException;
 import com.gl.platform.web.rest.util.HeaderUtil;
@@ -40,8 +41,11 @@ public class CountryResource {
 
 	private final CountryService countryService;
 
-	public CountryResource(CountryService countryService) {
+	private final ReferenceDataService referenceDataService;
+
+	public CountryResource(CountryService countryService, ReferenceDataService referenceDataService) {
 		this.countryService = countryService;
+		this.referenceDataService = referenceDataService;
 	}
 
 	/**
@@ -76,8 +80,7 @@ public class CountryResource {
 	@Timed
 	public ResponseEntity<List<CountryDTO>> getCountryList() {
 		log.debug("REST request to get Country List ");
-		List<CountryDTO> countryList = countryService.getCountries();
-		return new ResponseEntity<>(countryList,HttpStatus.OK);
+		return referenceDataService.respond(Dataset.COUNTRIES);
 	}
 	
 }
@@ -1,7 +1,6 @@
 package com.gl.platform.config;
 
 import java.io.IOException;
-import java.util.InvalidPropertiesFormatException;
 import java.util.Properties;
 
 import javax.sql.DataSource;
@@ -24,6 +23,10 @@ import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
+import com.codahale.metrics.MetricRegistry;
+import com.gl.platform.repository.InstrumentedJdbcTemplate;
+import com.gl.platform.repository.NamedQueryRegistry;
+
 import io.github.jhipster.config.JHipsterConstants;
 import io.github.jhipster.config.liquibase.AsyncSpringLiquibase;
 import liquibase.integration.spring.SpringLiquibase;
@@ -37,6 +40,11 @@ public class DatabaseConfiguration {
 
 	private final Logger log = LoggerFactory.getLogger(DatabaseConfiguration.class);
 
+	private static final String[] QUERY_GROUPS = { "statistics", "marketplace", "university", "student-survey",
+			"messages-inbox", "student-queries", "marketing-queries", "employer-queries", "credential", "highschool",
+			"share", "student-export", "hold", "marketplace-index",
+			"job-match", "institution-hierarchy", "ad-action", "ad-targeting", "jwt-revocation" };
+
 	private final Environment env;
 
 	public DatabaseConfiguration(Environment env) {
@@ -64,170 +72,97 @@ public class DatabaseConfiguration {
 		return liquibase;
 	}
 
+	/**
+	 * The named JDBC template of the services, timing each statement under the
+	 * name of its registry query.
+	 */
 	@Bean(name = "namedJdbcTemplate")
 	@ConditionalOnMissingBean(NamedParameterJdbcOperations.class)
-	public NamedParameterJdbcTemplate namedParameterJdbcTemplate(DataSource dataSource) {
-		return new NamedParameterJdbcTemplate(new JdbcTemplate(dataSource));
+	public NamedParameterJdbcTemplate namedParameterJdbcTemplate(DataSource dataSource,
+			NamedQueryRegistry namedQueryRegistry, MetricRegistry metricRegistry,
+			ApplicationProperties applicationProperties) {
+		return new NamedParameterJdbcTemplate(new InstrumentedJdbcTemplate(dataSource, namedQueryRegistry,
+				metricRegistry, applicationProperties.getSlowQueryThresholdMs()));
 	}
 
-	private Properties getProperties(String queriesXmlPath) throws IOException, InvalidPropertiesFormatException {
-		Properties props = new Properties();
-		// Create a ClassPathResource, based on the given location within the resource
-		// folder
-		ClassPathResource res = new ClassPathResource(queriesXmlPath);
-		// Load the properties using InputStream provided by the ClassPathResource
-		props.loadFromXML(res.getInputStream());
-
-		return props;
+	/**
+	 * The registry runs its queries on a plain JdbcTemplate, as
+	 * {@link com.gl.platform.repository.NamedQuery} already times them.
+	 */
+	@Bean
+	public NamedQueryRegistry namedQueryRegistry(DataSource dataSource, MetricRegistry metricRegistry,
+			ApplicationProperties applicationProperties) throws IOException {
+		NamedQueryRegistry registry = new NamedQueryRegistry(new JdbcTemplate(dataSource), metricRegistry,
+				applicationProperties.getSlowQueryThresholdMs());
+		for (String group : QUERY_GROUPS) {
+			registry.load(group, new ClassPathResource("sql/" + group + ".sql.xml"));
+		}
+		log.debug("Loaded {} named queries", registry.size());
+		return registry;
 	}
 
 	@Bean(name = "statisticsQueries")
-	public Properties statisticsQueries() {
-		try {
-			return getProperties("sql/statistics.sql.xml");
-
-		} catch (IOException e) {
-			return new Properties();
-		}
-
+	public Properties statisticsQueries(NamedQueryRegistry namedQueryRegistry) {
+		return namedQueryRegistry.getProperties("statistics");
 	}
-	
-	@Bean(name = "marketPlaceQueries")
-	public Properties marketPlaceQueries() {
-		try {
-			return getProperties("sql/marketplace.sql.xml");
-
-		} catch (IOException e) {
-			return new Properties();
-		}
 
+	@Bean(name = "marketPlaceQueries")
+	public Properties marketPlaceQueries(NamedQueryRegistry namedQueryRegistry) {
+		return namedQueryRegistry.getProperties("marketplace");
 	}
 
 	@Bean(name = "universityQueries")
-	public Properties universityQueries() {
-		try {
-			return getProperties("sql/university.sql.xml");
-
-		} catch (IOException e) {
-			return new Properties();
-		}
-
+	public Properties universityQueries(NamedQueryRegistry namedQueryRegistry) {
+		return namedQueryRegistry.getProperties("university");
 	}
-	
-	@Bean(name = "studentSurveyQueries")
-	public Properties studentSurveyQuiries() {
-		try {
-			return getProperties("sql/student-survey.sql.xml");
-
-		} catch (IOException e) {
-			return new Properties();
-		}
 
+	@Bean(name = "studentSurveyQueries")
+	public Properties studentSurveyQuiries(NamedQueryRegistry namedQueryRegistry) {
+		return namedQueryRegistry.getProperties("student-survey");
 	}
-	
-	
-	@Bean(name = "messagesQueries")
-	public Properties messagesQueries() {
-		try {
-			return getProperties("sql/messages-inbox.sql.xml");
-
-		} catch (IOException e) {
-			return new Properties();
-		}
 
+	@Bean(name = "messagesQueries")
+	public Properties messagesQueries(NamedQueryRegistry namedQueryRegistry) {
+		return namedQueryRegistry.getProperties("messages-inbox");
 	}
 
-	
 	@Bean(name = "studentQueries")
-	public Properties studentQueries() {
-		try {
-			return getProperties("sql/student-queries.sql.xml");
-		} catch (IOException e) {
-			return new Properties();
-		}
+	public Properties studentQueries(NamedQueryRegistry namedQueryRegistry) {
+		return namedQueryRegistry.getProperties("student-queries");
 	}
-	
+
 	@Bean(name = "marketingQueries")
-	public Properties marketingQueries() {
-		try {
-			return getProperties("sql/marketing-queries.sql.xml");
-		} catch (IOException e) {
-			return new Properties();
-		}
+	public Properties marketingQueries(NamedQueryRegistry namedQueryRegistry) {
+		return namedQueryRegistry.getProperties("marketing-queries");
 	}
 
-
 	@Bean(name = "employerQueries")
-	public Properties glJobQueries() {
-		try {
-			Properties props = new Properties();
-			// Create a ClassPathResource, based on the given location within the resource
-			// folder
-			ClassPathResource res = new ClassPathResource("sql/employer-queries.sql.xml");
-			// Load the properties using InputStream provided by the ClassPathResource
-			props.loadFromXML(res.getInputStream());
-
-			return props;
-
-		} catch (IOException e) {
-			return new Properties();
-		}
-
+	public Properties glJobQueries(NamedQueryRegistry namedQueryRegistry) {
+		return namedQueryRegistry.getProperties("employer-queries");
 	}
 
-	
 	@Bean(name = "credentialQueries")
-	public Properties credentialQueries() {
-		try {
-			Properties props = new Properties();
-			// Create a ClassPathResource, based on the given location within the resource
-			// folder
-			ClassPathResource res = new ClassPathResource("sql/credential.sql.xml");
-			// Load the properties using InputStream provided by the ClassPathResource
-			props.loadFromXML(res.getInputStream());
-
-			return props;
-
-		} catch (IOException e) {
-			return new Properties();
-		}
+	public Properties credentialQueries(NamedQueryRegistry namedQueryRegistry) {
+		return namedQueryRegistry.getProperties("credential");
 	}
-	
-	
+
 	@Bean(name = "highschoolQueries")
-	public Properties highSchoolQueries() {
-		try {
-			Properties props = new Properties();
-			// Create a ClassPathResource, based on the given location within the resource
-			// folder
-			ClassPathResource res = new ClassPathResource("sql/highschool.sql.xml");
-			// Load the properties using InputStream provided by the ClassPathResource
-			props.loadFromXML(res.getInputStream());
-
-			return props;
-
-		} catch (IOException e) {
-			return new Properties();
-		}
+	public Properties highSchoolQueries(NamedQueryRegistry namedQueryRegistry) {
+		return namedQueryRegistry.getProperties("highschool");
+	}
 
+	@Bean(name = "shareQueries")
+	public Properties shareQueries(NamedQueryRegistry namedQueryRegistry) {
+		return namedQueryRegistry.getProperties("share");
 	}
-	
 
-	@Bean(name = "holdQueries")
-	public Properties holdQueries() {
-		try {
-			Properties props = new Properties();
-			// Create a ClassPathResource, based on the given location within the resource
-			// folder
-			ClassPathResource res = new ClassPathResource("sql/hold.sql.xml");
-			// Load the properties using InputStream provided by the ClassPathResource
-			props.loadFromXML(res.getInputStream());
-
-			return props;
-
-		} catch (IOException e) {
-			return new Properties();
-		}
+	@Bean(name = "studentExportQueries")
+	public Properties studentExportQueries(NamedQueryRegistry namedQueryRegistry) {
+		return namedQueryRegistry.getProperties("student-export");
+	}
 
+	@Bean(name = "holdQueries")
+	public Properties holdQueries(NamedQueryRegistry namedQueryRegistry) {
+		return namedQueryRegistry.getProperties("hold");
 	}
 }
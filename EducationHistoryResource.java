@@ -21,6 +21,7 @@ import org.springframework.web.bind.annotation.RestController;
 import com.codahale.metrics.annotation.Timed;
 import com.gl.platform.domain.EducationHistory;
 import com.gl.platform.service.EducationHistoryService;
+import com.gl.platform.service.MarketplaceCandidateIndexService;
 import com.gl.platform.service.dto.EducationHistoryDTO;
 import com.gl.platform.web.rest.errors.BadRequestAlertException;
 
@@ -36,6 +37,9 @@ public class EducationHistoryResource {
 	
 	@Autowired
 	private EducationHistoryService educationHistoryService;
+
+	@Autowired
+	private MarketplaceCandidateIndexService marketplaceCandidateIndexService;
 	
 	@GetMapping("/education/history/{userId}")
 	@Timed
@@ -55,6 +59,7 @@ public class EducationHistoryResource {
 			throw new BadRequestAlertException("A new history entry cannot already have an ID", ENTITY_NAME, "idexists");
 		}
 		EducationHistoryDTO response = educationHistoryService.save(historyDTO);
+		marketplaceCandidateIndexService.markCurrentUserChanged();
 		return new ResponseEntity<>(response, HttpStatus.OK);
 	}
 	
@@ -67,6 +72,7 @@ public class EducationHistoryResource {
 		}
 		
 		EducationHistoryDTO response = educationHistoryService.save(eduHistoryDTO);
+		marketplaceCandidateIndexService.markCurrentUserChanged();
 		return new ResponseEntity<>(response, HttpStatus.OK);
 	}
 
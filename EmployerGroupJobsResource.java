@@ -26,9 +26,12 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.gl.platform.aop.routing.ReadReplica;
 import com.gl.platform.domain.GlJobTemplateCsvPositioning;
 import com.gl.platform.service.AuthorizationService;
 import com.gl.platform.service.EmployerGroupJobsService;
+import com.gl.platform.service.ReportCacheService;
+import com.gl.platform.service.ReportCacheService.Topic;
 import com.opencsv.bean.CsvToBean;
 import com.opencsv.bean.CsvToBeanBuilder;
 import com.opencsv.bean.HeaderColumnNameMappingStrategy;
@@ -49,6 +52,9 @@ public class EmployerGroupJobsResource {
 	@Autowired
 	private AuthorizationService authorizationService;
 
+	@Autowired
+	private ReportCacheService reportCacheService;
+
 	private static final String ENTITY_NAME = EmployerGroupJobsResource.class.getSimpleName().toLowerCase();
 
 	@PostMapping("/jobs/template/upload")
@@ -86,6 +92,7 @@ public class EmployerGroupJobsResource {
 
 			response = employJobService.saveTemplate(jobsTemplate, institutionId, userId);
 		}
+		reportCacheService.invalidate(Topic.JOB_POSTING);
 
 		return ResponseEntity.created(new URI("/jobs/template/upload")).body(response);
 	}
@@ -102,6 +109,7 @@ public class EmployerGroupJobsResource {
 	}
 
 	@GetMapping("/manage/jobs/summary")
+	@ReadReplica
 	public ResponseEntity<?> getGroupJobSummary(@RequestParam(value = "groupId", required = true) Long groupId,
 			@RequestParam(value = "jobType", required = false) String jobType,
 			@RequestParam(value = "employerId", required = false) Long employerId) {
@@ -111,6 +119,7 @@ public class EmployerGroupJobsResource {
 	}
 
 	@GetMapping("/manage/jobs/applicants")
+	@ReadReplica
 	public ResponseEntity<?> getGroupJobStatus(@RequestParam(value = "groupId", required = true) Long groupId,
 			@RequestParam(value = "jobType", required = false) String jobType,
 			@RequestParam(value = "employerId", required = false) Long employerId) throws IOException, NotFoundException {
@@ -120,6 +129,7 @@ public class EmployerGroupJobsResource {
 	}
 
 	@GetMapping("/applicant/analytics")
+	@ReadReplica
 	public ResponseEntity<?> getApplicantAnalytics(@RequestParam(value = "jobStatus", required = true) String jobStatus,
 			@RequestParam(value = "zipCode", required = false) String zipCode,
 			@RequestParam(value = "generatedFor", required = false) String generatedFor,
@@ -132,6 +142,7 @@ public class EmployerGroupJobsResource {
 	}
 	
 	@GetMapping("/applicant/activity/report")
+	@ReadReplica
 	public ResponseEntity<?> getApplicantActivityReport(@RequestParam(value = "institutionId", required = true) Long institutionId
 			){
 
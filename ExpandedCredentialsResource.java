@@ -25,11 +25,11 @@ import org.springframework.web.bind.annotation.RestController;
 import com.codahale.metrics.annotation.Timed;
 import com.gl.platform.domain.ExpandedCredential;
 import com.gl.platform.repository.ExpandedCredentialRepository;
+import com.gl.platform.service.AuditEventWriter;
 import com.gl.platform.service.AuthorizationService;
 import com.gl.platform.service.ExpandedCredentialQueryService;
 import com.gl.platform.service.ExpandedCredentialService;
-import com.gl.platform.service.S3StorageService;
-import com.gl.platform.service.UserActivityService;
+import com.gl.platform.service.PresignedUrlService;
 import com.gl.platform.service.dto.ExpandedCredentialCriteria;
 import com.gl.platform.service.dto.ExpandedCredentialDTO;
 import com.gl.platform.web.rest.errors.BadRequestAlertException;
@@ -51,10 +51,10 @@ public class ExpandedCredentialsResource {
 	}
 	
 	@Autowired
-	private UserActivityService userActivityService;
+	private AuditEventWriter auditEventWriter;
 	
 	@Autowired
-	private S3StorageService s3StorageService; 
+	private PresignedUrlService presignedUrlService; 
 	
 	
 	@Autowired
@@ -96,7 +96,7 @@ public class ExpandedCredentialsResource {
 
 		log.debug("REST request to save Accomplishment Portfolio : {}", expandedCredentialDTO);
 		ExpandedCredentialDTO result = expandedCredentialsServices.generatePDF(expandedCredentialDTO);
-		userActivityService.audit("AccomplishmentPortfolio", "Added Accomplishment Portfolio");		
+		auditEventWriter.audit("AccomplishmentPortfolio", "Added Accomplishment Portfolio");		
 		return ResponseEntity.created(new URI("/api/expanded-credentials/" + result.getId()))
 				.headers(HeaderUtil.createEntityCreationAlert(ENTITY_NAME, result.getId().toString())).body(result);
 	}
@@ -130,7 +130,7 @@ public class ExpandedCredentialsResource {
 			if(expandedCredentialDTO.get().getActive()) {
 				result=expandedCredentialDTO.get();
 				String s3Url = "accomplishment/"+result.getId()+"/pdf_accomplishment";
-				expandedCredentialDTO.get().setAccompViewUrl(s3StorageService.generatePresignedUrl(s3Url));
+				expandedCredentialDTO.get().setAccompViewUrl(presignedUrlService.getPresignedUrl(s3Url));
 			}
 		}
 		
@@ -36,6 +36,8 @@ import com.gl.platform.service.FourYearDataloadService;
 import com.gl.platform.service.FourYearEDIParsingService;
 import com.gl.platform.service.FourYearTranscriptService;
 import com.gl.platform.service.HighSchoolTranscriptService;
+import com.gl.platform.service.ReferenceDataService;
+import com.gl.platform.service.ReferenceDataService.Dataset;
 import com.gl.platform.service.dto.CredentialDTO;
 import com.gl.platform.web.rest.errors.BadRequestAlertException;
 
@@ -67,6 +69,9 @@ public class FourYearTranscriptResource {
 	@Autowired
 	private FourYearDataloadService fyDataloadService;
 
+	@Autowired
+	private ReferenceDataService referenceDataService;
+
 	@GetMapping("/generate/{id}")
 	@Timed
 	public @ResponseBody ResponseEntity<?> generateCredential(@PathVariable Long id)
@@ -104,8 +109,7 @@ public class FourYearTranscriptResource {
 	public ResponseEntity<?> getAllMajorsList() throws BadRequestException {
 
 		log.debug("REST request to get four year majors list");
-		List<String> result = transcriptService.getAllMajors();
-		return ResponseEntity.ok(result);
+		return referenceDataService.respond(Dataset.FOUR_YEAR_MAJORS);
 	}
 
 	@PostMapping("/upload/fouryear/transcripts")
@@ -25,6 +25,9 @@ import org.springframework.web.bind.annotation.RestController;
 import com.codahale.metrics.annotation.Timed;
 import com.gl.platform.domain.GlJobApplicant;
 import com.gl.platform.service.GlJobAplicantService;
+import com.gl.platform.service.JobMatchEngine;
+import com.gl.platform.service.ReportCacheService;
+import com.gl.platform.service.ReportCacheService.Topic;
 import com.gl.platform.service.dto.ApplicantCredentailsRequestDTO;
 import com.gl.platform.service.dto.GlJobApplicantCustomDTO;
 import com.gl.platform.service.dto.GlJobApplicantDTO;
@@ -48,8 +51,15 @@ public class GlJobApplicantResource {
 
 	private final GlJobAplicantService glJobApplicantService;
 
-	public GlJobApplicantResource(GlJobAplicantService glJobApplicantService) {
+	private final ReportCacheService reportCacheService;
+
+	private final JobMatchEngine jobMatchEngine;
+
+	public GlJobApplicantResource(GlJobAplicantService glJobApplicantService,
+			ReportCacheService reportCacheService, JobMatchEngine jobMatchEngine) {
 		this.glJobApplicantService = glJobApplicantService;
+		this.reportCacheService = reportCacheService;
+		this.jobMatchEngine = jobMatchEngine;
 
 	}
 
@@ -70,6 +80,7 @@ public class GlJobApplicantResource {
 			throw new BadRequestAlertException("A new applicant cannot already have an ID", ENTITY_NAME, "idexists");
 		}
 		GlJobApplicantDTO result = glJobApplicantService.saveJobApplicant(glJobApplicantDTO);
+		reportCacheService.invalidate(Topic.JOB_APPLICATION);
 		log.debug("JobApplicant data object : {} ", result);
 		return ResponseEntity.created(new URI("/api/apply-job" + result.getId()))
 				.headers(HeaderUtil.createEntityCreationAlert(ENTITY_NAME, result.getId().toString())).body(result);
@@ -84,6 +95,7 @@ public class GlJobApplicantResource {
 			throw new BadRequestAlertException("A new applicant must have an ID", ENTITY_NAME, "idMustNotNull");
 		}
 		GlJobApplicantDTO result = glJobApplicantService.save(glJobApplicantDTO);
+		reportCacheService.invalidate(Topic.JOB_APPLICATION);
 		log.debug("JobApplicant data object : {} ", result);
 		return ResponseEntity.created(new URI("/api/apply-job" + result.getId()))
 				.headers(HeaderUtil.createEntityCreationAlert(ENTITY_NAME, result.getId().toString())).body(result);
@@ -124,6 +136,7 @@ public class GlJobApplicantResource {
 			throw new BadRequestAlertException("A applicant must have an ID", ENTITY_NAME, "idnull");
 		}
 		GlJobApplicantDTO response = glJobApplicantService.updateJobApplicantStatus(glJobApplicantDTO);
+		reportCacheService.invalidate(Topic.JOB_APPLICATION);
 		return new ResponseEntity<>(response, HttpStatus.OK);
 	}
 
@@ -199,6 +212,7 @@ public class GlJobApplicantResource {
 		log.debug("REST request to get matches for newly registered user");
 
 		glJobApplicantService.calcualteMatches(userId);
+		jobMatchEngine.studentChanged(userId);
 
 		return new ResponseEntity<>(HttpStatus.OK);
 	}
@@ -34,11 +34,14 @@ import com.gl.platform.domain.InstitutionGroup;
 import com.gl.platform.domain.JobGroupMapping;
 import com.gl.platform.repository.InstitutionGroupRepository;
 import com.gl.platform.repository.JobGroupMappingRepository;
+import com.gl.platform.service.AuditEventWriter;
 import com.gl.platform.service.AuthorizationService;
 import com.gl.platform.service.GlJobMatchService;
 import com.gl.platform.service.GlJobService;
 import com.gl.platform.service.GlUserService;
-import com.gl.platform.service.UserActivityService;
+import com.gl.platform.service.JobMatchEngine;
+import com.gl.platform.service.ReportCacheService;
+import com.gl.platform.service.ReportCacheService.Topic;
 import com.gl.platform.service.dto.GlJobApplicantDTO;
 import com.gl.platform.service.dto.GlJobCriteria;
 import com.gl.platform.service.dto.GlJobDTO;
@@ -47,6 +50,7 @@ import com.gl.platform.service.dto.GlJobMatchDTO;
 import com.gl.platform.service.dto.GlJobMatchResponseDTO;
 import com.gl.platform.service.dto.GlJobQualifiedCandidateDTO;
 import com.gl.platform.service.dto.GlUserDTO;
+import com.gl.platform.service.dto.JobMatchScoreDTO;
 import com.gl.platform.service.dto.StudentJobsFilterRequestDTO;
 import com.gl.platform.web.rest.errors.BadRequestAlertException;
 import com.gl.platform.web.rest.util.HeaderUtil;
@@ -67,7 +71,7 @@ public class GlJobResource {
 
 	private final GlJobService glJobService;
 
-	private final UserActivityService userActivityService;
+	private final AuditEventWriter auditEventWriter;
 
 	@Autowired
 	private GlUserService glUserService;
@@ -84,9 +88,15 @@ public class GlJobResource {
 	@Autowired
 	private AuthorizationService authorizationService;
 
-	public GlJobResource(GlJobService glJobService, UserActivityService userActivityService) {
+	@Autowired
+	private ReportCacheService reportCacheService;
+
+	@Autowired
+	private JobMatchEngine jobMatchEngine;
+
+	public GlJobResource(GlJobService glJobService, AuditEventWriter auditEventWriter) {
 		this.glJobService = glJobService;
-		this.userActivityService = userActivityService;
+		this.auditEventWriter = auditEventWriter;
 	}
 
 	@GetMapping("/gl-jobs/view/{id}")
@@ -108,6 +118,8 @@ public class GlJobResource {
 	public ResponseEntity<GlJobDTO> reOpenGlJob(@PathVariable Long id,@RequestParam LocalDate expirationDate) {
 		log.debug("REST request to Re Open GlJob : {}", id);
 		GlJobDTO glJobDTO = glJobService.jobReOpen(id,expirationDate);
+		reportCacheService.invalidate(Topic.JOB_POSTING);
+		jobMatchEngine.jobChanged(id);
 		return new ResponseEntity<>(glJobDTO, HttpStatus.OK);
 	}
 	
@@ -123,6 +135,8 @@ public class GlJobResource {
 	public ResponseEntity<GlJobDTO> closeGlJob(@PathVariable Long id) {
 		log.debug("REST request to close GlJob : {}", id);
 		GlJobDTO glJobDTO = glJobService.jobReOpen(id,null);
+		reportCacheService.invalidate(Topic.JOB_POSTING);
+		jobMatchEngine.jobChanged(id);
 		return new ResponseEntity<>(glJobDTO, HttpStatus.OK);
 	}
 
@@ -175,7 +189,9 @@ public class GlJobResource {
 			result.setJobStatus("Pending");
 			glJobService.save(result);
 		}
-		userActivityService.audit("Job ", "Created a Job");
+		auditEventWriter.audit("Job ", "Created a Job");
+		reportCacheService.invalidate(Topic.JOB_POSTING);
+		jobMatchEngine.jobChanged(result.getId());
 		Map<String, Object> map = new HashMap<>();
 		return ResponseEntity.ok(map);
 	}
@@ -209,7 +225,9 @@ public class GlJobResource {
 		GlJobDTO result = glJobService.save(glJobDTO);
 		glJobService.saveNonGroupJobAndGetMatches(result);
 		Map<String, Object> response = new HashMap<>();
-		userActivityService.audit("Job ", "Created a Job");
+		auditEventWriter.audit("Job ", "Created a Job");
+		reportCacheService.invalidate(Topic.JOB_POSTING);
+		jobMatchEngine.jobChanged(result.getId());
 		return new ResponseEntity<>(response, HttpStatus.OK);
 	}
 
@@ -234,6 +252,8 @@ public class GlJobResource {
 	public ResponseEntity<?> archiveJobs(@RequestBody List<Long> idList) {
 		log.debug("REST request to archive jobs : {}", idList);
 		glJobService.archiveJobs(idList);
+		reportCacheService.invalidate(Topic.JOB_POSTING);
+		idList.forEach(jobMatchEngine::jobChanged);
 		return ResponseEntity.ok().headers(HeaderUtil.createAlert("Successfully archived", null)).build();
 
 	}
@@ -270,6 +290,24 @@ public class GlJobResource {
 		return new ResponseEntity<>(response, HttpStatus.OK);
 	}
 
+	/**
+	 * GET /matchedjobs/top/:userId : get the best open jobs matched to a student.
+	 *
+	 * @param userId the student's user id
+	 * @return the ResponseEntity with status 200 (OK) and the top matches, best
+	 *         first, in body
+	 */
+	@GetMapping("/matchedjobs/top/{userId}")
+	@Timed
+	public ResponseEntity<List<JobMatchScoreDTO>> getTopMatchedJobs(@PathVariable Long userId) {
+		log.debug("REST request to get the top matched jobs of user : {}", userId);
+
+		if (!authorizationService.ownedByUserOnly(userId)) {
+			throw new AccessDeniedException("not the owner");
+		}
+		return new ResponseEntity<>(jobMatchEngine.getTopMatches(userId), HttpStatus.OK);
+	}
+
 	@GetMapping("/matchedjobs/{id}")
 	@Timed
 	public ResponseEntity<Map<String, Object>> getMatchedJobEntryById(@PathVariable Long id) {
@@ -354,7 +392,9 @@ public class GlJobResource {
 		} else {
 			glJobDTO.setMatchesCalculationInProgress(false);
 		}
-		userActivityService.audit("Job ", "Updated a Job");
+		auditEventWriter.audit("Job ", "Updated a Job");
+		reportCacheService.invalidate(Topic.JOB_POSTING);
+		jobMatchEngine.jobChanged(glJobDTO.getId());
 		Map<String, Object> map = new HashMap<>();
 		return ResponseEntity.ok(map);
 	}
@@ -376,8 +416,10 @@ public class GlJobResource {
 		glJobDTO.setActive(true);
 		// Map<String, Object> response =
 		// glJobService.saveNonGroupJobAndGetMatches(glJobDTO);
-		userActivityService.audit("Job ", "Updated a Job");
+		auditEventWriter.audit("Job ", "Updated a Job");
 		glJobService.save(glJobDTO);
+		reportCacheService.invalidate(Topic.JOB_POSTING);
+		jobMatchEngine.jobChanged(glJobDTO.getId());
 		Map<String, Object> map = new HashMap<>();
 		return new ResponseEntity<>(map, HttpStatus.OK);
 	}
@@ -36,10 +36,13 @@ import com.gl.platform.domain.JhiUser;
 import com.gl.platform.repository.JhiUserRepository;
 import com.gl.platform.security.AppUser;
 import com.gl.platform.security.SecurityUtils;
+import com.gl.platform.service.AdTargetingService;
 import com.gl.platform.service.AuthorizationService;
 import com.gl.platform.service.GlStudentQueryService;
 import com.gl.platform.service.GlStudentService;
 import com.gl.platform.service.GlUserService;
+import com.gl.platform.service.JobMatchEngine;
+import com.gl.platform.service.MarketplaceCandidateIndexService;
 import com.gl.platform.service.dto.GlStudentCriteria;
 import com.gl.platform.service.dto.GlStudentDTO;
 import com.gl.platform.service.dto.GlUserDTO;
@@ -79,6 +82,15 @@ public class GlStudentResource {
 	@Autowired
 	private JhiUserRepository userRepository;
 
+	@Autowired
+	private JobMatchEngine jobMatchEngine;
+
+	@Autowired
+	private AdTargetingService adTargetingService;
+
+	@Autowired
+	private MarketplaceCandidateIndexService marketplaceCandidateIndexService;
+
 	public GlStudentResource(GlStudentService glStudentService, GlStudentQueryService glStudentQueryService) {
 		this.glStudentService = glStudentService;
 		this.glStudentQueryService = glStudentQueryService;
@@ -128,6 +140,7 @@ public class GlStudentResource {
 		log.debug("REST request to update GlStudent with credential type: {}, userId: {}, studentId: {} ", type, userId,
 				studentId);
 		GlStudentDTO result = glStudentService.saveUpdate(type, userId, studentId);
+		marketplaceCandidateIndexService.markChanged(userId);
 		return ResponseEntity.ok().headers(HeaderUtil.createEntityUpdateAlert(ENTITY_NAME, result.getId().toString()))
 				.body(result);
 	}
@@ -188,6 +201,9 @@ public class GlStudentResource {
 		});
 
 		GlStudentDTO result = glStudentService.updateFull(glStudent);
+		jobMatchEngine.studentChanged(glStudent.getUser().getUserId());
+		adTargetingService.studentChanged(glStudent.getUser().getUserId());
+		marketplaceCandidateIndexService.markChanged(glStudent.getUser().getUserId());
 		return ResponseEntity.created(new URI("/api/gl-students/full" + result.getId()))
 				.headers(HeaderUtil.createEntityCreationAlert(ENTITY_NAME, result.getId().toString())).body(result);
 	}
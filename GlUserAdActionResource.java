@@ -1,6 +1,11 @@
 package com.gl.platform.web.rest;
 
 import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import javax.activity.InvalidActivityException;
@@ -21,6 +26,9 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.gl.platform.aop.routing.ReadReplica;
+import com.gl.platform.service.AdActionCounterService;
+import com.gl.platform.service.AdViewLogWriter;
 import com.gl.platform.service.AuthorizationService;
 import com.gl.platform.service.GlUserAdActionService;
 import com.gl.platform.service.dto.GlAdViewedStatisticsDTO;
@@ -42,6 +50,20 @@ public class GlUserAdActionResource {
 	@Autowired
 	private AuthorizationService authorizationService;
 
+	@Autowired
+	private AdActionCounterService adActionCounterService;
+
+	@Autowired
+	private AdViewLogWriter adViewLogWriter;
+
+	/**
+	 * POST /viewed/ads : record the ads a student has viewed. The per-student
+	 * rows are appended in batches after the response, so the body is an
+	 * acknowledgement with a {@code message} only.
+	 *
+	 * @param gluserAdActionRequestDTO the viewed ads
+	 * @return the ResponseEntity with status 200 (OK)
+	 */
 	@PostMapping("/viewed/ads")
 	public ResponseEntity<Map<String, Object>> saveUserViewedAds(
 			@RequestBody GlUserAdActionRequestDTO gluserAdActionRequestDTO) throws NotFoundException {
@@ -49,7 +71,10 @@ public class GlUserAdActionResource {
 		if (!authorizationService.isStudent()) {
 			throw new AccessDeniedException(GlConstraints.OWNER);
 		}
-		Map<String, Object> response = glUserAdActionService.saveAdsViewedByUser(gluserAdActionRequestDTO);
+		adViewLogWriter.append(gluserAdActionRequestDTO);
+		adActionCounterService.viewed(gluserAdActionRequestDTO);
+		Map<String, Object> response = new HashMap<>();
+		response.put(GlConstraints.MESSAGE, "Viewed ads recorded");
 		return new ResponseEntity<>(response, HttpStatus.OK);
 	}
 
@@ -61,10 +86,12 @@ public class GlUserAdActionResource {
 			throw new AccessDeniedException(GlConstraints.OWNER);
 		}
 		Map<String, Object> response = glUserAdActionService.saveAdClickedByUser(gluserAdActionRequestDTO);
+		adActionCounterService.clicked(gluserAdActionRequestDTO);
 		return new ResponseEntity<>(response, HttpStatus.OK);
 	}
 
 	@GetMapping("/click/ad/statistics")
+	@ReadReplica
 	public ResponseEntity<Page<GlAdViewedStatisticsDTO>> getUserClickededAdsForMarketing(
 			@RequestBody GlUserAdActionRequestDTO gluserAdActionRequestDTO, Pageable pageable) {
 		log.info("REST request to get the user viewed ad stats for marketing");
@@ -76,6 +103,7 @@ public class GlUserAdActionResource {
 	}
 
 	@GetMapping("/click/ad/statistics/{institutionId}")
+	@ReadReplica
 	public ResponseEntity<Page<GlAdViewedStatisticsDTO>> getUserClickededAdsForInstitution(
 			@PathVariable Long institutionId, @RequestParam(value = "adId", required = false) Long adId,
 			@RequestParam(value = "filterBy", required = false) String filterBy, Pageable pageable)
@@ -90,6 +118,7 @@ public class GlUserAdActionResource {
 	}
 
 	@GetMapping("/report/ad/statistics/{institutionId}")
+	@ReadReplica
 	public ResponseEntity<Map<String, Object>> getUserClickededAdsReportForInstitution(@PathVariable Long institutionId,
 			@RequestParam(value = "adId", required = false) Long adId)
 			throws NotFoundException, IOException, BadRequestException {
@@ -102,6 +131,7 @@ public class GlUserAdActionResource {
 	}
 
 	@GetMapping("/ad/statistics/count/{institutionId}")
+	@ReadReplica
 	public ResponseEntity<Map<String, Object>> getUserClickededAndViewedAdsCountForInstitution(
 			@PathVariable Long institutionId, @RequestParam(value = "adId", required = true) Long adId)
 			throws InvalidActivityException {
@@ -113,4 +143,36 @@ public class GlUserAdActionResource {
 				institutionId);
 		return new ResponseEntity<>(response, HttpStatus.OK);
 	}
+
+	/**
+	 * GET /ad/statistics/daily/{institutionId} : get the pre-aggregated daily
+	 * view and click counts of an institution's ads.
+	 *
+	 * @param institutionId the institution id
+	 * @param adId          the ad id, or all the institution's ads
+	 * @param startDate     the first day in epoch millis, inclusive
+	 * @param endDate       the last day in epoch millis, inclusive
+	 * @return the ResponseEntity with status 200 (OK) and one row per ad and day
+	 *         in body
+	 */
+	@GetMapping("/ad/statistics/daily/{institutionId}")
+	public ResponseEntity<List<Map<String, Object>>> getDailyAdCountsForInstitution(@PathVariable Long institutionId,
+			@RequestParam(value = "adId", required = false) Long adId,
+			@RequestParam(value = "startDate", required = false) Long startDate,
+			@RequestParam(value = "endDate", required = false) Long endDate) {
+		log.info("REST request to get the daily ad counts for institution : {}", institutionId);
+		if (!authorizationService.ownedByInstitution(institutionId)) {
+			throw new AccessDeniedException(GlConstraints.OWNER);
+		}
+		LocalDate start = null;
+		LocalDate end = null;
+		if (startDate != null) {
+			start = Instant.ofEpochMilli(startDate).atZone(ZoneId.systemDefault()).toLocalDate();
+		}
+		if (endDate != null) {
+			end = Instant.ofEpochMilli(endDate).atZone(ZoneId.systemDefault()).toLocalDate();
+		}
+		List<Map<String, Object>> response = adActionCounterService.getDailyCounts(institutionId, adId, start, end);
+		return new ResponseEntity<>(response, HttpStatus.OK);
+	}
 }
@@ -7,7 +7,16 @@ public class GreenlightMetricFilter implements MetricFilter {
 
 	@Override
 	public boolean matches(String name, Metric metric) {
-		return name.startsWith("jvm") || name.startsWith("HikariPool-1.pool");
+		return name.startsWith("jvm") || isPoolMetric(name);
+	}
+
+	/**
+	 * Hikari names its metrics {@code <pool name>.pool.<metric>}, whatever the
+	 * pool is called.
+	 */
+	private static boolean isPoolMetric(String name) {
+		int pool = name.indexOf(".pool.");
+		return pool > 0 && name.indexOf('.') == pool;
 	}
 
 }
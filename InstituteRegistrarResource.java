@@ -20,8 +20,8 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.codahale.metrics.annotation.Timed;
+import com.gl.platform.service.AuditEventWriter;
 import com.gl.platform.service.InstituteRegistrarService;
-import com.gl.platform.service.UserActivityService;
 import com.gl.platform.service.dto.InstitutionRegistrarDTO;
 import com.gl.platform.web.rest.errors.BadRequestAlertException;
 import com.gl.platform.web.rest.util.HeaderUtil;
@@ -38,7 +38,7 @@ public class InstituteRegistrarResource {
     private final InstituteRegistrarService instituteRegistrarService;
     
     @Autowired
-	private UserActivityService userActivityService;
+	private AuditEventWriter auditEventWriter;
 
     public InstituteRegistrarResource(InstituteRegistrarService instituteRegistrarService) {
         this.instituteRegistrarService = instituteRegistrarService;
@@ -64,7 +64,7 @@ public class InstituteRegistrarResource {
 		
        // instituteRegistrarDTO.setac
         InstitutionRegistrarDTO result = instituteRegistrarService.saveRegistrar(instituteRegistrarDTO);
-        userActivityService.audit("Registrar", "New registrar added");
+        auditEventWriter.audit("Registrar", "New registrar added");
         return ResponseEntity.created(new URI("/api/institute_registrar/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(ENTITY_NAME, result.getId().toString())).body(result);
     }
@@ -96,7 +96,7 @@ public class InstituteRegistrarResource {
 			throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
 		}
 		InstitutionRegistrarDTO result = instituteRegistrarService.saveRegistrar(institutionRegistrarDTO);
-		userActivityService.audit("Registrar", "Modified registrar details");
+		auditEventWriter.audit("Registrar", "Modified registrar details");
 		return ResponseEntity.ok().headers(HeaderUtil.createEntityUpdateAlert(ENTITY_NAME, institutionRegistrarDTO.getId().toString()))
 				.body(result);
 	}
@@ -111,7 +111,7 @@ public class InstituteRegistrarResource {
 	public ResponseEntity<Void> deleteEnrollments(@PathVariable Long id) {
 		log.debug("REST request to delete Enrollments : {}", id);
 		instituteRegistrarService.disableRegistser(id);
-		userActivityService.audit("Registrar", "Deleted registrar");
+		auditEventWriter.audit("Registrar", "Deleted registrar");
 		return ResponseEntity.ok().headers(HeaderUtil.createEntityDeletionAlert(ENTITY_NAME, id.toString())).build();
 	}
 
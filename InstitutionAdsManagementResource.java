@@ -27,6 +27,7 @@ import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import com.codahale.metrics.annotation.Timed;
 import com.gl.platform.domain.GlAdSubscriptionConfig;
+import com.gl.platform.service.AdTargetingService;
 import com.gl.platform.service.AuthorizationService;
 import com.gl.platform.service.InstitutionAdsManagementService;
 import com.gl.platform.service.dto.InstitutionAdManagementRequestDTO;
@@ -50,6 +51,9 @@ public class InstitutionAdsManagementResource {
 	@Autowired
 	private AuthorizationService authorizationService;
 
+	@Autowired
+	private AdTargetingService adTargetingService;
+
 	@PostMapping("/institution/ads")
 	public ResponseEntity<InstitutionAdsManagementDTO> createinstitutionAd(
 			@RequestParam(value = "id", required = true) String id,
@@ -85,6 +89,7 @@ public class InstitutionAdsManagementResource {
 		instAdmanagementDTO.setSubject(subject);
 		instAdmanagementDTO.setMessage(message);
 		instAdmanagementDTO = institutionAdsManagementService.createInstAds(instAdmanagementDTO, imageFile);
+		adTargetingService.institutionChanged(institutionId);
 		return ResponseEntity.created(new URI(ServletUriComponentsBuilder.fromCurrentRequest().toUriString()))
 				.headers(HeaderUtil.createEntityCreationAlert(ENTITY_NAME, instAdmanagementDTO.getId().toString()))
 				.body(instAdmanagementDTO);
@@ -103,7 +108,8 @@ public class InstitutionAdsManagementResource {
 	@GetMapping("/student/all/ads")
 	public ResponseEntity<List<Map<String, Object>>> getAllPostedAds() {
 		log.info("REST request to get all the  posted ads for Student view");
-		List<Map<String, Object>> response = institutionAdsManagementService.getAllAdsPosted();
+		List<Map<String, Object>> response = adTargetingService
+				.getAllPostedAds(institutionAdsManagementService::getAllAdsPosted);
 		return ResponseEntity.ok().body(response);
 	}
 
@@ -111,6 +117,7 @@ public class InstitutionAdsManagementResource {
 	public ResponseEntity<Map<String, Object>> disablePostedAd(@PathVariable Long id, @PathVariable Boolean status) {
 		log.info("REST request to delete the institution posted ad for id : {}", id);
 		Map<String, Object> response = institutionAdsManagementService.disablePostedAd(id, status);
+		adTargetingService.adChanged(id);
 		return ResponseEntity.ok().body(response);
 	}
 
@@ -118,6 +125,7 @@ public class InstitutionAdsManagementResource {
 	public ResponseEntity<Map<String, Object>> deletePostedAd(@PathVariable Long id) {
 		log.info("REST request to delete the institution posted ad for id : {}", id);
 		Map<String, Object> response = institutionAdsManagementService.deletePostedAd(id);
+		adTargetingService.adChanged(id);
 		return ResponseEntity.ok().body(response);
 	}
 
@@ -132,6 +140,7 @@ public class InstitutionAdsManagementResource {
 
 		glAdSubscriptionConfig.setActive(true);
 		glAdSubscriptionConfig = institutionAdsManagementService.createSubscription(glAdSubscriptionConfig);
+		adTargetingService.institutionChanged(glAdSubscriptionConfig.getInstitutionId());
 		return ResponseEntity.created(new URI("/api/institution/ads/subscription" + glAdSubscriptionConfig.getId()))
 				.headers(HeaderUtil.createEntityCreationAlert(ENTITY_NAME, glAdSubscriptionConfig.getId().toString()))
 				.body(glAdSubscriptionConfig);
@@ -151,6 +160,7 @@ public class InstitutionAdsManagementResource {
 			throw new BadRequestAlertException("Id must not be null", "GlAdSubscriptionConfig", "idNull");
 		}
 		glAdSubscriptionConfig = institutionAdsManagementService.createSubscription(glAdSubscriptionConfig);
+		adTargetingService.institutionChanged(glAdSubscriptionConfig.getInstitutionId());
 		return ResponseEntity.created(new URI("/api/institution/ads/subscription" + glAdSubscriptionConfig.getId()))
 				.headers(HeaderUtil.createEntityCreationAlert(ENTITY_NAME, glAdSubscriptionConfig.getId().toString()))
 				.body(glAdSubscriptionConfig);
@@ -184,8 +194,8 @@ public class InstitutionAdsManagementResource {
 	public ResponseEntity<List<InstitutionAdsManagementDTO>> getTargettedAds(@PathVariable Long candidateId,
 			@RequestParam("institutionType") String institutionType) {
 		log.info("REST request to get the targetted ads fo candidate id : {}", candidateId);
-		List<InstitutionAdsManagementDTO> response = institutionAdsManagementService.processTagettedAds(candidateId,
-				institutionType);
+		List<InstitutionAdsManagementDTO> response = adTargetingService.getTargettedAds(candidateId, institutionType,
+				() -> institutionAdsManagementService.processTagettedAds(candidateId, institutionType));
 		return ResponseEntity.ok().body(response);
 	}
 
@@ -0,0 +1,262 @@
+package com.gl.platform.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable snapshot of the institution parent/child graph.
+ * <p>
+ * Institutions are numbered densely and their children are kept as adjacency
+ * arrays. The graph is also laid out in pre-order, so the descendants of an
+ * institution are one contiguous range: whether an institution sits under
+ * another is an O(1) range check and listing the descendants is O(k). Ids by
+ * type are indexed up front.
+ */
+public class InstitutionHierarchy {
+
+	/**
+	 * An institution row as read from the database.
+	 */
+	public static final class Node {
+
+		private final long id;
+
+		private final Long parentId;
+
+		private final String type;
+
+		private final boolean active;
+
+		public Node(long id, Long parentId, String type, boolean active) {
+			this.id = id;
+			this.parentId = parentId;
+			this.type = type;
+			this.active = active;
+		}
+
+		public long getId() {
+			return id;
+		}
+
+		public Long getParentId() {
+			return parentId;
+		}
+
+		public String getType() {
+			return type;
+		}
+
+		public boolean isActive() {
+			return active;
+		}
+	}
+
+	private final Map<Long, Integer> numbers;
+
+	private final long[] ids;
+
+	private final int[] parents;
+
+	private final int[] childStart;
+
+	private final int[] children;
+
+	private final int[] preorder;
+
+	private final int[] first;
+
+	private final int[] end;
+
+	private final BitSet active;
+
+	private final Map<String, long[]> idsByType;
+
+	public InstitutionHierarchy(Collection<Node> nodes) {
+		int size = nodes.size();
+		numbers = new HashMap<>(size * 2);
+		ids = new long[size];
+		parents = new int[size];
+		active = new BitSet(size);
+		Map<String, List<Long>> types = new TreeMap<>();
+		int number = 0;
+		for (Node node : nodes) {
+			numbers.put(node.getId(), number);
+			ids[number] = node.getId();
+			active.set(number, node.isActive());
+			if (node.getType() != null) {
+				types.computeIfAbsent(node.getType().toLowerCase(), key -> new ArrayList<>()).add(node.getId());
+			}
+			number++;
+		}
+		idsByType = new HashMap<>();
+		types.forEach((type, typeIds) -> idsByType.put(type, typeIds.stream().mapToLong(Long::longValue).sorted().toArray()));
+
+		// children as compressed adjacency arrays
+		childStart = new int[size + 1];
+		number = 0;
+		for (Node node : nodes) {
+			Integer parent = node.getParentId() == null ? null : numbers.get(node.getParentId());
+			parents[number] = parent == null || parent == number ? -1 : parent;
+			if (parents[number] >= 0) {
+				childStart[parents[number] + 1]++;
+			}
+			number++;
+		}
+		for (int i = 0; i < size; i++) {
+			childStart[i + 1] += childStart[i];
+		}
+		children = new int[childStart[size]];
+		int[] filled = Arrays.copyOf(childStart, size);
+		for (int i = 0; i < size; i++) {
+			if (parents[i] >= 0) {
+				children[filled[parents[i]]++] = i;
+			}
+		}
+
+		// pre-order layout; rows caught in a parent cycle are laid out from
+		// wherever the walk first reaches them
+		preorder = new int[size];
+		first = new int[size];
+		end = new int[size];
+		BitSet visited = new BitSet(size);
+		int position = 0;
+		for (int pass = 0; pass < 2; pass++) {
+			for (int root = 0; root < size; root++) {
+				if (visited.get(root) || (pass == 0 && parents[root] >= 0)) {
+					continue;
+				}
+				position = layout(root, position, visited);
+			}
+		}
+	}
+
+	private int layout(int root, int position, BitSet visited) {
+		Deque<int[]> stack = new ArrayDeque<>();
+		visited.set(root);
+		first[root] = position;
+		preorder[position++] = root;
+		stack.push(new int[] { root, childStart[root] });
+		while (!stack.isEmpty()) {
+			int[] frame = stack.peek();
+			if (frame[1] == childStart[frame[0] + 1]) {
+				end[frame[0]] = position;
+				stack.pop();
+				continue;
+			}
+			int child = children[frame[1]++];
+			if (!visited.get(child)) {
+				visited.set(child);
+				first[child] = position;
+				preorder[position++] = child;
+				stack.push(new int[] { child, childStart[child] });
+			}
+		}
+		return position;
+	}
+
+	public boolean contains(Long id) {
+		return numbers.containsKey(id);
+	}
+
+	public int size() {
+		return ids.length;
+	}
+
+	/**
+	 * @return the parent of an institution, or null for a top-level or unknown
+	 *         institution
+	 */
+	public Long getParent(Long id) {
+		Integer number = numbers.get(id);
+		return number == null || parents[number] < 0 ? null : ids[parents[number]];
+	}
+
+	/**
+	 * @return the direct children of an institution
+	 */
+	public List<Long> getChildren(Long id) {
+		Integer number = numbers.get(id);
+		if (number == null) {
+			return Collections.emptyList();
+		}
+		List<Long> result = new ArrayList<>(childStart[number + 1] - childStart[number]);
+		for (int i = childStart[number]; i < childStart[number + 1]; i++) {
+			result.add(ids[children[i]]);
+		}
+		return result;
+	}
+
+	/**
+	 * @return every institution below an institution, in pre-order
+	 */
+	public List<Long> getDescendants(Long id) {
+		Integer number = numbers.get(id);
+		if (number == null) {
+			return Collections.emptyList();
+		}
+		List<Long> result = new ArrayList<>(end[number] - first[number] - 1);
+		for (int position = first[number] + 1; position < end[number]; position++) {
+			result.add(ids[preorder[position]]);
+		}
+		return result;
+	}
+
+	/**
+	 * @return the parent chain of an institution, nearest first
+	 */
+	public List<Long> getAncestors(Long id) {
+		Integer number = numbers.get(id);
+		if (number == null) {
+			return Collections.emptyList();
+		}
+		List<Long> result = new ArrayList<>();
+		for (int parent = parents[number]; parent >= 0 && result.size() < ids.length; parent = parents[parent]) {
+			result.add(ids[parent]);
+		}
+		return result;
+	}
+
+	/**
+	 * Whether an institution is another one or sits below it, for ownership
+	 * checks over campuses.
+	 *
+	 * @param ancestorId the institution owning the hierarchy
+	 * @param id         the institution checked
+	 * @return true if {@code id} is {@code ancestorId} or one of its descendants
+	 */
+	public boolean isWithin(Long ancestorId, Long id) {
+		Integer ancestor = numbers.get(ancestorId);
+		Integer number = numbers.get(id);
+		return ancestor != null && number != null && first[ancestor] <= first[number]
+				&& first[number] < end[ancestor];
+	}
+
+	public boolean isActive(Long id) {
+		Integer number = numbers.get(id);
+		return number != null && active.get(number);
+	}
+
+	/**
+	 * @return the ids of the institutions of a type, ignoring case, in id order
+	 */
+	public List<Long> getByType(String type) {
+		long[] typeIds = type == null ? null : idsByType.get(type.toLowerCase());
+		if (typeIds == null) {
+			return Collections.emptyList();
+		}
+		List<Long> result = new ArrayList<>(typeIds.length);
+		for (long typeId : typeIds) {
+			result.add(typeId);
+		}
+		return result;
+	}
+}
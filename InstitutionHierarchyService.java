@@ -0,0 +1,176 @@
+package com.gl.platform.service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.gl.platform.repository.NamedQuery;
+import com.gl.platform.repository.NamedQueryRegistry;
+import com.gl.platform.service.InstitutionHierarchy.Node;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Service keeping the {@link InstitutionHierarchy} in memory.
+ * <p>
+ * The graph is loaded once the application is ready and fully reloaded every
+ * night. Institution writes call {@link #refresh} with the institution written:
+ * only that row and its children are read again, and a new graph is built from
+ * the rows in memory and swapped in. Hierarchy lookups that still go through
+ * the institution service, such as the drop-down lists, are memoized with
+ * {@link #view} until the next change, or for {@link #VIEW_TTL_MINUTES} minutes
+ * at most in case the rows were changed by another instance.
+ */
+@Service
+public class InstitutionHierarchyService {
+
+	private final Logger log = LoggerFactory.getLogger(InstitutionHierarchyService.class);
+
+	private static final String QUERY_GROUP = "institution-hierarchy";
+
+	private static final long VIEW_TTL_MINUTES = 10;
+
+	private final NamedQuery nodesQuery;
+
+	private final NamedQuery nodesByIdsQuery;
+
+	private final Cache<String, Object> views = CacheBuilder.newBuilder().maximumSize(1000)
+			.expireAfterWrite(VIEW_TTL_MINUTES, TimeUnit.MINUTES).build();
+
+	private final AtomicLong version = new AtomicLong();
+
+	private volatile Map<Long, Node> nodes;
+
+	private volatile InstitutionHierarchy hierarchy;
+
+	public InstitutionHierarchyService(NamedQueryRegistry namedQueryRegistry, MetricRegistry metricRegistry) {
+		this.nodesQuery = namedQueryRegistry.get(QUERY_GROUP, "institution.nodes");
+		this.nodesByIdsQuery = namedQueryRegistry.get(QUERY_GROUP, "institution.nodes.by.ids");
+		metricRegistry.register("institution.hierarchy.size", (Gauge<Integer>) () -> {
+			InstitutionHierarchy current = hierarchy;
+			return current == null ? 0 : current.size();
+		});
+	}
+
+	@Async
+	@EventListener(ApplicationReadyEvent.class)
+	public void onApplicationReady() {
+		getHierarchy();
+	}
+
+	/**
+	 * Get the current institution graph, loading it on first use.
+	 *
+	 * @return the graph
+	 */
+	public InstitutionHierarchy getHierarchy() {
+		InstitutionHierarchy current = hierarchy;
+		if (current == null) {
+			synchronized (this) {
+				current = hierarchy;
+				if (current == null) {
+					current = rebuild();
+				}
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * Reload every institution and swap in a new graph.
+	 *
+	 * @return the new graph
+	 */
+	@Scheduled(cron = "0 0 3 * * ?")
+	public synchronized InstitutionHierarchy rebuild() {
+		Map<Long, Node> loaded = new LinkedHashMap<>();
+		for (Node node : nodesQuery.query(new MapSqlParameterSource(), this::toNode)) {
+			loaded.put(node.getId(), node);
+		}
+		InstitutionHierarchy rebuilt = swap(loaded);
+		log.info("Built the institution hierarchy of {} institutions", rebuilt.size());
+		return rebuilt;
+	}
+
+	/**
+	 * Reload an institution that was created, updated, deleted or changed status,
+	 * with its children, and swap in a new graph.
+	 *
+	 * @param institutionId the institution id
+	 */
+	public synchronized void refresh(Long institutionId) {
+		if (institutionId == null) {
+			return;
+		}
+		InstitutionHierarchy current = getHierarchy();
+		// the former children are read again too, in case they moved away
+		List<Long> ids = new ArrayList<>(current.getChildren(institutionId));
+		ids.add(institutionId);
+		Map<Long, Node> updated = new LinkedHashMap<>(nodes);
+		ids.forEach(updated::remove);
+		for (Node node : nodesByIdsQuery.query(
+				new MapSqlParameterSource("ids", ids).addValue("id", institutionId), this::toNode)) {
+			updated.put(node.getId(), node);
+		}
+		swap(updated);
+		log.debug("Refreshed institution {} in the institution hierarchy", institutionId);
+	}
+
+	/**
+	 * Get a hierarchy-dependent result, computed once until the next change to
+	 * the graph. The result is shared between requests and must not be
+	 * modified.
+	 *
+	 * @param view   the name of the lookup
+	 * @param key    the lookup arguments
+	 * @param loader computes the result
+	 * @return the result
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T view(String view, Object key, Supplier<T> loader) {
+		String cacheKey = view + "|" + key;
+		T result = (T) views.getIfPresent(cacheKey);
+		if (result == null) {
+			long versionBefore = version.get();
+			result = loader.get();
+			// a result loaded while the graph was being swapped may be stale
+			if (result != null && version.get() == versionBefore) {
+				views.put(cacheKey, result);
+			}
+		}
+		return result;
+	}
+
+	private InstitutionHierarchy swap(Map<Long, Node> updated) {
+		InstitutionHierarchy rebuilt = new InstitutionHierarchy(updated.values());
+		nodes = Collections.unmodifiableMap(updated);
+		hierarchy = rebuilt;
+		version.incrementAndGet();
+		views.invalidateAll();
+		return rebuilt;
+	}
+
+	private Node toNode(ResultSet rs, int rowNum) throws SQLException {
+		long parentId = rs.getLong("parent_id");
+		Long parent = rs.wasNull() ? null : parentId;
+		return new Node(rs.getLong("id"), parent, rs.getString("type"), rs.getBoolean("active"));
+	}
+}
@@ -36,6 +36,7 @@ import com.gl.platform.repository.StatisticsRepository;
 import com.gl.platform.security.AuthoritiesConstants;
 import com.gl.platform.service.AuthorizationService;
 import com.gl.platform.service.InstitutionConnectorService;
+import com.gl.platform.service.InstitutionHierarchyService;
 import com.gl.platform.service.InstitutionQueryService;
 import com.gl.platform.service.InstitutionService;
 import com.gl.platform.service.dto.CampusCustomDTO;
@@ -87,6 +88,9 @@ public class InstitutionResource {
 	@Autowired
 	private InstitutionConnectorService institutionConnectorService;
 
+	@Autowired
+	private InstitutionHierarchyService institutionHierarchyService;
+
 	public InstitutionResource(InstitutionService institutionService, InstitutionQueryService institutionQueryService) {
 		this.institutionService = institutionService;
 		this.institutionQueryService = institutionQueryService;
@@ -112,6 +116,7 @@ public class InstitutionResource {
 		}
 		institutionDTO.setActive(true);
 		InstitutionDTO result = institutionService.save(institutionDTO);
+		institutionHierarchyService.refresh(result.getId());
 		return ResponseEntity.created(new URI("/api/institutions/" + result.getId()))
 				.headers(HeaderUtil.createEntityCreationAlert(ENTITY_NAME, result.getId().toString())).body(result);
 	}
@@ -128,6 +133,7 @@ public class InstitutionResource {
 			throw new CampusNameAlreadyUsedException();
 		});
 		InstitutionDTO result = institutionService.saveFull(campusCustomDTO);
+		institutionHierarchyService.refresh(result.getId());
 		return ResponseEntity.created(new URI("/api/institutions/" + result.getId()))
 				.headers(HeaderUtil.createEntityCreationAlert(ENTITY_NAME, result.getId().toString())).body(result);
 	}
@@ -141,6 +147,7 @@ public class InstitutionResource {
 
 		log.debug("REST request to update Institution : {}", campusCustomDTO);
 		CampusCustomDTO campusDTO = institutionService.updateFull(campusCustomDTO);
+		institutionHierarchyService.refresh(campusCustomDTO.getId());
 		return new ResponseEntity<>(campusDTO, HttpStatus.OK);
 	}
 
@@ -217,6 +224,7 @@ public class InstitutionResource {
 			throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
 		}
 		InstitutionDTO result = institutionService.save(institutionDTO);
+		institutionHierarchyService.refresh(institutionDTO.getId());
 		return ResponseEntity.ok()
 				.headers(HeaderUtil.createEntityUpdateAlert(ENTITY_NAME, institutionDTO.getId().toString()))
 				.body(result);
@@ -251,7 +259,8 @@ public class InstitutionResource {
 	@Timed
 	public ResponseEntity<List<Map<String, Object>>> getAllInstitutionsDropdownList() {
 		log.debug("REST request to get Institutions dropdownList");
-		List<Map<String, Object>> list = institutionService.getAllInstitutionsDropdownList();
+		List<Map<String, Object>> list = institutionHierarchyService.view("dropdownlist", null,
+				institutionService::getAllInstitutionsDropdownList);
 		return ResponseEntity.ok().body(list);
 	}
 
@@ -259,7 +268,8 @@ public class InstitutionResource {
 	@Timed
 	public ResponseEntity<List<Map<String, Object>>> getAllTCBInstitutionsDropdownList() {
 		log.debug("REST request to get TCB Institutions dropdownList");
-		List<Map<String, Object>> list = institutionService.getAllTCBInstitutionsDropdownList();
+		List<Map<String, Object>> list = institutionHierarchyService.view("tcb-dropdownlist", null,
+				institutionService::getAllTCBInstitutionsDropdownList);
 		return ResponseEntity.ok().body(list);
 	}
 
@@ -268,7 +278,9 @@ public class InstitutionResource {
 	public ResponseEntity<Object> getAllInstitutionsDropdownListByType(@PathVariable String type,
 			@RequestParam(value = "institutionId", required = false) Long institutionId) {
 		log.debug("REST request to get Institutions dropdownList by type: {}", type);
-		List<Map<String, Object>> list = institutionService.getAllInstitutionsDropdownListByType(type, institutionId);
+		List<Map<String, Object>> list = institutionHierarchyService.view("dropdownlist-by-type",
+				type + ":" + institutionId,
+				() -> institutionService.getAllInstitutionsDropdownListByType(type, institutionId));
 		return ResponseEntity.ok().body(list);
 	}
 
@@ -330,15 +342,35 @@ public class InstitutionResource {
 	@Timed
 	public ResponseEntity<List<Object>> getChildInstitutes(@PathVariable Long parentId) {
 		log.debug("REST request to get child Institutions : {}", parentId);
-		List<Object> institutes = institutionService.getChildInstitutes(parentId);
+		List<Object> institutes = institutionHierarchyService.view("childs", parentId,
+				() -> institutionService.getChildInstitutes(parentId));
 		return ResponseEntity.ok().body(institutes);
 	}
 
+	/**
+	 * GET /institutions/:id/descendants : get the ids of every institution below
+	 * the "id" institution.
+	 *
+	 * @param id the id of the institution
+	 * @return the ResponseEntity with status 200 (OK) and the list of institution
+	 *         ids in body
+	 */
+	@GetMapping("/institutions/{id}/descendants")
+	@Timed
+	public ResponseEntity<List<Long>> getDescendantInstitutes(@PathVariable Long id) {
+		log.debug("REST request to get descendant Institutions : {}", id);
+		if (!authorizationService.ownedByInstitution(id) && !authorizationService.isSupport()) {
+			throw new AccessDeniedException(GlConstraints.OWNER);
+		}
+		return ResponseEntity.ok().body(institutionHierarchyService.getHierarchy().getDescendants(id));
+	}
+
 	@GetMapping("/institution/{parentId}/campuses")
 	@Timed
 	public ResponseEntity<Object> getChildCampuses(@PathVariable Long parentId) {
 		log.debug("REST request to get Institution : {}", parentId);
-		Map<String, Object> institutes = institutionService.getCampusesOfInstitution(parentId);
+		Map<String, Object> institutes = institutionHierarchyService.view("campuses", parentId,
+				() -> institutionService.getCampusesOfInstitution(parentId));
 		return ResponseEntity.ok().body(institutes);
 	}
 
@@ -353,6 +385,7 @@ public class InstitutionResource {
 	public ResponseEntity<Void> deleteInstitution(@PathVariable Long id) {
 		log.debug("REST request to delete Institution : {}", id);
 		institutionService.delete(id);
+		institutionHierarchyService.refresh(id);
 		return ResponseEntity.ok().headers(HeaderUtil.createEntityDeletionAlert(ENTITY_NAME, id.toString())).build();
 	}
 
@@ -386,6 +419,7 @@ public class InstitutionResource {
 	public ResponseEntity<Object> updateInstitutionStatus(@PathVariable Long id) {
 		log.debug("REST request to update the institution status : {}", id);
 		Map<String, Object> response = institutionService.updateStatus(id);
+		institutionHierarchyService.refresh(id);
 		return new ResponseEntity<>(response, HttpStatus.OK);
 
 	}
@@ -401,6 +435,7 @@ public class InstitutionResource {
 		}
 		Map<String, Object> response = institutionService.updateInstitutionWithPropertyName(id, propertyName,
 				propertyValue);
+		institutionHierarchyService.refresh(id);
 		return new ResponseEntity<>(response, HttpStatus.OK);
 	}
 
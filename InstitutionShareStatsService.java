@@ -0,0 +1,169 @@
+package com.gl.platform.service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.gl.platform.repository.NamedQuery;
+import com.gl.platform.repository.NamedQueryRegistry;
+
+/**
+ * Service maintaining per-institution, per-day, per-credential-type share
+ * rollups in {@code institution_share_stat}.
+ * <p>
+ * Share creation flags the rollups as pending. Every minute, when something is
+ * pending, the (day, institution) pairs of the shares modified since the
+ * previous run are read and only those institutions' rollups of those days
+ * are re-aggregated. A nightly reconciler
+ * re-aggregates the last {@link #RECONCILE_DAYS} days to repair drift from
+ * later updates such as shares being opened or archived. Writers on every
+ * instance take the same advisory lock and the reconciler only runs on the
+ * instance that gets it. Reads cost one row per day and credential type in the
+ * requested range.
+ * <p>
+ * The rollups are built from the {@code share} table only and are read by the
+ * share statistics endpoint; the institution dashboards keep their own queries.
+ */
+@Service
+public class InstitutionShareStatsService {
+
+	private final Logger log = LoggerFactory.getLogger(InstitutionShareStatsService.class);
+
+	private static final int RECONCILE_DAYS = 30;
+
+	private static final long LOCK_KEY = 0x5348415245L;
+
+	/** Overlap with the previous run, for transactions committed while it read. */
+	private static final long WATERMARK_OVERLAP_SECONDS = 60;
+
+	private final NamedQuery rangeQuery;
+
+	private final NamedQuery dirtyQuery;
+
+	private final NamedQuery lockQuery;
+
+	private final NamedQuery tryLockQuery;
+
+	private final NamedQuery deleteDayQuery;
+
+	private final NamedQuery insertDayQuery;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private volatile boolean pending;
+
+	private Instant watermark = Instant.now();
+
+	public InstitutionShareStatsService(NamedQueryRegistry namedQueryRegistry, TransactionTemplate transactionTemplate) {
+		this.rangeQuery = namedQueryRegistry.get("share", "share.stats.range");
+		this.dirtyQuery = namedQueryRegistry.get("share", "share.stats.dirty");
+		this.lockQuery = namedQueryRegistry.get("share", "share.stats.lock");
+		this.tryLockQuery = namedQueryRegistry.get("share", "share.stats.try.lock");
+		this.deleteDayQuery = namedQueryRegistry.get("share", "share.stats.delete.day");
+		this.insertDayQuery = namedQueryRegistry.get("share", "share.stats.insert.day");
+		this.transactionTemplate = transactionTemplate;
+	}
+
+	/**
+	 * Record that a share was created, so the rollups of the institutions it
+	 * touched are refreshed on the next run.
+	 */
+	public void shareCreated() {
+		pending = true;
+	}
+
+	/**
+	 * Get the daily share rollups of an institution.
+	 *
+	 * @param institutionId the institution id
+	 * @param start         the first day, inclusive, or null
+	 * @param end           the last day, inclusive, or null
+	 * @return one row per day, direction (S = sent, R = received) and share type
+	 */
+	public List<Map<String, Object>> getDailyStats(Long institutionId, LocalDate start, LocalDate end) {
+		MapSqlParameterSource params = new MapSqlParameterSource().addValue("institutionId", institutionId)
+				.addValue("startDate", start).addValue("endDate", end);
+		return rangeQuery.queryForList(params);
+	}
+
+	@Scheduled(fixedDelay = 60000)
+	public synchronized void refreshDirtyDays() {
+		if (!pending) {
+			return;
+		}
+		pending = false;
+		Instant runStart = Instant.now();
+		Map<LocalDate, Set<Long>> dirty = new TreeMap<>();
+		try {
+			dirtyQuery.query(
+					new MapSqlParameterSource("since",
+							Timestamp.from(watermark.minus(WATERMARK_OVERLAP_SECONDS, ChronoUnit.SECONDS))),
+					rs -> dirty.computeIfAbsent(rs.getDate("stat_date").toLocalDate(), key -> new TreeSet<>())
+							.add(rs.getLong("institution_id")));
+			dirty.forEach(this::refreshDay);
+			watermark = runStart;
+		} catch (RuntimeException e) {
+			log.error("Failed to refresh share statistics, retrying on the next run", e);
+			pending = true;
+		}
+	}
+
+	@Scheduled(cron = "0 30 2 * * ?")
+	public void reconcile() {
+		LocalDate today = LocalDate.now();
+		Boolean reconciled = transactionTemplate.execute(status -> {
+			if (!Boolean.TRUE.equals(
+					tryLockQuery.queryForList(new MapSqlParameterSource("lockKey", LOCK_KEY)).get(0).get("locked"))) {
+				return Boolean.FALSE;
+			}
+			for (int i = 0; i <= RECONCILE_DAYS; i++) {
+				writeDay(today.minusDays(i), null);
+			}
+			return Boolean.TRUE;
+		});
+		if (Boolean.TRUE.equals(reconciled)) {
+			log.info("Reconciled share statistics for the last {} days", RECONCILE_DAYS);
+		} else {
+			log.info("Share statistics are being reconciled by another instance");
+		}
+	}
+
+	/**
+	 * Re-aggregate the rollups of one day from the share table.
+	 *
+	 * @param day            the day to refresh
+	 * @param institutionIds the institutions to refresh, or null for all of them
+	 */
+	public void refreshDay(LocalDate day, Collection<Long> institutionIds) {
+		transactionTemplate.execute(status -> {
+			lockQuery.queryForList(new MapSqlParameterSource("lockKey", LOCK_KEY));
+			return writeDay(day, institutionIds);
+		});
+		log.debug("Refreshed share statistics for {} and institutions {}", day,
+				institutionIds == null ? "all" : institutionIds);
+	}
+
+	private int writeDay(LocalDate day, Collection<Long> institutionIds) {
+		// an empty list would expand to IN (), which is not valid SQL
+		MapSqlParameterSource params = new MapSqlParameterSource().addValue("statDate", day)
+				.addValue("allInstitutions", institutionIds == null)
+				.addValue("institutionIds", institutionIds == null ? Collections.singletonList(-1L) : institutionIds);
+		deleteDayQuery.update(params);
+		return insertDayQuery.update(params);
+	}
+}
@@ -27,6 +27,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.codahale.metrics.annotation.Timed;
 import com.gl.platform.domain.InstitutionUser;
+import com.gl.platform.service.AuthorizationDecisionCache;
 import com.gl.platform.service.GlUserService;
 import com.gl.platform.service.InstitutionService;
 import com.gl.platform.service.InstitutionUserQueryService;
@@ -62,6 +63,9 @@ public class InstitutionUserResource {
 	@Autowired
 	private InstitutionService institutionService;
 
+	@Autowired
+	private AuthorizationDecisionCache authorizationDecisionCache;
+
 	public InstitutionUserResource(InstitutionUserService institutionUserService,
 			InstitutionUserQueryService institutionUserQueryService) {
 		this.institutionUserService = institutionUserService;
@@ -88,6 +92,7 @@ public class InstitutionUserResource {
 					"idexists");
 		}
 		InstitutionUserDTO result = institutionUserService.save(institutionUserDTO);
+		authorizationDecisionCache.invalidateAll();
 		return ResponseEntity.created(new URI("/api/institution-users/" + result.getId()))
 				.headers(HeaderUtil.createEntityCreationAlert(ENTITY_NAME, result.getId().toString())).body(result);
 	}
@@ -111,6 +116,7 @@ public class InstitutionUserResource {
 			throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
 		}
 		InstitutionUserDTO result = institutionUserService.save(institutionUserDTO);
+		authorizationDecisionCache.invalidateAll();
 		return ResponseEntity.ok()
 				.headers(HeaderUtil.createEntityUpdateAlert(ENTITY_NAME, institutionUserDTO.getId().toString()))
 				.body(result);
@@ -161,6 +167,7 @@ public class InstitutionUserResource {
 	public ResponseEntity<Void> deleteInstitutionUser(@PathVariable Long id) {
 		log.debug("REST request to delete InstitutionUser : {}", id);
 		institutionUserService.delete(id);
+		authorizationDecisionCache.invalidateAll();
 		return ResponseEntity.ok().headers(HeaderUtil.createEntityDeletionAlert(ENTITY_NAME, id.toString())).build();
 	}
 
@@ -178,6 +185,7 @@ public class InstitutionUserResource {
 			throws URISyntaxException {
 		log.debug("REST request to save InstitutionUser ");
 		InstitutionUserDTO result = institutionUserService.saveFull(institutionUser);
+		authorizationDecisionCache.invalidateAll();
 		return ResponseEntity.created(new URI("/api/institution-users/" + result.getId()))
 				.headers(HeaderUtil.createEntityCreationAlert(ENTITY_NAME, result.getId().toString())).body(result);
 	}
@@ -0,0 +1,106 @@
+package com.gl.platform.repository;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.CallableStatementCallback;
+import org.springframework.jdbc.core.CallableStatementCreator;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.SqlProvider;
+import org.springframework.jdbc.core.StatementCallback;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.gl.platform.aop.timing.RequestTimings;
+import com.gl.platform.aop.timing.RequestTimings.Category;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * JdbcTemplate timing every statement under the name of its registry query.
+ * <p>
+ * The SQL of a statement is mapped back to its {@code sql/*.sql.xml} query by
+ * {@link NamedQueryRegistry#findName}, so the services still running the
+ * registry's SQL through the {@code *Queries} Properties beans and the named
+ * JDBC template feed the same {@code sql.<group>.<key>} timer and
+ * {@code sql.<group>.<key>.errors} meter as {@link NamedQuery}, without
+ * changes. Statements built some other way are timed as {@code sql.unnamed}.
+ * Statements slower than the slow query threshold are logged, and the time of
+ * every statement is added to the database time of the current request.
+ */
+public class InstrumentedJdbcTemplate extends JdbcTemplate {
+
+	private static final Logger log = LoggerFactory.getLogger(InstrumentedJdbcTemplate.class);
+
+	private static final String UNNAMED = MetricRegistry.name("sql", "unnamed");
+
+	private final NamedQueryRegistry namedQueryRegistry;
+
+	private final MetricRegistry metricRegistry;
+
+	private final long slowQueryNanos;
+
+	/** Metric name by executed SQL, which varies with the size of list parameters. */
+	private final Cache<String, String> names = CacheBuilder.newBuilder().maximumSize(10000).build();
+
+	public InstrumentedJdbcTemplate(DataSource dataSource, NamedQueryRegistry namedQueryRegistry,
+			MetricRegistry metricRegistry, long slowQueryMillis) {
+		super(dataSource);
+		this.namedQueryRegistry = namedQueryRegistry;
+		this.metricRegistry = metricRegistry;
+		this.slowQueryNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryMillis);
+	}
+
+	@Override
+	public <T> T execute(PreparedStatementCreator psc, PreparedStatementCallback<T> action) {
+		return time(psc, () -> super.execute(psc, action));
+	}
+
+	@Override
+	public <T> T execute(StatementCallback<T> action) {
+		return time(action, () -> super.execute(action));
+	}
+
+	@Override
+	public <T> T execute(CallableStatementCreator csc, CallableStatementCallback<T> action) {
+		return time(csc, () -> super.execute(csc, action));
+	}
+
+	private <T> T time(Object sqlProvider, Supplier<T> call) {
+		String sql = sqlProvider instanceof SqlProvider ? ((SqlProvider) sqlProvider).getSql() : null;
+		String name = name(sql);
+		Timer timer = metricRegistry.timer(name);
+		long start = System.nanoTime();
+		try {
+			return call.get();
+		} catch (RuntimeException e) {
+			metricRegistry.meter(MetricRegistry.name(name, "errors")).mark();
+			throw e;
+		} finally {
+			long elapsed = System.nanoTime() - start;
+			timer.update(elapsed, TimeUnit.NANOSECONDS);
+			RequestTimings.record(Category.DB, elapsed);
+			if (elapsed >= slowQueryNanos) {
+				log.warn("Slow query {} took {} ms", name, TimeUnit.NANOSECONDS.toMillis(elapsed));
+			}
+		}
+	}
+
+	private String name(String sql) {
+		if (sql == null) {
+			return UNNAMED;
+		}
+		try {
+			return names.get(sql, () -> namedQueryRegistry.findName(sql).orElse(UNNAMED));
+		} catch (ExecutionException e) {
+			return UNNAMED;
+		}
+	}
+}
@@ -0,0 +1,201 @@
+package com.gl.platform.security.jwt;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+
+/**
+ * Cache of the authentications built from validated JWTs.
+ * <p>
+ * Entries are keyed by the SHA-256 of the token, so the token itself is never
+ * kept, and are only used until the token expires. A token is validated and
+ * parsed once, instead of on every request of a page load. Logging out revokes
+ * the token and a password change revokes every other token of the user, on
+ * every instance and until the tokens expire, through
+ * {@link JWTRevocationService}. A cached token is checked again against the
+ * cutoff of its user when the user revoked their tokens since it was last
+ * checked. Hits and misses are published as the
+ * {@code security.jwt.cache.hits} and {@code security.jwt.cache.misses} meters.
+ */
+@Component
+public class JWTAuthenticationCache {
+
+	private final Logger log = LoggerFactory.getLogger(JWTAuthenticationCache.class);
+
+	private static final long DEFAULT_VALIDITY_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private final Cache<String, CachedAuthentication> authentications = CacheBuilder.newBuilder().maximumSize(20000)
+			.expireAfterAccess(30, TimeUnit.MINUTES).build();
+
+	private final Meter hits;
+
+	private final Meter misses;
+
+	private final JWTRevocationService jwtRevocationService;
+
+	public JWTAuthenticationCache(JWTRevocationService jwtRevocationService, MetricRegistry metricRegistry) {
+		this.jwtRevocationService = jwtRevocationService;
+		this.hits = metricRegistry.meter("security.jwt.cache.hits");
+		this.misses = metricRegistry.meter("security.jwt.cache.misses");
+		metricRegistry.register("security.jwt.cache.size", (Gauge<Long>) authentications::size);
+	}
+
+	/**
+	 * Get the authentication of a token, validating it if it is not cached.
+	 *
+	 * @param jwt       the token
+	 * @param validator validates and parses the token, returning null if it is
+	 *                  invalid
+	 * @return the authentication, or null if the token is invalid or revoked
+	 */
+	public Authentication getAuthentication(String jwt, Supplier<Authentication> validator) {
+		String key = hash(jwt);
+		if (jwtRevocationService.isRevoked(key)) {
+			return null;
+		}
+		long now = System.currentTimeMillis();
+		CachedAuthentication cached = authentications.getIfPresent(key);
+		if (cached != null && cached.expiresAt > now) {
+			if (jwtRevocationService.hasCutoffAfter(cached.authentication.getName(), cached.checkedAt)) {
+				if (isRevokedByCutoff(jwt, key, cached.authentication.getName())) {
+					return null;
+				}
+				authentications.put(key, new CachedAuthentication(cached.authentication, cached.expiresAt, now));
+			}
+			hits.mark();
+			return cached.authentication;
+		}
+		misses.mark();
+		Authentication authentication = validator.get();
+		if (authentication != null && isRevokedByCutoff(jwt, key, authentication.getName())) {
+			return null;
+		}
+		if (authentication != null) {
+			authentications.put(key, new CachedAuthentication(authentication, expiresAt(jwt), now));
+		} else if (cached != null) {
+			authentications.invalidate(key);
+		}
+		return authentication;
+	}
+
+	/**
+	 * Check a token against the cutoff of its user, revoking it if it was issued
+	 * before the cutoff, so the next requests stop at {@code isRevoked}.
+	 */
+	private boolean isRevokedByCutoff(String jwt, String key, String login) {
+		if (!jwtRevocationService.isRevokedByCutoff(key, login, issuedAt(jwt))) {
+			return false;
+		}
+		authentications.invalidate(key);
+		jwtRevocationService.revoke(key, expiresAt(jwt));
+		return true;
+	}
+
+	/**
+	 * Record a token issued on login, so a password change can revoke it.
+	 *
+	 * @param jwt   the token
+	 * @param login the login the token was issued to
+	 */
+	public void issued(String jwt, String login) {
+		try {
+			jwtRevocationService.issued(hash(jwt), login, expiresAt(jwt));
+		} catch (RuntimeException e) {
+			log.warn("Failed to record the token issued to {}, it will survive a password change", login, e);
+		}
+	}
+
+	/**
+	 * Revoke a token on logout.
+	 *
+	 * @param jwt the token
+	 */
+	public void revoke(String jwt) {
+		String key = hash(jwt);
+		authentications.invalidate(key);
+		jwtRevocationService.revoke(key, expiresAt(jwt));
+	}
+
+	/**
+	 * Revoke the tokens of a user after a password change.
+	 *
+	 * @param login   the user login
+	 * @param current the token of the request changing the password, which
+	 *                stays valid, or null to revoke every token of the user
+	 */
+	public void revokeUser(String login, String current) {
+		String keep = current == null ? null : hash(current);
+		jwtRevocationService.revokeUser(login, keep);
+		authentications.asMap().entrySet().removeIf(
+				entry -> !entry.getKey().equals(keep) && login.equals(entry.getValue().authentication.getName()));
+		log.debug("Revoked the tokens of {}", login);
+	}
+
+	private String hash(String jwt) {
+		return Hashing.sha256().hashString(jwt, StandardCharsets.UTF_8).toString();
+	}
+
+	/**
+	 * Read the expiry of an already validated token, without verifying it again.
+	 */
+	private long expiresAt(String jwt) {
+		Long exp = claimMillis(jwt, "exp");
+		return exp != null ? exp : System.currentTimeMillis() + DEFAULT_VALIDITY_MILLIS;
+	}
+
+	/**
+	 * Read the issue time of an already validated token, or null if it has none.
+	 */
+	private Long issuedAt(String jwt) {
+		return claimMillis(jwt, "iat");
+	}
+
+	private Long claimMillis(String jwt, String name) {
+		String[] parts = jwt.split("\\.");
+		if (parts.length > 1) {
+			try {
+				JsonNode claim = objectMapper.readTree(Base64.getUrlDecoder().decode(parts[1])).get(name);
+				if (claim != null && claim.canConvertToLong()) {
+					return TimeUnit.SECONDS.toMillis(claim.asLong());
+				}
+			} catch (IOException | IllegalArgumentException e) {
+				log.debug("Unreadable JWT claims", e);
+			}
+		}
+		return null;
+	}
+
+	private static class CachedAuthentication {
+
+		private final Authentication authentication;
+
+		private final long expiresAt;
+
+		/** When the token was last checked against the cutoff of its user. */
+		private final long checkedAt;
+
+		CachedAuthentication(Authentication authentication, long expiresAt, long checkedAt) {
+			this.authentication = authentication;
+			this.expiresAt = expiresAt;
+			this.checkedAt = checkedAt;
+		}
+	}
+}
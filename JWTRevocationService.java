@@ -0,0 +1,277 @@
+package com.gl.platform.security.jwt;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.gl.platform.repository.NamedQuery;
+import com.gl.platform.repository.NamedQueryRegistry;
+
+import io.github.jhipster.config.JHipsterProperties;
+
+/**
+ * Service keeping the revoked JWTs, shared by every instance through
+ * {@code jwt_revoked_token}.
+ * <p>
+ * Tokens are only known by the SHA-256 of their text. Issued tokens are
+ * recorded with their login in {@code jwt_issued_token}, so a password change
+ * can revoke every token of the user that has not expired yet. Tokens that
+ * were never recorded, issued before the table existed or whose insert
+ * failed, are caught by a per-user cutoff in {@code jwt_user_cutoff}: any
+ * token of the user issued before the password change, other than the one it
+ * was made with, is refused. A revocation is kept until the token's own expiry,
+ * and a cutoff until the longest-lived token issued before it has expired,
+ * never evicted by size. Each instance holds them in memory and polls the
+ * tables every {@code application.jwt-revocation-poll-millis} ms for the ones
+ * made by the other instances; its own revocations apply at once, even when
+ * they cannot be written to the database.
+ */
+@Service
+public class JWTRevocationService {
+
+	private final Logger log = LoggerFactory.getLogger(JWTRevocationService.class);
+
+	/** Overlap with the previous poll, for revocations committed while it read. */
+	private static final long WATERMARK_OVERLAP_SECONDS = 60;
+
+	private static final class Cutoff {
+
+		private final long revokedBefore;
+
+		private final String keepTokenHash;
+
+		private final long expiresAt;
+
+		Cutoff(long revokedBefore, String keepTokenHash, long expiresAt) {
+			this.revokedBefore = revokedBefore;
+			this.keepTokenHash = keepTokenHash;
+			this.expiresAt = expiresAt;
+		}
+	}
+
+	private final NamedQuery issuedInsertQuery;
+
+	private final NamedQuery issuedSinceQuery;
+
+	private final NamedQuery revokeTokenQuery;
+
+	private final NamedQuery revokeUserQuery;
+
+	private final NamedQuery revokedSinceQuery;
+
+	private final NamedQuery purgeRevokedQuery;
+
+	private final NamedQuery purgeIssuedQuery;
+
+	private final NamedQuery cutoffUpsertQuery;
+
+	private final NamedQuery cutoffsSinceQuery;
+
+	private final NamedQuery purgeCutoffsQuery;
+
+	/** The longest a token lives, which is how long a cutoff has to be kept. */
+	private final long maxValidityMillis;
+
+	/** Revoked token hashes, with the expiry of the token in epoch millis. */
+	private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+	/** Per-user cutoffs, by login. */
+	private final Map<String, Cutoff> cutoffs = new ConcurrentHashMap<>();
+
+	private Instant watermark = Instant.EPOCH;
+
+	private Instant cutoffWatermark = Instant.EPOCH;
+
+	public JWTRevocationService(NamedQueryRegistry namedQueryRegistry, MetricRegistry metricRegistry,
+			JHipsterProperties jHipsterProperties) {
+		this.issuedInsertQuery = namedQueryRegistry.get("jwt-revocation", "jwt.issued.insert");
+		this.issuedSinceQuery = namedQueryRegistry.get("jwt-revocation", "jwt.issued.since");
+		this.revokeTokenQuery = namedQueryRegistry.get("jwt-revocation", "jwt.revoke.token");
+		this.revokeUserQuery = namedQueryRegistry.get("jwt-revocation", "jwt.revoke.user");
+		this.revokedSinceQuery = namedQueryRegistry.get("jwt-revocation", "jwt.revoked.since");
+		this.purgeRevokedQuery = namedQueryRegistry.get("jwt-revocation", "jwt.purge.revoked");
+		this.purgeIssuedQuery = namedQueryRegistry.get("jwt-revocation", "jwt.purge.issued");
+		this.cutoffUpsertQuery = namedQueryRegistry.get("jwt-revocation", "jwt.cutoff.upsert");
+		this.cutoffsSinceQuery = namedQueryRegistry.get("jwt-revocation", "jwt.cutoffs.since");
+		this.purgeCutoffsQuery = namedQueryRegistry.get("jwt-revocation", "jwt.purge.cutoffs");
+		JHipsterProperties.Security.Authentication.Jwt jwt = jHipsterProperties.getSecurity().getAuthentication()
+				.getJwt();
+		this.maxValidityMillis = TimeUnit.SECONDS
+				.toMillis(Math.max(jwt.getTokenValidityInSeconds(), jwt.getTokenValidityInSecondsForRememberMe()));
+		metricRegistry.register("security.jwt.revoked", (Gauge<Integer>) revoked::size);
+		metricRegistry.register("security.jwt.cutoffs", (Gauge<Integer>) cutoffs::size);
+	}
+
+	/**
+	 * @param tokenHash the SHA-256 of the token
+	 * @return true if the token was revoked
+	 */
+	public boolean isRevoked(String tokenHash) {
+		Long expiresAt = revoked.get(tokenHash);
+		return expiresAt != null && expiresAt > System.currentTimeMillis();
+	}
+
+	/**
+	 * Check a token against the cutoff of its user.
+	 *
+	 * @param tokenHash the SHA-256 of the token
+	 * @param login     the login of the token
+	 * @param issuedAt  the issue time of the token in epoch millis, or null if it
+	 *                  does not carry one
+	 * @return true if the user revoked their tokens after this one was issued
+	 */
+	public boolean isRevokedByCutoff(String tokenHash, String login, Long issuedAt) {
+		Cutoff cutoff = login == null ? null : cutoffs.get(login);
+		if (cutoff == null || cutoff.expiresAt <= System.currentTimeMillis()
+				|| tokenHash.equals(cutoff.keepTokenHash)) {
+			return false;
+		}
+		if (issuedAt != null) {
+			// iat has a precision of a second, a login right after the cutoff keeps its token
+			return issuedAt < cutoff.revokedBefore - cutoff.revokedBefore % 1000;
+		}
+		// without an issue time, only a token recorded after the cutoff is kept
+		try {
+			return issuedSinceQuery.queryForList(new MapSqlParameterSource("tokenHash", tokenHash).addValue("since",
+					new Timestamp(cutoff.revokedBefore))).isEmpty();
+		} catch (DataAccessException e) {
+			log.warn("Could not read the issued tokens of {}, refusing the token", login, e);
+			return true;
+		}
+	}
+
+	/**
+	 * Check whether a user revoked their tokens after a time.
+	 *
+	 * @param login the login
+	 * @param since the time in epoch millis
+	 * @return true if the user has a cutoff later than the time
+	 */
+	public boolean hasCutoffAfter(String login, long since) {
+		Cutoff cutoff = login == null ? null : cutoffs.get(login);
+		return cutoff != null && cutoff.revokedBefore > since;
+	}
+
+	/**
+	 * Record a newly issued token, so that it can be revoked with the other
+	 * tokens of its user.
+	 *
+	 * @param tokenHash the SHA-256 of the token
+	 * @param login     the login the token was issued to
+	 * @param expiresAt the expiry of the token, in epoch millis
+	 */
+	public void issued(String tokenHash, String login, long expiresAt) {
+		issuedInsertQuery.update(new MapSqlParameterSource("tokenHash", tokenHash).addValue("login", login)
+				.addValue("expiresAt", new Timestamp(expiresAt)));
+	}
+
+	/**
+	 * Revoke one token until it expires.
+	 *
+	 * @param tokenHash the SHA-256 of the token
+	 * @param expiresAt the expiry of the token, in epoch millis
+	 */
+	public void revoke(String tokenHash, long expiresAt) {
+		revoked.put(tokenHash, expiresAt);
+		try {
+			revokeTokenQuery.update(new MapSqlParameterSource("tokenHash", tokenHash).addValue("expiresAt",
+					new Timestamp(expiresAt)));
+		} catch (DataAccessException e) {
+			log.warn("Could not share a token revocation, it only applies to this instance", e);
+		}
+	}
+
+	/**
+	 * Revoke every unexpired token issued to a user, after a password change.
+	 *
+	 * @param login         the user login
+	 * @param keepTokenHash the SHA-256 of the token the change was made with,
+	 *                      which stays valid, or null to revoke them all
+	 */
+	public void revokeUser(String login, String keepTokenHash) {
+		long now = System.currentTimeMillis();
+		long expiresAt = now + maxValidityMillis;
+		cutoffs.put(login, new Cutoff(now, keepTokenHash, expiresAt));
+		try {
+			cutoffUpsertQuery.update(new MapSqlParameterSource("login", login)
+					.addValue("revokedBefore", new Timestamp(now)).addValue("keepTokenHash", keepTokenHash)
+					.addValue("expiresAt", new Timestamp(expiresAt)));
+			int count = revokeUserQuery.update(new MapSqlParameterSource("login", login).addValue("keepTokenHash",
+					keepTokenHash == null ? "" : keepTokenHash));
+			log.debug("Revoked {} tokens of {}", count, login);
+		} catch (DataAccessException e) {
+			log.warn("Could not share the token revocation of {}, it only applies to this instance", login, e);
+		}
+		poll();
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void init() {
+		poll();
+	}
+
+	@Scheduled(fixedDelayString = "${application.jwt-revocation-poll-millis:10000}")
+	public synchronized void poll() {
+		try {
+			Instant[] latest = { watermark };
+			revokedSinceQuery.query(
+					new MapSqlParameterSource("since",
+							Timestamp.from(watermark.minus(WATERMARK_OVERLAP_SECONDS, ChronoUnit.SECONDS))),
+					rs -> {
+						revoked.put(rs.getString("token_hash"), rs.getTimestamp("expires_at").getTime());
+						Instant revokedAt = rs.getTimestamp("revoked_at").toInstant();
+						if (revokedAt.isAfter(latest[0])) {
+							latest[0] = revokedAt;
+						}
+					});
+			watermark = latest[0];
+		} catch (RuntimeException e) {
+			log.error("Failed to read the revoked tokens, retrying on the next poll", e);
+		}
+		try {
+			Instant[] latest = { cutoffWatermark };
+			cutoffsSinceQuery.query(
+					new MapSqlParameterSource("since",
+							Timestamp.from(cutoffWatermark.minus(WATERMARK_OVERLAP_SECONDS, ChronoUnit.SECONDS))),
+					rs -> {
+						Instant revokedBefore = rs.getTimestamp("revoked_before").toInstant();
+						cutoffs.merge(rs.getString("login"),
+								new Cutoff(revokedBefore.toEpochMilli(), rs.getString("keep_token_hash"),
+										rs.getTimestamp("expires_at").getTime()),
+								(current, read) -> read.revokedBefore >= current.revokedBefore ? read : current);
+						if (revokedBefore.isAfter(latest[0])) {
+							latest[0] = revokedBefore;
+						}
+					});
+			cutoffWatermark = latest[0];
+		} catch (RuntimeException e) {
+			log.error("Failed to read the user token cutoffs, retrying on the next poll", e);
+		}
+	}
+
+	@Scheduled(cron = "0 45 * * * ?")
+	public void purge() {
+		long now = System.currentTimeMillis();
+		revoked.values().removeIf(expiresAt -> expiresAt <= now);
+		cutoffs.values().removeIf(cutoff -> cutoff.expiresAt <= now);
+		int revokedRows = purgeRevokedQuery.update(new MapSqlParameterSource());
+		int issuedRows = purgeIssuedQuery.update(new MapSqlParameterSource());
+		int cutoffRows = purgeCutoffsQuery.update(new MapSqlParameterSource());
+		log.debug("Purged {} revoked and {} issued expired tokens, {} expired cutoffs", revokedRows, issuedRows,
+				cutoffRows);
+	}
+}
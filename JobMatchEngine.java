@@ -0,0 +1,205 @@
+package com.gl.platform.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.gl.platform.config.ApplicationProperties;
+import com.gl.platform.repository.NamedQuery;
+import com.gl.platform.repository.NamedQueryRegistry;
+import com.gl.platform.service.dto.JobMatchScoreDTO;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * In-memory cache of the students' top job matches, read by
+ * {@code /matchedjobs/top/{userId}}.
+ * <p>
+ * The match scores themselves are still computed and stored by the existing
+ * paths: {@code saveNonGroupJobAndGetMatches} when a job is saved and
+ * {@link GlJobAplicantService#calcualteMatches} when a student asks for it. The
+ * other match listings keep reading them through their services. This class
+ * only keeps each student's best {@code application.job-match-top-k} open jobs
+ * in memory for {@link #CACHE_TTL_MINUTES} minutes, loaded with one indexed
+ * query per batch of students on a miss.
+ * <p>
+ * Job changes are queued and coalesced until the next drain; the scheduler
+ * checks for them every {@link #DRAIN_DELAY_MILLIS} ms and hands them to a
+ * dedicated thread, which reloads the cached students matched to those jobs.
+ * A student change only drops that student's entry.
+ */
+@Service
+public class JobMatchEngine {
+
+	private final Logger log = LoggerFactory.getLogger(JobMatchEngine.class);
+
+	private static final String QUERY_GROUP = "job-match";
+
+	private static final long DRAIN_DELAY_MILLIS = 2000;
+
+	private static final int BATCH_SIZE = 1000;
+
+	private static final long CACHE_TTL_MINUTES = 30;
+
+	private final NamedQuery topMatchesQuery;
+
+	private final NamedQuery usersByJobsQuery;
+
+	private final int topK;
+
+	private final Cache<Long, List<JobMatchScoreDTO>> topMatches;
+
+	private final Set<Long> changedJobs = ConcurrentHashMap.newKeySet();
+
+	private final ExecutorService executor = Executors
+			.newSingleThreadExecutor(new CustomizableThreadFactory("job-match-"));
+
+	private final AtomicBoolean draining = new AtomicBoolean();
+
+	private final Meter events;
+
+	private final Timer drainTimer;
+
+	public JobMatchEngine(NamedQueryRegistry namedQueryRegistry, ApplicationProperties applicationProperties,
+			MetricRegistry metricRegistry) {
+		this.topMatchesQuery = namedQueryRegistry.get(QUERY_GROUP, "match.top.by.users");
+		this.usersByJobsQuery = namedQueryRegistry.get(QUERY_GROUP, "match.users.by.jobs");
+		this.topK = Math.max(1, applicationProperties.getJobMatchTopK());
+		this.topMatches = CacheBuilder.newBuilder().maximumSize(applicationProperties.getJobMatchCacheSize())
+				.expireAfterWrite(CACHE_TTL_MINUTES, TimeUnit.MINUTES).build();
+		this.events = metricRegistry.meter("job.match.events");
+		this.drainTimer = metricRegistry.timer("job.match.drain");
+	}
+
+	/**
+	 * Report a job posted, updated, re-opened, closed or archived.
+	 *
+	 * @param jobId the job id
+	 */
+	public void jobChanged(Long jobId) {
+		if (jobId != null) {
+			changedJobs.add(jobId);
+			events.mark();
+		}
+	}
+
+	/**
+	 * Report a change to a student's profile or matches, so their top matches
+	 * are read again. Their match scores are not recomputed.
+	 *
+	 * @param userId the student's user id
+	 */
+	public void studentChanged(Long userId) {
+		if (userId != null) {
+			topMatches.invalidate(userId);
+		}
+	}
+
+	/**
+	 * Get a student's top job matches, best first.
+	 *
+	 * @param userId the student's user id
+	 * @return the top matches, shared and not to be modified
+	 */
+	public List<JobMatchScoreDTO> getTopMatches(Long userId) {
+		try {
+			return topMatches.get(userId, () -> load(Collections.singletonList(userId)).get(userId));
+		} catch (ExecutionException | UncheckedExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	@Scheduled(fixedDelay = DRAIN_DELAY_MILLIS)
+	public void drain() {
+		if (changedJobs.isEmpty() || !draining.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			executor.execute(() -> {
+				try {
+					apply(take(changedJobs));
+				} catch (RuntimeException e) {
+					log.error("Could not apply the job match events", e);
+				} finally {
+					draining.set(false);
+				}
+			});
+		} catch (RuntimeException e) {
+			draining.set(false);
+			throw e;
+		}
+	}
+
+	private void apply(Set<Long> jobs) {
+		Timer.Context context = drainTimer.time();
+		try {
+			// only students whose top matches are in memory need a refresh, the
+			// others are loaded when they are next read
+			Set<Long> affected = new HashSet<>();
+			for (List<Long> batch : Iterables.partition(jobs, BATCH_SIZE)) {
+				affected.addAll(usersByJobsQuery.query(new MapSqlParameterSource("jobIds", batch),
+						(rs, rowNum) -> rs.getLong(1)));
+			}
+			affected.retainAll(topMatches.asMap().keySet());
+			for (List<Long> batch : Iterables.partition(affected, BATCH_SIZE)) {
+				topMatches.putAll(load(batch));
+			}
+			log.debug("Applied {} job match events, refreshed {} students", jobs.size(), affected.size());
+		} finally {
+			context.stop();
+		}
+	}
+
+	private Map<Long, List<JobMatchScoreDTO>> load(Collection<Long> userIds) {
+		Map<Long, List<JobMatchScoreDTO>> matches = new HashMap<>();
+		for (Long userId : userIds) {
+			matches.put(userId, new ArrayList<>(0));
+		}
+		topMatchesQuery.query(new MapSqlParameterSource("userIds", userIds).addValue("topK", topK), rs -> {
+			matches.get(rs.getLong("user_id"))
+					.add(new JobMatchScoreDTO(rs.getLong("job_id"), rs.getDouble("score")));
+		});
+		matches.replaceAll((userId, list) -> Collections.unmodifiableList(list));
+		return matches;
+	}
+
+	@PreDestroy
+	public void destroy() {
+		executor.shutdown();
+	}
+
+	private static Set<Long> take(Set<Long> pending) {
+		Set<Long> taken = new HashSet<>();
+		for (Iterator<Long> it = pending.iterator(); it.hasNext();) {
+			taken.add(it.next());
+			it.remove();
+		}
+		return taken;
+	}
+}
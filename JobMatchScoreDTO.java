@@ -0,0 +1,44 @@
+package com.gl.platform.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * A DTO for one entry of a student's top job matches.
+ */
+public class JobMatchScoreDTO implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private Long jobId;
+
+	private Double score;
+
+	public JobMatchScoreDTO() {
+	}
+
+	public JobMatchScoreDTO(Long jobId, Double score) {
+		this.jobId = jobId;
+		this.score = score;
+	}
+
+	public Long getJobId() {
+		return jobId;
+	}
+
+	public void setJobId(Long jobId) {
+		this.jobId = jobId;
+	}
+
+	public Double getScore() {
+		return score;
+	}
+
+	public void setScore(Double score) {
+		this.score = score;
+	}
+
+	@Override
+	public String toString() {
+		return "JobMatchScoreDTO{" + "jobId=" + getJobId() + ", score=" + getScore() + "}";
+	}
+}
@@ -0,0 +1,54 @@
+package com.gl.platform.service.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * A page of results fetched with keyset pagination.
+ * <p>
+ * {@code nextCursor} is an opaque token to pass back as the {@code cursor}
+ * request parameter to fetch the following page; it is null on the last page.
+ */
+public class KeysetPage<T> implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private List<T> content;
+
+	private String nextCursor;
+
+	private int size;
+
+	public KeysetPage() {
+	}
+
+	public KeysetPage(List<T> content, String nextCursor, int size) {
+		this.content = content;
+		this.nextCursor = nextCursor;
+		this.size = size;
+	}
+
+	public List<T> getContent() {
+		return content;
+	}
+
+	public void setContent(List<T> content) {
+		this.content = content;
+	}
+
+	public String getNextCursor() {
+		return nextCursor;
+	}
+
+	public void setNextCursor(String nextCursor) {
+		this.nextCursor = nextCursor;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public void setSize(int size) {
+		this.size = size;
+	}
+}
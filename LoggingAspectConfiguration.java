@@ -7,6 +7,8 @@ import org.springframework.context.annotation.Profile;
 import org.springframework.core.env.Environment;
 
 import com.gl.platform.aop.logging.LoggingAspect;
+import com.gl.platform.aop.logging.MethodProfiler;
+import com.gl.platform.aop.logging.ProfilingAspect;
 
 import io.github.jhipster.config.JHipsterConstants;
 
@@ -19,4 +21,17 @@ public class LoggingAspectConfiguration {
 	public LoggingAspect loggingAspect(Environment env) {
 		return new LoggingAspect(env);
 	}
+
+	@Bean
+	public MethodProfiler methodProfiler(ApplicationProperties applicationProperties) {
+		return new MethodProfiler(applicationProperties.getProfilerSampleRate());
+	}
+
+	/**
+	 * The profiler runs in every profile so it can sample production requests.
+	 */
+	@Bean
+	public ProfilingAspect profilingAspect(MethodProfiler methodProfiler) {
+		return new ProfilingAspect(methodProfiler);
+	}
 }
@@ -13,7 +13,9 @@ import javax.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -29,10 +31,12 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.codahale.metrics.annotation.Timed;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.gl.platform.repository.AwardRepository;
 import com.gl.platform.service.AuthorizationService;
 import com.gl.platform.service.MarketPlaceSearchQueryService;
 import com.gl.platform.service.MarketPlaceSearchService;
+import com.gl.platform.service.MarketplaceCandidateIndexService;
+import com.gl.platform.service.ReferenceDataService;
+import com.gl.platform.service.ReferenceDataService.Dataset;
 import com.gl.platform.service.dto.EmailCampaignRequestDTO;
 import com.gl.platform.service.dto.MarketPlaceQualifiedCandidateDTO;
 import com.gl.platform.service.dto.MarketPlaceQualifiedCandidatesDTO;
@@ -41,6 +45,7 @@ import com.gl.platform.service.dto.MarketPlaceSearchDTO;
 import com.gl.platform.service.util.GlConstraints;
 import com.gl.platform.web.rest.errors.BadRequestAlertException;
 import com.gl.platform.web.rest.util.HeaderUtil;
+import com.gl.platform.web.rest.util.PaginationUtil;
 
 import io.github.jhipster.service.filter.StringFilter;
 import io.github.jhipster.web.util.ResponseUtil;
@@ -61,10 +66,13 @@ public class MarketPlaceSearchResource {
 	private final MarketPlaceSearchQueryService marketPlaceSearchQueryService;
 
 	@Autowired
-	private AwardRepository awardRepository;
+	private AuthorizationService authorizationService;
 
 	@Autowired
-	private AuthorizationService authorizationService;
+	private MarketplaceCandidateIndexService marketplaceCandidateIndexService;
+
+	@Autowired
+	private ReferenceDataService referenceDataService;
 
 	public MarketPlaceSearchResource(MarketPlaceSearchService marketPlaceSearchService,
 			MarketPlaceSearchQueryService marketPlaceSearchQueryService) {
@@ -76,7 +84,7 @@ public class MarketPlaceSearchResource {
 	@Timed
 	public ResponseEntity<?> getCertificates() {
 		log.debug("Rest Request to get the certifications list ");
-		return ResponseEntity.ok().body(marketPlaceSearchService.getCertificates());
+		return referenceDataService.respond(Dataset.CERTIFICATIONS);
 	}
 
 	@GetMapping("/apcourses")
@@ -84,7 +92,7 @@ public class MarketPlaceSearchResource {
 	public ResponseEntity<?> getAdvancesPlacementCourses() {
 		log.debug("Rest Request list of advanced placement courses");
 
-		return ResponseEntity.ok().body(marketPlaceSearchService.getAdvancePlacementCourses());
+		return referenceDataService.respond(Dataset.AP_COURSES);
 
 	}
 
@@ -93,7 +101,7 @@ public class MarketPlaceSearchResource {
 	public ResponseEntity<?> getGraduateMajors() {
 		log.debug("Rest Request to get list of graduate majors");
 
-		return ResponseEntity.ok().body(marketPlaceSearchService.getGraduateMajors());
+		return referenceDataService.respond(Dataset.GRADUATE_MAJORS);
 
 	}
 
@@ -102,7 +110,7 @@ public class MarketPlaceSearchResource {
 	public ResponseEntity<?> getUnderGraduateMajors() {
 		log.debug("Rest Request to get list of under graduate majors");
 
-		return ResponseEntity.ok().body(marketPlaceSearchService.getUnderGraduateMajors());
+		return referenceDataService.respond(Dataset.UNDERGRADUATE_MAJORS);
 
 	}
 
@@ -111,7 +119,7 @@ public class MarketPlaceSearchResource {
 	public ResponseEntity<?> getFosNames() {
 		log.debug("Rest Request to get list of field of study");
 
-		return ResponseEntity.ok().body(awardRepository.getAllFosNames());
+		return referenceDataService.respond(Dataset.FIELDS_OF_STUDY);
 
 	}
 
@@ -172,6 +180,7 @@ public class MarketPlaceSearchResource {
 		Optional<MarketPlaceSearchDTO> result = marketPlaceSearchService.save(marketplaceSearchDTO);
 
 		if (result.isPresent()) {
+			marketplaceCandidateIndexService.evictSearch(marketplaceSearchDTO.getId());
 			return ResponseEntity.ok()
 					.headers(HeaderUtil.createEntityUpdateAlert(ENTITY_NAME, result.get().getId().toString()))
 					.body(result.get());
@@ -206,6 +215,32 @@ public class MarketPlaceSearchResource {
 
 	}
 
+	/**
+	 * GET /marketplacesearches/:id/qualifiedcandidates/ids : get a page of the ids
+	 * of the students matching a marketplace search, from the candidate index.
+	 *
+	 * @param id       the id of the marketplace search
+	 * @param optIn    whether only students who consented are returned
+	 * @param pageable the pagination information
+	 * @return the ResponseEntity with status 200 (OK) and the list of student ids
+	 *         in body, or with status 503 (Service Unavailable) while the index is
+	 *         being built
+	 */
+	@GetMapping("/marketplacesearches/{id}/qualifiedcandidates/ids")
+	@Timed
+	public ResponseEntity<List<Long>> getQualifiedCandidateIds(@PathVariable Long id, @RequestParam boolean optIn,
+			Pageable pageable) {
+		log.debug("REST request to get MarketPlace Qualified Candidate ids by criteria: {}", id);
+
+		Optional<Page<Long>> page = marketplaceCandidateIndexService.findQualifiedCandidateIds(id, optIn, pageable);
+		if (!page.isPresent()) {
+			return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+		}
+		HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page.get(),
+				"/api/marketplacesearches/" + id + "/qualifiedcandidates/ids");
+		return new ResponseEntity<>(page.get().getContent(), headers, HttpStatus.OK);
+	}
+
 	@GetMapping("/marketplacesearches/{instId}/exported")
 	@Timed
 	public ResponseEntity<Collection<MarketPlaceQualifiedCandidateDTO>> getDownloadedCandidates(
@@ -252,6 +287,7 @@ public class MarketPlaceSearchResource {
 	public ResponseEntity<MarketPlaceSearchDTO> deleteMarketPlaceSearch(@PathVariable Long id) {
 		log.debug("REST request to delete MarketPlaceSearch : {}", id);
 		marketPlaceSearchService.deleteById(id);
+		marketplaceCandidateIndexService.evictSearch(id);
 		return ResponseEntity.ok().headers(HeaderUtil.createEntityDeletionAlert(ENTITY_NAME, id.toString())).build();
 	}
 
@@ -24,6 +24,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.codahale.metrics.annotation.Timed;
+import com.gl.platform.aop.routing.ReadReplica;
 import com.gl.platform.repository.AwardRepository;
 import com.gl.platform.repository.FourYearDegreeAwardRepository;
 import com.gl.platform.service.AuthorizationService;
@@ -101,6 +102,7 @@ public class MarketingResource {
 	}
 
 	@GetMapping("/marketing/analytics/report")
+	@ReadReplica
 	@Timed
 	public ResponseEntity<?> getAnalyticsReport(@RequestParam(value = "institutionId", required = false) String institutionId,
 			@RequestParam(value = "startDate", required = false) String startDate,
@@ -117,6 +119,7 @@ public class MarketingResource {
 	}
 
 	@GetMapping("/marketing/analytics/dashboard")
+	@ReadReplica
 	@Timed
 	public ResponseEntity<?> getAnalyticsReport() {
 		log.debug("REST request to get marketing dashboard report");
@@ -126,6 +129,7 @@ public class MarketingResource {
 	}
 
 	@PostMapping("/marketing/analytics/users")
+	@ReadReplica
 	@Timed
 	public ResponseEntity<?> getUserAnalyticsReport(@RequestBody MarketingUserAnalyticsDTO dto) {
 		log.debug("REST request to get marketing users report");
@@ -135,6 +139,7 @@ public class MarketingResource {
 	}
 
 	@GetMapping("/marketing/global/analytics/users")
+	@ReadReplica
 	@Timed
 	public ResponseEntity<?> getUserGlobalAnalyticsReport(@RequestParam(value = "fromDate", required = false) String startDate,
 			@RequestParam(value = "toDate", required = false) String endDate) {
@@ -147,6 +152,7 @@ public class MarketingResource {
 	}
 	
 	@GetMapping("/marketing/counselors/analytics")
+	@ReadReplica
 	@Timed
 	public ResponseEntity<?> getCouncellorsAnalyticsReport() {
 		log.debug("REST request to get marketing councellors report(api/marketing/councellors/analytics)");
@@ -156,6 +162,7 @@ public class MarketingResource {
 	}
 
 	@PostMapping("/marketing/user/login/activity")
+	@ReadReplica
 	@Timed
 	public ResponseEntity<?> getUserLoginActivityReport(@RequestBody MarketingUserAnalyticsDTO dto) {
 		log.debug("REST request to get  user login activity report");
@@ -165,6 +172,7 @@ public class MarketingResource {
 	}
 
 	@GetMapping("/marketing/institution/student/activity")
+	@ReadReplica
 	@Timed
 	public ResponseEntity<?> studentActivityByInstitution() {
 		log.debug("REST request to get  user login activity report");
@@ -0,0 +1,187 @@
+package com.gl.platform.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index of marketplace candidates.
+ * <p>
+ * Students are numbered densely in the order they are first added, and each
+ * attribute value has a posting list, a bitmap of the numbers of the students
+ * having it. Dense numbering keeps every bitmap as small as the number of
+ * students whatever the range of their ids. A match is the AND, over the
+ * attributes of the criteria, of the OR of the postings of their values,
+ * further ANDed with the opt-in bitmap when consent is required. Results are
+ * in student number order, so paging through a match is stable.
+ */
+public class MarketplaceCandidateIndex {
+
+	public enum Attribute {
+		CERTIFICATION, AP_COURSE, MAJOR, FIELD_OF_STUDY
+	}
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private final Map<Long, Integer> numbers = new HashMap<>();
+
+	private long[] studentIds = new long[1024];
+
+	private final Map<Attribute, Map<String, BitSet>> postings = new EnumMap<>(Attribute.class);
+
+	private final BitSet candidates = new BitSet();
+
+	private final BitSet optedIn = new BitSet();
+
+	public MarketplaceCandidateIndex() {
+		for (Attribute attribute : Attribute.values()) {
+			postings.put(attribute, new HashMap<>());
+		}
+	}
+
+	/**
+	 * Add a student, or replace everything indexed for them.
+	 *
+	 * @param studentId  the student id
+	 * @param attributes the attribute values of the student, normalized
+	 * @param optIn      whether the student consented to the marketplace
+	 */
+	public void put(long studentId, Map<Attribute, Set<String>> attributes, boolean optIn) {
+		lock.writeLock().lock();
+		try {
+			int number = number(studentId);
+			// a new or removed student has nothing to clear, which keeps a full build
+			// linear
+			if (candidates.get(number)) {
+				clear(number);
+			}
+			candidates.set(number);
+			optedIn.set(number, optIn);
+			attributes.forEach((attribute, values) -> values.forEach(
+					value -> postings.get(attribute).computeIfAbsent(value, key -> new BitSet()).set(number)));
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Remove a student, who then no longer matches any criteria.
+	 *
+	 * @param studentId the student id
+	 */
+	public void remove(long studentId) {
+		lock.writeLock().lock();
+		try {
+			Integer number = numbers.get(studentId);
+			if (number != null) {
+				clear(number);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Match criteria against the index.
+	 *
+	 * @param criteria the accepted values of each attribute, normalized; an
+	 *                 attribute without values does not restrict the match
+	 * @param optIn    whether only students who consented match
+	 * @return the numbers of the matching students
+	 */
+	public BitSet match(Map<Attribute, ? extends Collection<String>> criteria, boolean optIn) {
+		lock.readLock().lock();
+		try {
+			BitSet result = (BitSet) candidates.clone();
+			if (optIn) {
+				result.and(optedIn);
+			}
+			for (Map.Entry<Attribute, ? extends Collection<String>> criterion : criteria.entrySet()) {
+				if (criterion.getValue().isEmpty()) {
+					continue;
+				}
+				BitSet any = new BitSet();
+				Map<String, BitSet> values = postings.get(criterion.getKey());
+				for (String value : criterion.getValue()) {
+					BitSet posting = values.get(value);
+					if (posting != null) {
+						any.or(posting);
+					}
+				}
+				result.and(any);
+			}
+			return result;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Get a page of the students of a match.
+	 *
+	 * @param match  a result of {@link #match}
+	 * @param offset the index of the first student of the page
+	 * @param limit  the page size
+	 * @return the student ids of the page, in match order
+	 */
+	public List<Long> page(BitSet match, long offset, int limit) {
+		if (offset >= match.cardinality()) {
+			return Collections.emptyList();
+		}
+		List<Long> page = new ArrayList<>(limit);
+		lock.readLock().lock();
+		try {
+			int number = match.nextSetBit(0);
+			for (long skipped = 0; number >= 0 && skipped < offset; skipped++) {
+				number = match.nextSetBit(number + 1);
+			}
+			while (number >= 0 && page.size() < limit) {
+				page.add(studentIds[number]);
+				number = match.nextSetBit(number + 1);
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		return page;
+	}
+
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return candidates.cardinality();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private int number(long studentId) {
+		Integer number = numbers.get(studentId);
+		if (number == null) {
+			number = numbers.size();
+			if (number == studentIds.length) {
+				studentIds = Arrays.copyOf(studentIds, number * 2);
+			}
+			studentIds[number] = studentId;
+			numbers.put(studentId, number);
+		}
+		return number;
+	}
+
+	private void clear(int number) {
+		candidates.clear(number);
+		optedIn.clear(number);
+		postings.values().forEach(values -> values.values().removeIf(posting -> {
+			posting.clear(number);
+			return posting.isEmpty();
+		}));
+	}
+}
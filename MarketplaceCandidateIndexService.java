@@ -0,0 +1,272 @@
+package com.gl.platform.service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.gl.platform.repository.NamedQuery;
+import com.gl.platform.repository.NamedQueryRegistry;
+import com.gl.platform.security.SecurityUtils;
+import com.gl.platform.service.MarketplaceCandidateIndex.Attribute;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Iterables;
+
+/**
+ * Service matching marketplace searches against a
+ * {@link MarketplaceCandidateIndex} of the students' certifications, AP
+ * courses, majors, fields of study and marketplace consent.
+ * <p>
+ * The index is built once the application is ready and rebuilt every night.
+ * In between, every minute the students changed since the last refresh, or
+ * reported through {@link #markChanged}, are reloaded in batches. The result of
+ * a search is kept for {@link #MATCH_TTL_MINUTES} minutes together with the
+ * index it was computed on, so paging through it is stable and every page
+ * after the first is a slice of a bitmap.
+ * <p>
+ * The index only serves {@code /marketplacesearches/{id}/qualifiedcandidates/ids};
+ * the qualified candidates listing stays on the SQL search of
+ * {@code MarketPlaceSearchService}.
+ */
+@Service
+public class MarketplaceCandidateIndexService {
+
+	private final Logger log = LoggerFactory.getLogger(MarketplaceCandidateIndexService.class);
+
+	private static final String QUERY_GROUP = "marketplace-index";
+
+	private static final int REFRESH_BATCH_SIZE = 1000;
+
+	private static final long MATCH_TTL_MINUTES = 5;
+
+	private static final List<Long> NO_STUDENTS = Collections.singletonList(-1L);
+
+	private final NamedQuery studentsQuery;
+
+	private final NamedQuery postingsQuery;
+
+	private final NamedQuery changedQuery;
+
+	private final NamedQuery criteriaQuery;
+
+	private final Timer matchTimer;
+
+	private final Set<Long> changed = ConcurrentHashMap.newKeySet();
+
+	private final Cache<String, Match> matches = CacheBuilder.newBuilder().maximumSize(1000)
+			.expireAfterWrite(MATCH_TTL_MINUTES, TimeUnit.MINUTES).build();
+
+	private volatile MarketplaceCandidateIndex index;
+
+	private volatile Instant refreshedAt;
+
+	public MarketplaceCandidateIndexService(NamedQueryRegistry namedQueryRegistry, MetricRegistry metricRegistry) {
+		this.studentsQuery = namedQueryRegistry.get(QUERY_GROUP, "candidate.students");
+		this.postingsQuery = namedQueryRegistry.get(QUERY_GROUP, "candidate.postings");
+		this.changedQuery = namedQueryRegistry.get(QUERY_GROUP, "candidate.changed.since");
+		this.criteriaQuery = namedQueryRegistry.get(QUERY_GROUP, "search.criteria");
+		this.matchTimer = metricRegistry.timer("marketplace.index.match");
+		metricRegistry.register("marketplace.index.candidates", (Gauge<Integer>) () -> {
+			MarketplaceCandidateIndex current = index;
+			return current == null ? 0 : current.size();
+		});
+	}
+
+	@Async
+	@EventListener(ApplicationReadyEvent.class)
+	public void onApplicationReady() {
+		rebuild();
+	}
+
+	/**
+	 * Build a new index from scratch and swap it in.
+	 */
+	@Scheduled(cron = "0 30 2 * * ?")
+	public void rebuild() {
+		Instant start = Instant.now();
+		MarketplaceCandidateIndex rebuilt = new MarketplaceCandidateIndex();
+		load(rebuilt, true, NO_STUDENTS);
+		index = rebuilt;
+		refreshedAt = start;
+		log.info("Built the marketplace candidate index of {} students in {} ms", rebuilt.size(),
+				Instant.now().toEpochMilli() - start.toEpochMilli());
+	}
+
+	/**
+	 * Reload the students changed since the last refresh.
+	 */
+	@Scheduled(fixedDelay = 60000)
+	public void refreshChanged() {
+		MarketplaceCandidateIndex current = index;
+		if (current == null) {
+			return;
+		}
+		Instant start = Instant.now();
+		Set<Long> students = new HashSet<>(changedQuery.query(
+				new MapSqlParameterSource("since", Timestamp.from(refreshedAt)), (rs, rowNum) -> rs.getLong(1)));
+		for (Iterator<Long> it = changed.iterator(); it.hasNext();) {
+			students.add(it.next());
+			it.remove();
+		}
+		for (List<Long> batch : Iterables.partition(students, REFRESH_BATCH_SIZE)) {
+			load(current, false, batch);
+		}
+		refreshedAt = start;
+		if (!students.isEmpty()) {
+			log.debug("Refreshed {} students of the marketplace candidate index", students.size());
+		}
+	}
+
+	/**
+	 * Report a change to a student's profile or credentials, picked up by the
+	 * next refresh.
+	 *
+	 * @param studentId the student id
+	 */
+	public void markChanged(Long studentId) {
+		if (studentId != null) {
+			changed.add(studentId);
+		}
+	}
+
+	/**
+	 * Report a change made by the current user to their own credentials, for
+	 * the write paths that only know the id of the changed row. Deleted rows
+	 * leave no trace for the refresh query to find.
+	 */
+	public void markCurrentUserChanged() {
+		SecurityUtils.getCurrentUser().ifPresent(user -> markChanged(user.getUserId()));
+	}
+
+	/**
+	 * Forget the result of a search whose criteria changed.
+	 *
+	 * @param searchId the marketplace search id
+	 */
+	public void evictSearch(Long searchId) {
+		matches.invalidate(searchId + ":" + true);
+		matches.invalidate(searchId + ":" + false);
+	}
+
+	/**
+	 * Get a page of the students matching a marketplace search.
+	 *
+	 * @param searchId the marketplace search id
+	 * @param optIn    whether only students who consented match
+	 * @param pageable the page
+	 * @return the page of student ids, or empty while the index is being built
+	 */
+	public Optional<Page<Long>> findQualifiedCandidateIds(Long searchId, boolean optIn, Pageable pageable) {
+		MarketplaceCandidateIndex current = index;
+		if (current == null) {
+			return Optional.empty();
+		}
+		Match match;
+		try {
+			match = matches.get(searchId + ":" + optIn, () -> {
+				Timer.Context context = matchTimer.time();
+				try {
+					return new Match(current, current.match(criteria(searchId), optIn));
+				} finally {
+					context.stop();
+				}
+			});
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+		List<Long> ids = match.index.page(match.students, pageable.getOffset(), pageable.getPageSize());
+		return Optional.of(new PageImpl<>(ids, pageable, match.students.cardinality()));
+	}
+
+	private Map<Attribute, List<String>> criteria(Long searchId) {
+		Map<Attribute, List<String>> criteria = new EnumMap<>(Attribute.class);
+		criteriaQuery.query(new MapSqlParameterSource("searchId", searchId), rs -> {
+			Attribute attribute = Attribute.valueOf(rs.getString("attribute"));
+			criteria.computeIfAbsent(attribute, key -> new ArrayList<>()).add(rs.getString("value"));
+		});
+		return criteria;
+	}
+
+	/**
+	 * Load students into an index: all of them when building it, or the given
+	 * ones, who are removed if they are no longer students.
+	 */
+	private void load(MarketplaceCandidateIndex target, boolean allStudents, Collection<Long> studentIds) {
+		MapSqlParameterSource params = new MapSqlParameterSource("allStudents", allStudents).addValue("studentIds",
+				studentIds);
+		Map<Long, Boolean> students = new LinkedHashMap<>();
+		studentsQuery.query(params, rs -> {
+			students.put(rs.getLong("student_id"), rs.getBoolean("opt_in"));
+		});
+		Set<Long> found = new HashSet<>(students.keySet());
+
+		Map<Attribute, Set<String>> attributes = new EnumMap<>(Attribute.class);
+		long[] current = { -1 };
+		postingsQuery.query(params, rs -> {
+			long studentId = rs.getLong("student_id");
+			if (studentId != current[0]) {
+				flush(target, students, current[0], attributes);
+				current[0] = studentId;
+			}
+			attributes.computeIfAbsent(Attribute.valueOf(rs.getString("attribute")), key -> new HashSet<>())
+					.add(rs.getString("value").intern());
+		});
+		flush(target, students, current[0], attributes);
+
+		// students without any attribute still match criteria-less searches
+		students.forEach((studentId, optIn) -> target.put(studentId, Collections.emptyMap(), optIn));
+		if (!allStudents) {
+			studentIds.stream().filter(studentId -> !found.contains(studentId)).forEach(target::remove);
+		}
+	}
+
+	private void flush(MarketplaceCandidateIndex target, Map<Long, Boolean> students, long studentId,
+			Map<Attribute, Set<String>> attributes) {
+		Boolean optIn = students.remove(studentId);
+		if (optIn != null) {
+			target.put(studentId, attributes, optIn);
+		}
+		attributes.clear();
+	}
+
+	private static class Match {
+
+		private final MarketplaceCandidateIndex index;
+
+		private final BitSet students;
+
+		Match(MarketplaceCandidateIndex index, BitSet students) {
+			this.index = index;
+			this.students = students;
+		}
+	}
+}
@@ -0,0 +1,217 @@
+package com.gl.platform.aop.logging;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Sampling profiler of the calls seen by {@link ProfilingAspect}.
+ * <p>
+ * A fraction of the REST requests, {@code application.profiler-sample-rate},
+ * is sampled when its controller method is entered. For a sampled request
+ * every service and repository call is pushed on a per-thread call stack, and
+ * on exit its total and self time are added to the statistics of its call path
+ * (controller &gt; service &gt; repository ...) and of its method. Unsampled
+ * requests only cost a thread local lookup per call.
+ */
+public class MethodProfiler {
+
+	private static final int MAX_PATHS = 10000;
+
+	private static final String PATH_SEPARATOR = " > ";
+
+	private final double sampleRate;
+
+	private final ThreadLocal<Deque<Frame>> stacks = new ThreadLocal<>();
+
+	private final Map<String, Stats> paths = new ConcurrentHashMap<>();
+
+	private final Map<String, Stats> methods = new ConcurrentHashMap<>();
+
+	public MethodProfiler(double sampleRate) {
+		this.sampleRate = sampleRate;
+	}
+
+	public boolean isEnabled() {
+		return sampleRate > 0;
+	}
+
+	public double getSampleRate() {
+		return sampleRate;
+	}
+
+	/**
+	 * Decide whether to sample the request entering the current thread.
+	 *
+	 * @return true if a sample was started, in which case {@link #endSample()}
+	 *         must be called when the request leaves
+	 */
+	public boolean startSample() {
+		if (!isEnabled() || stacks.get() != null || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+			return false;
+		}
+		stacks.set(new ArrayDeque<>());
+		return true;
+	}
+
+	public boolean isSampling() {
+		return stacks.get() != null;
+	}
+
+	public void endSample() {
+		stacks.remove();
+	}
+
+	/**
+	 * Enter a method of the sampled request.
+	 *
+	 * @param method the method, as Type.method
+	 */
+	public void enter(String method) {
+		Deque<Frame> stack = stacks.get();
+		Frame parent = stack.peek();
+		stack.push(new Frame(method, parent == null ? method : parent.path + PATH_SEPARATOR + method));
+	}
+
+	/**
+	 * Leave the method last entered.
+	 */
+	public void exit() {
+		Deque<Frame> stack = stacks.get();
+		Frame frame = stack.pop();
+		long elapsed = System.nanoTime() - frame.startNanos;
+		Frame parent = stack.peek();
+		if (parent != null) {
+			parent.childNanos += elapsed;
+		}
+		record(paths, frame.path, elapsed, elapsed - frame.childNanos);
+		record(methods, frame.method, elapsed, elapsed - frame.childNanos);
+	}
+
+	/**
+	 * @param limit the number of paths to return
+	 * @return the call paths with the highest total time
+	 */
+	public List<ProfiledCall> getTopPaths(int limit) {
+		return top(paths, Comparator.comparingDouble(ProfiledCall::getTotalMs), limit);
+	}
+
+	/**
+	 * @param limit the number of methods to return
+	 * @return the methods with the highest self time
+	 */
+	public List<ProfiledCall> getTopMethods(int limit) {
+		return top(methods, Comparator.comparingDouble(ProfiledCall::getSelfMs), limit);
+	}
+
+	public void reset() {
+		paths.clear();
+		methods.clear();
+	}
+
+	private List<ProfiledCall> top(Map<String, Stats> stats, Comparator<ProfiledCall> order, int limit) {
+		return stats.entrySet().stream().map(entry -> new ProfiledCall(entry.getKey(), entry.getValue()))
+				.sorted(order.reversed()).limit(limit).collect(Collectors.toList());
+	}
+
+	private void record(Map<String, Stats> stats, String key, long totalNanos, long selfNanos) {
+		Stats entry = stats.get(key);
+		if (entry == null) {
+			if (stats.size() >= MAX_PATHS) {
+				return;
+			}
+			entry = stats.computeIfAbsent(key, k -> new Stats());
+		}
+		entry.count.increment();
+		entry.totalNanos.add(totalNanos);
+		entry.selfNanos.add(selfNanos);
+		entry.maxNanos.accumulate(totalNanos);
+	}
+
+	private static class Frame {
+
+		private final String method;
+
+		private final String path;
+
+		private final long startNanos = System.nanoTime();
+
+		private long childNanos;
+
+		Frame(String method, String path) {
+			this.method = method;
+			this.path = path;
+		}
+	}
+
+	private static class Stats {
+
+		private final LongAdder count = new LongAdder();
+
+		private final LongAdder totalNanos = new LongAdder();
+
+		private final LongAdder selfNanos = new LongAdder();
+
+		private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+	}
+
+	/**
+	 * The aggregated timings of a call path or method.
+	 */
+	public static class ProfiledCall {
+
+		private final String name;
+
+		private final long count;
+
+		private final double totalMs;
+
+		private final double selfMs;
+
+		private final double maxMs;
+
+		ProfiledCall(String name, Stats stats) {
+			this.name = name;
+			this.count = stats.count.sum();
+			this.totalMs = toMillis(stats.totalNanos.sum());
+			this.selfMs = toMillis(stats.selfNanos.sum());
+			this.maxMs = toMillis(stats.maxNanos.get());
+		}
+
+		private static double toMillis(long nanos) {
+			return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+		public double getTotalMs() {
+			return totalMs;
+		}
+
+		public double getSelfMs() {
+			return selfMs;
+		}
+
+		public double getMaxMs() {
+			return maxMs;
+		}
+
+		public double getAverageMs() {
+			return count == 0 ? 0 : totalMs / count;
+		}
+	}
+}
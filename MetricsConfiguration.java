@@ -1,6 +1,8 @@
 package com.gl.platform.config;
 
 import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import javax.annotation.PostConstruct;
@@ -48,15 +50,15 @@ public class MetricsConfiguration extends MetricsConfigurerAdapter {
 
 	private final JHipsterProperties jHipsterProperties;
 
-	private HikariDataSource hikariDataSource;
+	private List<HikariDataSource> hikariDataSources = Collections.emptyList();
 
 	public MetricsConfiguration(JHipsterProperties jHipsterProperties) {
 		this.jHipsterProperties = jHipsterProperties;
 	}
 
 	@Autowired(required = false)
-	public void setHikariDataSource(HikariDataSource hikariDataSource) {
-		this.hikariDataSource = hikariDataSource;
+	public void setHikariDataSources(List<HikariDataSource> hikariDataSources) {
+		this.hikariDataSources = hikariDataSources;
 	}
 
 	@Override
@@ -81,8 +83,8 @@ public class MetricsConfiguration extends MetricsConfigurerAdapter {
 		metricRegistry.register(PROP_METRIC_REG_JVM_BUFFERS,
 				new BufferPoolMetricSet(ManagementFactory.getPlatformMBeanServer()));
 		metricRegistry.register(PROP_METRIC_REG_JVM_ATTRIBUTE_SET, new JvmAttributeGaugeSet());
-		if (hikariDataSource != null) {
-			log.debug("Monitoring the datasource");
+		for (HikariDataSource hikariDataSource : hikariDataSources) {
+			log.debug("Monitoring the datasource {}", hikariDataSource.getPoolName());
 			// remove the factory created by HikariDataSourceMetricsPostProcessor until
 			// JHipster migrate to Micrometer
 			hikariDataSource.setMetricsTrackerFactory(null);
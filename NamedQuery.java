@@ -0,0 +1,166 @@
+package com.gl.platform.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ColumnMapRowMapper;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.PreparedStatementCreatorFactory;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.SqlParameter;
+import org.springframework.jdbc.core.namedparam.NamedParameterUtils;
+import org.springframework.jdbc.core.namedparam.ParsedSql;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+import com.gl.platform.aop.timing.RequestTimings;
+import com.gl.platform.aop.timing.RequestTimings.Category;
+
+/**
+ * A named SQL query, parsed once when it is registered.
+ * <p>
+ * Every execution is timed in the {@code sql.<group>.<key>} timer, its row
+ * count recorded in the {@code sql.<group>.<key>.rows} histogram and its
+ * failures in the {@code sql.<group>.<key>.errors} meter. Executions slower
+ * than the slow query threshold are logged with their row count.
+ */
+public class NamedQuery {
+
+	private static final Logger log = LoggerFactory.getLogger(NamedQuery.class);
+
+	private final String name;
+
+	private final String sql;
+
+	private final ParsedSql parsedSql;
+
+	private final JdbcOperations jdbcOperations;
+
+	private final Timer timer;
+
+	private final Histogram rows;
+
+	private final Meter errors;
+
+	private final long slowQueryNanos;
+
+	NamedQuery(String name, String sql, JdbcOperations jdbcOperations, Timer timer, Histogram rows, Meter errors,
+			long slowQueryMillis) {
+		this.name = name;
+		this.sql = sql;
+		this.parsedSql = NamedParameterUtils.parseSqlStatement(sql);
+		this.jdbcOperations = jdbcOperations;
+		this.timer = timer;
+		this.rows = rows;
+		this.errors = errors;
+		this.slowQueryNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryMillis);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public String getSql() {
+		return sql;
+	}
+
+	public ParsedSql getParsedSql() {
+		return parsedSql;
+	}
+
+	public List<Map<String, Object>> queryForList(SqlParameterSource params) {
+		return execute(() -> jdbcOperations.query(statement(params), new ColumnMapRowMapper()), List::size);
+	}
+
+	public <T> List<T> query(SqlParameterSource params, RowMapper<T> rowMapper) {
+		return execute(() -> jdbcOperations.query(statement(params), rowMapper), List::size);
+	}
+
+	public void query(SqlParameterSource params, RowCallbackHandler handler) {
+		int[] count = new int[1];
+		execute(() -> {
+			jdbcOperations.query(statement(params), (RowCallbackHandler) rs -> {
+				count[0]++;
+				handler.processRow(rs);
+			});
+			return count;
+		}, result -> result[0]);
+	}
+
+	public int update(SqlParameterSource params) {
+		return execute(() -> jdbcOperations.update(statement(params)), Integer::intValue);
+	}
+
+	/**
+	 * Run the statement once per parameter source in a single JDBC batch. The
+	 * statement must not expand collection parameters, so that every source
+	 * yields the same SQL.
+	 */
+	public int[] batchUpdate(List<? extends SqlParameterSource> batch) {
+		if (batch.isEmpty()) {
+			return new int[0];
+		}
+		String sqlToUse = NamedParameterUtils.substituteNamedParameters(parsedSql, batch.get(0));
+		return execute(() -> jdbcOperations.batchUpdate(sqlToUse, new BatchPreparedStatementSetter() {
+
+			@Override
+			public void setValues(PreparedStatement ps, int i) throws SQLException {
+				SqlParameterSource params = batch.get(i);
+				List<SqlParameter> declaredParameters = NamedParameterUtils.buildSqlParameterList(parsedSql, params);
+				Object[] values = NamedParameterUtils.buildValueArray(parsedSql, params, null);
+				new PreparedStatementCreatorFactory(sqlToUse, declaredParameters).newPreparedStatementSetter(values)
+						.setValues(ps);
+			}
+
+			@Override
+			public int getBatchSize() {
+				return batch.size();
+			}
+		}), counts -> counts.length);
+	}
+
+	private PreparedStatementCreator statement(SqlParameterSource params) {
+		String sqlToUse = NamedParameterUtils.substituteNamedParameters(parsedSql, params);
+		List<SqlParameter> declaredParameters = NamedParameterUtils.buildSqlParameterList(parsedSql, params);
+		Object[] values = NamedParameterUtils.buildValueArray(parsedSql, params, null);
+		return new PreparedStatementCreatorFactory(sqlToUse, declaredParameters).newPreparedStatementCreator(values);
+	}
+
+	private <T> T execute(Supplier<T> call, ToIntFunction<T> rowCount) {
+		long start = System.nanoTime();
+		T result;
+		try {
+			result = call.get();
+		} catch (RuntimeException e) {
+			timer.update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+			errors.mark();
+			throw e;
+		}
+		long elapsed = System.nanoTime() - start;
+		timer.update(elapsed, TimeUnit.NANOSECONDS);
+		RequestTimings.record(Category.DB, elapsed);
+		int count = rowCount.applyAsInt(result);
+		rows.update(count);
+		if (elapsed >= slowQueryNanos) {
+			log.warn("Slow query {} took {} ms for {} rows", name, TimeUnit.NANOSECONDS.toMillis(elapsed), count);
+		}
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return "NamedQuery{" + "name='" + name + "'" + "}";
+	}
+}
@@ -0,0 +1,148 @@
+package com.gl.platform.repository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.namedparam.NamedParameterUtils;
+
+import com.codahale.metrics.MetricRegistry;
+
+/**
+ * Registry of the named SQL queries of the {@code sql/*.sql.xml} files.
+ * <p>
+ * Queries are grouped by file, the group being the file name without its
+ * {@code .sql.xml} suffix. Every query is checked and parsed when its file is
+ * loaded, so a missing file, an empty query or a malformed parameter fails the
+ * application start instead of the first request, and looking up an unknown
+ * query throws instead of running {@code null}.
+ */
+public class NamedQueryRegistry {
+
+	private final Logger log = LoggerFactory.getLogger(NamedQueryRegistry.class);
+
+	private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+	/** A run of placeholders, as produced by expanding a list parameter. */
+	private static final Pattern PLACEHOLDERS = Pattern.compile("\\?(\\s*,\\s*\\?)+");
+
+	private final JdbcOperations jdbcOperations;
+
+	private final MetricRegistry metricRegistry;
+
+	private final long slowQueryMillis;
+
+	private final Map<String, Map<String, NamedQuery>> groups = new ConcurrentHashMap<>();
+
+	/** Query names by normalized JDBC SQL, see {@link #findName}. */
+	private final Map<String, String> namesBySql = new ConcurrentHashMap<>();
+
+	public NamedQueryRegistry(JdbcOperations jdbcOperations, MetricRegistry metricRegistry, long slowQueryMillis) {
+		this.jdbcOperations = jdbcOperations;
+		this.metricRegistry = metricRegistry;
+		this.slowQueryMillis = slowQueryMillis;
+	}
+
+	/**
+	 * Load and parse the queries of a file.
+	 *
+	 * @param group    the group name of the queries
+	 * @param resource the queries file, in the Properties XML format
+	 * @throws IOException           if the file cannot be read
+	 * @throws IllegalStateException if the file is missing or a query is invalid
+	 */
+	public void load(String group, Resource resource) throws IOException {
+		if (!resource.exists()) {
+			throw new IllegalStateException("Missing queries file " + resource.getDescription());
+		}
+		Properties properties = new Properties();
+		try (InputStream in = resource.getInputStream()) {
+			properties.loadFromXML(in);
+		}
+
+		Map<String, NamedQuery> queries = new ConcurrentHashMap<>();
+		for (String key : properties.stringPropertyNames()) {
+			String sql = properties.getProperty(key).trim();
+			String name = MetricRegistry.name("sql", group, key);
+			if (sql.isEmpty()) {
+				throw new IllegalStateException("Empty query " + name);
+			}
+			try {
+				NamedQuery query = new NamedQuery(name, sql, jdbcOperations, metricRegistry.timer(name),
+						metricRegistry.histogram(MetricRegistry.name(name, "rows")),
+						metricRegistry.meter(MetricRegistry.name(name, "errors")), slowQueryMillis);
+				queries.put(key, query);
+				namesBySql.putIfAbsent(
+						normalize(NamedParameterUtils.substituteNamedParameters(query.getParsedSql(), null)), name);
+			} catch (InvalidDataAccessApiUsageException e) {
+				throw new IllegalStateException("Invalid query " + name + " : " + e.getMessage(), e);
+			}
+		}
+		groups.put(group, queries);
+		log.debug("Loaded {} queries of group {}", queries.size(), group);
+	}
+
+	/**
+	 * Get a query.
+	 *
+	 * @param group the group name
+	 * @param key   the query key within the group
+	 * @return the query
+	 * @throws IllegalArgumentException if there is no such query
+	 */
+	public NamedQuery get(String group, String key) {
+		NamedQuery query = groups.getOrDefault(group, Collections.emptyMap()).get(key);
+		if (query == null) {
+			throw new IllegalArgumentException("Unknown query " + key + " in group " + group);
+		}
+		return query;
+	}
+
+	/**
+	 * Find the metric name of the query a JDBC statement was built from.
+	 * Whitespace and the number of placeholders of list parameters are ignored,
+	 * so the SQL of a registry query run through the named JDBC template is
+	 * found whatever the size of its lists.
+	 *
+	 * @param sql the SQL sent to the driver
+	 * @return the {@code sql.<group>.<key>} name, if the SQL is a registry query
+	 */
+	public Optional<String> findName(String sql) {
+		return Optional.ofNullable(namesBySql.get(normalize(sql)));
+	}
+
+	private static String normalize(String sql) {
+		return PLACEHOLDERS.matcher(WHITESPACE.matcher(sql.trim()).replaceAll(" ")).replaceAll("?");
+	}
+
+	/**
+	 * Get the SQL of a group as Properties, for the services still looking it up
+	 * by key.
+	 *
+	 * @param group the group name
+	 * @return a copy of the group's SQL by key
+	 */
+	public Properties getProperties(String group) {
+		Map<String, NamedQuery> queries = groups.get(group);
+		if (queries == null) {
+			throw new IllegalArgumentException("Unknown query group " + group);
+		}
+		Properties properties = new Properties();
+		queries.forEach((key, query) -> properties.setProperty(key, query.getSql()));
+		return properties;
+	}
+
+	public int size() {
+		return groups.values().stream().mapToInt(Map::size).sum();
+	}
+}
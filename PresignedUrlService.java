@@ -0,0 +1,165 @@
+package com.gl.platform.service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.gl.platform.config.ApplicationProperties;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Service caching presigned S3 URLs by object key and validity.
+ * <p>
+ * A URL signed by {@link S3StorageService} stays valid for
+ * {@code application.presigned-url-valid-length} milliseconds. Entries are
+ * keyed by the validity they were signed for, so a changed validity never
+ * serves a URL signed for the old one, and are served for half of it, so a URL
+ * handed out from the cache is always valid for at least half of its original
+ * lifetime. The S3 write and delete paths {@link #evict} the keys they touch.
+ */
+@Service
+public class PresignedUrlService {
+
+	private final Logger log = LoggerFactory.getLogger(PresignedUrlService.class);
+
+	private static final long DEFAULT_VALID_LENGTH = TimeUnit.MINUTES.toMillis(15);
+
+	private static final long MAXIMUM_SIZE = 50000;
+
+	private static final class UrlKey {
+
+		private final String key;
+
+		private final long validLength;
+
+		UrlKey(String key, long validLength) {
+			this.key = key;
+			this.validLength = validLength;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof UrlKey)) {
+				return false;
+			}
+			UrlKey other = (UrlKey) o;
+			return validLength == other.validLength && key.equals(other.key);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(key, validLength);
+		}
+	}
+
+	private static final class SignedUrl {
+
+		private final String url;
+
+		private final long expiresAt;
+
+		SignedUrl(String url, long expiresAt) {
+			this.url = url;
+			this.expiresAt = expiresAt;
+		}
+	}
+
+	private final S3StorageService s3StorageService;
+
+	private final ApplicationProperties applicationProperties;
+
+	private final Cache<UrlKey, SignedUrl> urls;
+
+	public PresignedUrlService(S3StorageService s3StorageService, ApplicationProperties applicationProperties) {
+		this.s3StorageService = s3StorageService;
+		this.applicationProperties = applicationProperties;
+		long validLength = validLength();
+		log.debug("Caching presigned urls for {} ms", validLength / 2);
+		this.urls = CacheBuilder.newBuilder().maximumSize(MAXIMUM_SIZE)
+				.expireAfterWrite(validLength / 2, TimeUnit.MILLISECONDS).build();
+	}
+
+	/**
+	 * Get a presigned URL for a key, signing it only if no valid one is cached.
+	 *
+	 * @param key the S3 object key
+	 * @return the presigned URL
+	 */
+	public String getPresignedUrl(String key) {
+		long validLength = validLength();
+		long now = System.currentTimeMillis();
+		UrlKey urlKey = new UrlKey(key, validLength);
+		SignedUrl cached = urls.getIfPresent(urlKey);
+		if (cached != null && now < cached.expiresAt) {
+			return cached.url;
+		}
+		String url = s3StorageService.generatePresignedUrl(key);
+		if (url != null) {
+			urls.put(urlKey, new SignedUrl(url, now + validLength / 2));
+		}
+		return url;
+	}
+
+	/**
+	 * Get presigned URLs for a batch of keys in one cache pass. Only the keys
+	 * missing from the cache are signed.
+	 *
+	 * @param keys the S3 object keys
+	 * @return the presigned URLs keyed by object key
+	 */
+	public Map<String, String> getPresignedUrls(Collection<String> keys) {
+		long validLength = validLength();
+		long now = System.currentTimeMillis();
+		Set<String> distinctKeys = new LinkedHashSet<>(keys);
+		Map<String, String> result = new HashMap<>();
+		for (String key : distinctKeys) {
+			UrlKey urlKey = new UrlKey(key, validLength);
+			SignedUrl cached = urls.getIfPresent(urlKey);
+			if (cached != null && now < cached.expiresAt) {
+				result.put(key, cached.url);
+				continue;
+			}
+			String url = s3StorageService.generatePresignedUrl(key);
+			if (url != null) {
+				urls.put(urlKey, new SignedUrl(url, now + validLength / 2));
+				result.put(key, url);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Drop the cached URLs for a key, whatever validity they were signed for,
+	 * after the object is replaced or deleted.
+	 *
+	 * @param key the S3 object key
+	 */
+	public void evict(String key) {
+		urls.asMap().keySet().removeIf(urlKey -> urlKey.key.equals(key));
+	}
+
+	private long validLength() {
+		return parseValidLength(applicationProperties.getPresignedUrlValidLength());
+	}
+
+	private long parseValidLength(String validLength) {
+		try {
+			return validLength != null ? Long.parseLong(validLength.trim()) : DEFAULT_VALID_LENGTH;
+		} catch (NumberFormatException e) {
+			log.warn("Invalid presigned url valid length : {}, using default", validLength);
+			return DEFAULT_VALID_LENGTH;
+		}
+	}
+}
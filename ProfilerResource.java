@@ -0,0 +1,46 @@
+package com.gl.platform.web.rest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.codahale.metrics.annotation.Timed;
+import com.gl.platform.aop.logging.MethodProfiler;
+
+/**
+ * Controller for viewing the hottest call paths of the sampled requests.
+ */
+@RestController
+@RequestMapping("/management")
+public class ProfilerResource {
+
+	private final MethodProfiler methodProfiler;
+
+	public ProfilerResource(MethodProfiler methodProfiler) {
+		this.methodProfiler = methodProfiler;
+	}
+
+	@GetMapping("/profiler")
+	@Timed
+	public Map<String, Object> getHotPaths(@RequestParam(value = "top", defaultValue = "20") int top) {
+		Map<String, Object> profile = new LinkedHashMap<>();
+		profile.put("sampleRate", methodProfiler.getSampleRate());
+		profile.put("paths", methodProfiler.getTopPaths(top));
+		profile.put("methods", methodProfiler.getTopMethods(top));
+		return profile;
+	}
+
+	@DeleteMapping("/profiler")
+	@ResponseStatus(HttpStatus.NO_CONTENT)
+	@Timed
+	public void reset() {
+		methodProfiler.reset();
+	}
+}
@@ -0,0 +1,74 @@
+package com.gl.platform.aop.logging;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Aspect profiling a sample of the REST requests with {@link MethodProfiler}.
+ * <p>
+ * It runs in every profile and never logs: the calls of a sampled request are
+ * only timed, their arguments and exceptions are left to
+ * {@link LoggingAspect}.
+ */
+@Aspect
+public class ProfilingAspect {
+
+	private final MethodProfiler methodProfiler;
+
+	public ProfilingAspect(MethodProfiler methodProfiler) {
+		this.methodProfiler = methodProfiler;
+	}
+
+	/**
+	 * Pointcut that matches all repositories, services and Web REST endpoints.
+	 */
+	@Pointcut("within(@org.springframework.stereotype.Repository *)"
+			+ " || within(@org.springframework.stereotype.Service *)"
+			+ " || within(@org.springframework.web.bind.annotation.RestController *)")
+	public void springBeanPointcut() {
+		// Method is empty as this is just a Pointcut, the implementations are in the
+		// advices.
+	}
+
+	/**
+	 * Pointcut that matches all Spring beans in the application's main packages.
+	 */
+	@Pointcut("within(com.gl.platform.repository..*)" + " || within(com.gl.platform.service..*)"
+			+ " || within(com.gl.platform.web.rest..*)")
+	public void applicationPackagePointcut() {
+		// Method is empty as this is just a Pointcut, the implementations are in the
+		// advices.
+	}
+
+	/**
+	 * Advice that times the calls of a sampled request.
+	 *
+	 * @param joinPoint join point for advice
+	 * @return result
+	 * @throws Throwable whatever the method throws
+	 */
+	@Around("applicationPackagePointcut() && springBeanPointcut()")
+	public Object profile(ProceedingJoinPoint joinPoint) throws Throwable {
+		if (!methodProfiler.isEnabled()) {
+			return joinPoint.proceed();
+		}
+		Class<?> type = joinPoint.getSignature().getDeclaringType();
+		// requests are only sampled when they enter a controller
+		boolean sampleStarted = type.isAnnotationPresent(RestController.class) && methodProfiler.startSample();
+		if (!sampleStarted && !methodProfiler.isSampling()) {
+			return joinPoint.proceed();
+		}
+		methodProfiler.enter(type.getSimpleName() + "." + joinPoint.getSignature().getName());
+		try {
+			return joinPoint.proceed();
+		} finally {
+			methodProfiler.exit();
+			if (sampleStarted) {
+				methodProfiler.endSample();
+			}
+		}
+	}
+}
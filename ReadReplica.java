@@ -0,0 +1,22 @@
+package com.gl.platform.aop.routing;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks reporting and analytics methods, or whole classes, whose queries can
+ * run on the read replica.
+ * <p>
+ * Statements outside a transaction, or in a read-only one, are sent to the
+ * replica while such a method runs; writing transactions still go to the
+ * primary, and so does every statement outside such a method, read-only or
+ * not. When no replica is configured this annotation has no effect.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.TYPE, ElementType.METHOD })
+public @interface ReadReplica {
+}
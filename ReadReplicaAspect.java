@@ -0,0 +1,71 @@
+package com.gl.platform.aop.routing;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+
+/**
+ * Aspect marking the execution of {@link ReadReplica} methods, so their
+ * queries are routed to the read replica.
+ * <p>
+ * Authorization checks made while such a method runs are taken out of it, so
+ * ownership is always decided on the primary's current data.
+ */
+@Aspect
+public class ReadReplicaAspect {
+
+	/**
+	 * Pointcut that matches methods annotated, or declared in a class annotated,
+	 * with {@link ReadReplica}.
+	 */
+	@Pointcut("@within(com.gl.platform.aop.routing.ReadReplica)"
+			+ " || @annotation(com.gl.platform.aop.routing.ReadReplica)")
+	public void readReplicaPointcut() {
+		// Method is empty as this is just a Pointcut, the implementations are in the
+		// advices.
+	}
+
+	/**
+	 * Pointcut that matches the checks of the authorization service.
+	 */
+	@Pointcut("execution(public * com.gl.platform.service.AuthorizationService.*(..))")
+	public void authorizationPointcut() {
+		// Method is empty as this is just a Pointcut, the implementations are in the
+		// advices.
+	}
+
+	/**
+	 * Advice that routes the queries of the method to the read replica.
+	 *
+	 * @param joinPoint join point for advice
+	 * @return result
+	 * @throws Throwable throws the exception of the method
+	 */
+	@Around("readReplicaPointcut()")
+	public Object routeToReplica(ProceedingJoinPoint joinPoint) throws Throwable {
+		boolean previous = ReadReplicaContext.enter();
+		try {
+			return joinPoint.proceed();
+		} finally {
+			ReadReplicaContext.exit(previous);
+		}
+	}
+
+	/**
+	 * Advice that keeps the queries of an authorization check on the primary.
+	 *
+	 * @param joinPoint join point for advice
+	 * @return result
+	 * @throws Throwable throws the exception of the method
+	 */
+	@Around("authorizationPointcut()")
+	public Object routeToPrimary(ProceedingJoinPoint joinPoint) throws Throwable {
+		boolean previous = ReadReplicaContext.suspend();
+		try {
+			return joinPoint.proceed();
+		} finally {
+			ReadReplicaContext.exit(previous);
+		}
+	}
+}
@@ -0,0 +1,52 @@
+package com.gl.platform.aop.routing;
+
+/**
+ * Holds whether the current thread runs a {@link ReadReplica} method.
+ */
+public final class ReadReplicaContext {
+
+	private static final ThreadLocal<Boolean> ACTIVE = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+	private ReadReplicaContext() {
+	}
+
+	/**
+	 * Enter a reporting method.
+	 *
+	 * @return the previous state, to restore with {@link #exit}
+	 */
+	public static boolean enter() {
+		boolean previous = ACTIVE.get();
+		ACTIVE.set(Boolean.TRUE);
+		return previous;
+	}
+
+	/**
+	 * Enter a method whose queries must see the primary, inside a reporting
+	 * method.
+	 *
+	 * @return the previous state, to restore with {@link #exit}
+	 */
+	public static boolean suspend() {
+		boolean previous = ACTIVE.get();
+		ACTIVE.remove();
+		return previous;
+	}
+
+	/**
+	 * Leave a reporting method.
+	 *
+	 * @param previous the state returned by {@link #enter}
+	 */
+	public static void exit(boolean previous) {
+		if (previous) {
+			ACTIVE.set(Boolean.TRUE);
+		} else {
+			ACTIVE.remove();
+		}
+	}
+
+	public static boolean isActive() {
+		return ACTIVE.get();
+	}
+}
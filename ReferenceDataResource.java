@@ -0,0 +1,47 @@
+package com.gl.platform.web.rest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.annotation.Secured;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.codahale.metrics.annotation.Timed;
+import com.gl.platform.security.AuthoritiesConstants;
+import com.gl.platform.service.ReferenceDataService;
+import com.gl.platform.service.ReferenceDataService.Dataset;
+
+/**
+ * REST controller for managing the reference data snapshots.
+ */
+@RestController
+@RequestMapping("/api")
+public class ReferenceDataResource {
+
+	private final Logger log = LoggerFactory.getLogger(ReferenceDataResource.class);
+
+	private final ReferenceDataService referenceDataService;
+
+	public ReferenceDataResource(ReferenceDataService referenceDataService) {
+		this.referenceDataService = referenceDataService;
+	}
+
+	/**
+	 * POST /reference-data/:dataset/refresh : reload a reference data set after
+	 * it was changed outside the application.
+	 *
+	 * @param dataset the data set, for example COUNTRIES
+	 * @return the ResponseEntity with status 200 (OK)
+	 */
+	@PostMapping("/reference-data/{dataset}/refresh")
+	@Timed
+	@Secured(AuthoritiesConstants.ADMIN)
+	public ResponseEntity<Void> refreshReferenceData(@PathVariable Dataset dataset) {
+		log.debug("REST request to refresh reference data : {}", dataset);
+		referenceDataService.refresh(dataset);
+		return ResponseEntity.ok().build();
+	}
+}
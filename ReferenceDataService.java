@@ -0,0 +1,220 @@
+package com.gl.platform.service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gl.platform.repository.AwardRepository;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Service serving the reference data behind the form drop-downs from memory.
+ * <p>
+ * Each {@link Dataset} is loaded once into an immutable {@link Snapshot}
+ * holding the data and an ETag computed from its JSON form. Responses carry the
+ * ETag, so a request whose {@code If-None-Match} matches is answered with 304
+ * Not Modified by Spring without writing a body. Admin writes call
+ * {@link #refresh}, which loads a new snapshot and swaps it in atomically;
+ * readers see either the old or the new snapshot, never a partial one. Every
+ * snapshot is also reloaded hourly so writes made on another instance, or
+ * directly in the database, are picked up. Snapshots of keyed data sets are
+ * kept for at most {@link #MAX_KEYED_SNAPSHOTS} parent ids, so requests for
+ * arbitrary ids cannot grow the map without bound.
+ */
+@Service
+public class ReferenceDataService {
+
+	private final Logger log = LoggerFactory.getLogger(ReferenceDataService.class);
+
+	private static final int MAX_KEYED_SNAPSHOTS = 500;
+
+	/**
+	 * The reference data sets; those keyed by a parent id, such as the counties
+	 * of a state, are loaded on first use.
+	 */
+	public enum Dataset {
+		COUNTRIES, STATES, STATE_COUNTIES(true), CERTIFICATIONS, AP_COURSES, GRADUATE_MAJORS, UNDERGRADUATE_MAJORS,
+		FIELDS_OF_STUDY, SCHOLARSHIP_MAJORS, SCHOLARSHIP_PROVIDERS, FOUR_YEAR_MAJORS;
+
+		private final boolean keyed;
+
+		Dataset() {
+			this(false);
+		}
+
+		Dataset(boolean keyed) {
+			this.keyed = keyed;
+		}
+	}
+
+	/**
+	 * An immutable version of a reference data set.
+	 */
+	public static final class Snapshot {
+
+		private final Object data;
+
+		private final String etag;
+
+		Snapshot(Object data, String etag) {
+			this.data = data;
+			this.etag = etag;
+		}
+
+		public Object getData() {
+			return data;
+		}
+
+		public String getEtag() {
+			return etag;
+		}
+	}
+
+	private final Map<Dataset, Function<Long, Object>> loaders = new EnumMap<>(Dataset.class);
+
+	private final ConcurrentMap<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+	private final Cache<String, Snapshot> keyedSnapshots = CacheBuilder.newBuilder()
+			.maximumSize(MAX_KEYED_SNAPSHOTS).build();
+
+	private final ObjectMapper objectMapper;
+
+	public ReferenceDataService(ObjectMapper objectMapper, CountryService countryService, StateService stateService,
+			MarketPlaceSearchService marketPlaceSearchService, AwardRepository awardRepository,
+			NSAPIService nsapiService, FourYearTranscriptService fourYearTranscriptService) {
+		this.objectMapper = objectMapper;
+		loaders.put(Dataset.COUNTRIES, key -> countryService.getCountries());
+		loaders.put(Dataset.STATES, key -> stateService.listOfStates());
+		loaders.put(Dataset.STATE_COUNTIES, stateService::findStateCountiesByStateId);
+		loaders.put(Dataset.CERTIFICATIONS, key -> marketPlaceSearchService.getCertificates());
+		loaders.put(Dataset.AP_COURSES, key -> marketPlaceSearchService.getAdvancePlacementCourses());
+		loaders.put(Dataset.GRADUATE_MAJORS, key -> marketPlaceSearchService.getGraduateMajors());
+		loaders.put(Dataset.UNDERGRADUATE_MAJORS, key -> marketPlaceSearchService.getUnderGraduateMajors());
+		loaders.put(Dataset.FIELDS_OF_STUDY, key -> awardRepository.getAllFosNames());
+		loaders.put(Dataset.SCHOLARSHIP_MAJORS, key -> nsapiService.getMajorsList());
+		loaders.put(Dataset.SCHOLARSHIP_PROVIDERS, key -> nsapiService.getScholarshipProviderDetails());
+		loaders.put(Dataset.FOUR_YEAR_MAJORS, key -> fourYearTranscriptService.getAllMajors());
+	}
+
+	@Async
+	@EventListener(ApplicationReadyEvent.class)
+	public void onApplicationReady() {
+		for (Dataset dataset : Dataset.values()) {
+			if (!dataset.keyed) {
+				try {
+					snapshot(dataset, null);
+				} catch (RuntimeException e) {
+					log.error("Could not load reference data {}, loading it on first use", dataset, e);
+				}
+			}
+		}
+		log.info("Loaded {} reference data snapshots", snapshots.size());
+	}
+
+	/**
+	 * Get a reference data set as a 200 response with its ETag, which Spring
+	 * turns into a 304 when the client already has it.
+	 *
+	 * @param dataset the data set
+	 * @return the response entity
+	 */
+	public <T> ResponseEntity<T> respond(Dataset dataset) {
+		return respond(dataset, null);
+	}
+
+	/**
+	 * Get a keyed reference data set as a 200 response with its ETag.
+	 *
+	 * @param dataset the data set
+	 * @param key     the parent id, or null for a data set that is not keyed
+	 * @return the response entity
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> ResponseEntity<T> respond(Dataset dataset, Long key) {
+		Snapshot snapshot = snapshot(dataset, key);
+		// no-cache rather than the default no-store, so the browser keeps the body
+		// and revalidates it with If-None-Match
+		return ResponseEntity.ok().eTag(snapshot.getEtag()).cacheControl(CacheControl.noCache())
+				.body((T) snapshot.getData());
+	}
+
+	/**
+	 * Get the current snapshot of a reference data set, loading it if needed.
+	 *
+	 * @param dataset the data set
+	 * @param key     the parent id, or null for a data set that is not keyed
+	 * @return the snapshot
+	 */
+	public Snapshot snapshot(Dataset dataset, Long key) {
+		if (!dataset.keyed) {
+			return snapshots.computeIfAbsent(dataset.name(), name -> load(dataset, null));
+		}
+		try {
+			return keyedSnapshots.get(name(dataset, key), () -> load(dataset, key));
+		} catch (ExecutionException | UncheckedExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	/**
+	 * Reload a reference data set after it was written and swap the new snapshot
+	 * in.
+	 *
+	 * @param dataset the data set
+	 */
+	public void refresh(Dataset dataset) {
+		if (dataset.keyed) {
+			// keyed snapshots are reloaded on their next use
+			keyedSnapshots.asMap().keySet().removeIf(name -> name.startsWith(dataset.name() + ":"));
+		} else {
+			snapshots.put(dataset.name(), load(dataset, null));
+		}
+		log.debug("Refreshed reference data {}", dataset);
+	}
+
+	@Scheduled(fixedDelay = 3600000, initialDelay = 3600000)
+	public void refreshAll() {
+		for (Dataset dataset : Dataset.values()) {
+			try {
+				refresh(dataset);
+			} catch (RuntimeException e) {
+				log.error("Could not refresh reference data {}, keeping the current snapshot", dataset, e);
+			}
+		}
+	}
+
+	private Snapshot load(Dataset dataset, Long key) {
+		Object data = loaders.get(dataset).apply(key);
+		try {
+			byte[] json = objectMapper.writeValueAsBytes(data);
+			return new Snapshot(data, "\"" + Hashing.sha256().hashBytes(json) + "\"");
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Could not serialize reference data " + dataset, e);
+		}
+	}
+
+	private static String name(Dataset dataset, Long key) {
+		return dataset.keyed ? dataset.name() + ":" + key : dataset.name();
+	}
+}
@@ -0,0 +1,85 @@
+package com.gl.platform.config;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.codahale.metrics.MetricRegistry;
+import com.gl.platform.aop.routing.ReadReplicaAspect;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Configures a second connection pool on the read replica, used once
+ * {@code application.replica-datasource-url} is set.
+ * <p>
+ * The primary pool is still configured by the {@code spring.datasource}
+ * properties. The replica pool takes the same {@code spring.datasource.hikari}
+ * settings, then its own url, credentials and pool size. The application
+ * DataSource routes each connection to one of the two pools, see
+ * {@link ReplicaRoutingDataSource}.
+ */
+@Configuration
+@EnableAspectJAutoProxy
+@ConditionalOnProperty(prefix = "application", name = "replica-datasource-url")
+public class ReplicaDataSourceConfiguration {
+
+	private final Logger log = LoggerFactory.getLogger(ReplicaDataSourceConfiguration.class);
+
+	@Bean
+	@ConfigurationProperties(prefix = "spring.datasource.hikari")
+	public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+		HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		dataSource.setPoolName("HikariPool-primary");
+		return dataSource;
+	}
+
+	@Bean
+	public HikariDataSource replicaDataSource(DataSourceProperties properties,
+			ApplicationProperties applicationProperties, Environment env) {
+		log.debug("Configuring the read replica datasource");
+		HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class)
+				.url(applicationProperties.getReplicaDatasourceUrl()).build();
+		Binder.get(env).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+		dataSource.setJdbcUrl(applicationProperties.getReplicaDatasourceUrl());
+		if (applicationProperties.getReplicaDatasourceUsername() != null) {
+			dataSource.setUsername(applicationProperties.getReplicaDatasourceUsername());
+			dataSource.setPassword(applicationProperties.getReplicaDatasourcePassword());
+		}
+		dataSource.setPoolName("HikariPool-replica");
+		dataSource.setMaximumPoolSize(applicationProperties.getReplicaPoolSize());
+		dataSource.setReadOnly(true);
+		return dataSource;
+	}
+
+	@Bean
+	public ReplicaRoutingDataSource replicaRoutingDataSource(@Qualifier("primaryDataSource") DataSource primary,
+			@Qualifier("replicaDataSource") DataSource replica, ApplicationProperties applicationProperties,
+			MetricRegistry metricRegistry) {
+		return new ReplicaRoutingDataSource(primary, replica, applicationProperties.getReplicaMaxLagSeconds(),
+				metricRegistry);
+	}
+
+	@Bean
+	@Primary
+	public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+		return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+	}
+
+	@Bean
+	public ReadReplicaAspect readReplicaAspect() {
+		return new ReadReplicaAspect();
+	}
+}
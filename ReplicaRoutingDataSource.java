@@ -0,0 +1,141 @@
+package com.gl.platform.config;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.gl.platform.aop.routing.ReadReplicaContext;
+
+/**
+ * DataSource routing reads to the read replica.
+ * <p>
+ * Only {@link com.gl.platform.aop.routing.ReadReplica} methods use the
+ * replica, for their statements run outside a transaction or in a read-only
+ * one; everything else, including the read-only transactions of other
+ * methods, uses the primary. The replica lag is checked every few
+ * seconds and, while it is above {@code application.replica-max-lag-seconds}
+ * or the replica cannot be reached, all statements go to the primary. This
+ * DataSource must be wrapped in a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} so
+ * the route is chosen once the transaction is set up.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+	private final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+	/**
+	 * Lag of the replica in seconds: none when it has replayed everything it
+	 * received, otherwise the age of the last replayed transaction.
+	 */
+	private static final String LAG_QUERY = "SELECT CASE WHEN NOT pg_is_in_recovery()"
+			+ " OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0"
+			+ " ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END";
+
+	public enum Route {
+		PRIMARY, REPLICA
+	}
+
+	private final DataSource primary;
+
+	private final DataSource replica;
+
+	private final long maxLagSeconds;
+
+	private final Meter replicaConnections;
+
+	private final Meter fallbacks;
+
+	private volatile boolean replicaAvailable = true;
+
+	private volatile double lagSeconds = -1;
+
+	public ReplicaRoutingDataSource(DataSource primary, DataSource replica, long maxLagSeconds,
+			MetricRegistry metricRegistry) {
+		this.primary = primary;
+		this.replica = replica;
+		this.maxLagSeconds = maxLagSeconds;
+		Map<Object, Object> targets = new HashMap<>();
+		targets.put(Route.PRIMARY, primary);
+		targets.put(Route.REPLICA, replica);
+		setTargetDataSources(targets);
+		setDefaultTargetDataSource(primary);
+		this.replicaConnections = metricRegistry.meter("datasource.replica.connections");
+		this.fallbacks = metricRegistry.meter("datasource.replica.fallbacks");
+		metricRegistry.register("datasource.replica.lag", (Gauge<Double>) () -> lagSeconds);
+		metricRegistry.register("datasource.replica.available", (Gauge<Boolean>) () -> replicaAvailable);
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		if (!replicaAvailable) {
+			return Route.PRIMARY;
+		}
+		if (!ReadReplicaContext.isActive()) {
+			return Route.PRIMARY;
+		}
+		boolean read = !TransactionSynchronizationManager.isActualTransactionActive()
+				|| TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+		return read ? Route.REPLICA : Route.PRIMARY;
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		if (determineCurrentLookupKey() == Route.REPLICA) {
+			try {
+				Connection connection = replica.getConnection();
+				replicaConnections.mark();
+				return connection;
+			} catch (SQLException e) {
+				fallbacks.mark();
+				markUnavailable(e);
+			}
+		}
+		return primary.getConnection();
+	}
+
+	/**
+	 * Check the replica lag, taking it out of the routing while it lags too far
+	 * behind and putting it back once it has caught up.
+	 */
+	@Scheduled(fixedDelay = 5000)
+	public void checkReplica() {
+		try (Connection connection = replica.getConnection();
+				Statement statement = connection.createStatement();
+				ResultSet rs = statement.executeQuery(LAG_QUERY)) {
+			lagSeconds = rs.next() ? rs.getDouble(1) : 0;
+			boolean available = lagSeconds <= maxLagSeconds;
+			if (available != replicaAvailable) {
+				if (available) {
+					log.info("Read replica caught up, lag {}s : routing reads to the replica", lagSeconds);
+				} else {
+					log.warn("Read replica lags {}s behind : routing reads to the primary", lagSeconds);
+				}
+			}
+			replicaAvailable = available;
+		} catch (SQLException e) {
+			markUnavailable(e);
+		}
+	}
+
+	private void markUnavailable(SQLException e) {
+		if (replicaAvailable) {
+			log.warn("Read replica unavailable : routing reads to the primary", e);
+		}
+		replicaAvailable = false;
+		lagSeconds = -1;
+	}
+}
@@ -0,0 +1,142 @@
+package com.gl.platform.service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.gl.platform.config.ApplicationProperties;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Cache of the marketing and statistics report results.
+ * <p>
+ * Entries are keyed by report name and by the request parameters serialized
+ * with sorted properties and without null values, so equal requests share an
+ * entry whatever the order or absence of their fields. Concurrent requests for
+ * a missing entry wait for a single computation. Each report declares the
+ * {@link Topic}s its data comes from; writes to a topic bump its generation,
+ * which is part of the key, so no result computed before the write is served
+ * after it. Entries are bounded by {@code application.report-cache-size} and
+ * expire after {@code application.report-cache-ttl-seconds}.
+ */
+@Service
+public class ReportCacheService {
+
+	private final Logger log = LoggerFactory.getLogger(ReportCacheService.class);
+
+	/**
+	 * The data a report is computed from.
+	 */
+	public enum Topic {
+		REGISTRATION, JOB_POSTING, JOB_APPLICATION
+	}
+
+	private final Map<Topic, AtomicLong> generations = new EnumMap<>(Topic.class);
+
+	private final ObjectMapper keyMapper;
+
+	private final Cache<String, Object> reports;
+
+	private final Meter hits;
+
+	private final Meter misses;
+
+	public ReportCacheService(ObjectMapper objectMapper, ApplicationProperties applicationProperties,
+			MetricRegistry metricRegistry) {
+		for (Topic topic : Topic.values()) {
+			generations.put(topic, new AtomicLong());
+		}
+		this.keyMapper = objectMapper.copy().configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true)
+				.configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true)
+				.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+		this.reports = CacheBuilder.newBuilder().maximumSize(applicationProperties.getReportCacheSize())
+				.expireAfterWrite(applicationProperties.getReportCacheTtlSeconds(), TimeUnit.SECONDS).build();
+		this.hits = metricRegistry.meter("report.cache.hits");
+		this.misses = metricRegistry.meter("report.cache.misses");
+	}
+
+	/**
+	 * Get a report, computing it if it is not cached. The result is shared
+	 * between requests and must not be modified.
+	 *
+	 * @param report the report name
+	 * @param params the report parameters
+	 * @param loader computes the report
+	 * @param topics the data the report is computed from
+	 * @return the report
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T get(String report, Object params, Supplier<T> loader, Topic... topics) {
+		String key = key(report, params, topics);
+		Object cached = reports.getIfPresent(key);
+		if (cached != null) {
+			hits.mark();
+			return (T) cached;
+		}
+		try {
+			return (T) reports.get(key, () -> {
+				misses.mark();
+				return loader.get();
+			});
+		} catch (UncheckedExecutionException | ExecutionError e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw e;
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	/**
+	 * Invalidate the reports computed from a topic, after a write to it.
+	 *
+	 * @param topic the topic written to
+	 */
+	public void invalidate(Topic topic) {
+		long generation = generations.get(topic).incrementAndGet();
+		reports.asMap().keySet().removeIf(key -> key.contains("|" + topic + "#"));
+		log.debug("Invalidated the {} reports, generation {}", topic, generation);
+	}
+
+	/**
+	 * Evict one cached report, after a write to data it was computed from that
+	 * is not covered by its topics.
+	 *
+	 * @param report the report name
+	 * @param params the report parameters
+	 * @param topics the topics the report was cached with
+	 */
+	public void evict(String report, Object params, Topic... topics) {
+		reports.invalidate(key(report, params, topics));
+	}
+
+	private String key(String report, Object params, Topic... topics) {
+		StringBuilder key = new StringBuilder(report);
+		for (Topic topic : topics) {
+			key.append('|').append(topic).append('#').append(generations.get(topic).get());
+		}
+		try {
+			return key.append('|').append(keyMapper.writeValueAsString(params)).toString();
+		} catch (JsonProcessingException e) {
+			throw new IllegalArgumentException("Unserializable parameters for report " + report, e);
+		}
+	}
+}
@@ -0,0 +1,205 @@
+package com.gl.platform.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.opencsv.CSVWriter;
+
+/**
+ * Service offering report rows as newline delimited JSON or CSV downloads.
+ * <p>
+ * Clients opt in with an {@code Accept: application/x-ndjson} or
+ * {@code Accept: text/csv} header; any other request keeps the JSON array
+ * response. This is a format option only: the report services still load every
+ * row into memory before it is written, so it does not lower the memory a
+ * report needs.
+ */
+@Service
+public class ReportStreamingService {
+
+	private final Logger log = LoggerFactory.getLogger(ReportStreamingService.class);
+
+	public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+	public static final String TEXT_CSV_VALUE = "text/csv";
+
+	public enum Format {
+		NDJSON(APPLICATION_NDJSON_VALUE, ".ndjson"), CSV(TEXT_CSV_VALUE, ".csv");
+
+		private final MediaType mediaType;
+
+		private final String extension;
+
+		Format(String mediaType, String extension) {
+			this.mediaType = MediaType.valueOf(mediaType);
+			this.extension = extension;
+		}
+
+		/**
+		 * Get the streaming format asked for by an Accept header.
+		 *
+		 * @param accept the Accept header, may be null
+		 * @return the format, or null if the client did not ask for one explicitly
+		 */
+		public static Format fromAccept(String accept) {
+			if (accept == null) {
+				return null;
+			}
+			try {
+				for (MediaType mediaType : MediaType.parseMediaTypes(accept)) {
+					for (Format format : values()) {
+						if (format.mediaType.equalsTypeAndSubtype(mediaType)) {
+							return format;
+						}
+					}
+				}
+			} catch (InvalidMediaTypeException e) {
+				return null;
+			}
+			return null;
+		}
+	}
+
+	private final ObjectMapper objectMapper;
+
+	public ReportStreamingService(ObjectMapper objectMapper) {
+		this.objectMapper = objectMapper;
+	}
+
+	/**
+	 * Answer a report request, writing the rows as NDJSON or CSV if the client
+	 * asked for one of those formats.
+	 *
+	 * @param accept   the Accept header of the request
+	 * @param fileName the download name of the report, without extension
+	 * @param rows     the report rows
+	 * @param response the response the rows are streamed to
+	 * @return the ResponseEntity with the rows as JSON, or null once they have
+	 *         been written
+	 * @throws IOException if writing the response fails
+	 */
+	public ResponseEntity<List<Map<String, Object>>> respond(String accept, String fileName,
+			List<Map<String, Object>> rows, HttpServletResponse response) throws IOException {
+		Format format = Format.fromAccept(accept);
+		if (format == null) {
+			return new ResponseEntity<>(rows, HttpStatus.OK);
+		}
+		try (RowWriter writer = open(format, fileName, rows, response)) {
+			for (Map<String, Object> row : rows) {
+				writer.write(row);
+			}
+			log.debug("Wrote {} rows of {}", writer.rows, fileName);
+		}
+		return null;
+	}
+
+	private RowWriter open(Format format, String fileName, List<Map<String, Object>> rows,
+			HttpServletResponse response) throws IOException {
+		response.setContentType(format.mediaType.toString());
+		response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+		response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+				"attachment; filename=" + fileName + format.extension);
+		OutputStream out = response.getOutputStream();
+		return format == Format.NDJSON ? new NdjsonRowWriter(objectMapper, out)
+				: new CsvRowWriter(columns(rows), out);
+	}
+
+	/**
+	 * The CSV columns: every key of every row, in order of first appearance, as
+	 * the report rows do not all carry the same keys.
+	 */
+	private static String[] columns(List<Map<String, Object>> rows) {
+		Set<String> columns = new LinkedHashSet<>();
+		for (Map<String, Object> row : rows) {
+			columns.addAll(row.keySet());
+		}
+		return columns.toArray(new String[0]);
+	}
+
+	private abstract static class RowWriter implements Closeable {
+
+		protected long rows;
+
+		void write(Map<String, Object> row) throws IOException {
+			writeRow(row);
+			rows++;
+		}
+
+		protected abstract void writeRow(Map<String, Object> row) throws IOException;
+	}
+
+	private static class NdjsonRowWriter extends RowWriter {
+
+		private final JsonGenerator generator;
+
+		NdjsonRowWriter(ObjectMapper objectMapper, OutputStream out) throws IOException {
+			this.generator = objectMapper.getFactory().createGenerator(out);
+			this.generator.setRootValueSeparator(new SerializedString("\n"));
+		}
+
+		@Override
+		protected void writeRow(Map<String, Object> row) throws IOException {
+			// each line carries its own field names
+			generator.writeObject(row);
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (rows > 0) {
+				generator.writeRaw('\n');
+			}
+			generator.close();
+		}
+	}
+
+	private static class CsvRowWriter extends RowWriter {
+
+		private final String[] columns;
+
+		private final CSVWriter writer;
+
+		CsvRowWriter(String[] columns, OutputStream out) {
+			this.columns = columns;
+			this.writer = new CSVWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+			if (columns.length > 0) {
+				this.writer.writeNext(columns);
+			}
+		}
+
+		@Override
+		protected void writeRow(Map<String, Object> row) {
+			String[] line = new String[columns.length];
+			for (int i = 0; i < columns.length; i++) {
+				Object value = row.get(columns[i]);
+				line[i] = value == null ? "" : String.valueOf(value);
+			}
+			writer.writeNext(line);
+		}
+
+		@Override
+		public void close() throws IOException {
+			writer.close();
+		}
+	}
+}
@@ -0,0 +1,87 @@
+package com.gl.platform.aop.timing;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+
+import com.gl.platform.aop.timing.RequestTimings.Category;
+
+/**
+ * Aspect attributing the time of repository and S3 calls to the current
+ * request, and marking when the controller method returns.
+ * <p>
+ * Statements run by services through the named JDBC template are timed by
+ * {@link com.gl.platform.repository.InstrumentedJdbcTemplate} and those of
+ * the query registry by {@link com.gl.platform.repository.NamedQuery}; both
+ * only count when no repository call of this aspect is already timing them.
+ */
+@Aspect
+public class RequestTimingAspect {
+
+	/**
+	 * Pointcut that matches all repositories.
+	 */
+	@Pointcut("this(org.springframework.data.repository.Repository)"
+			+ " || within(@org.springframework.stereotype.Repository *)")
+	public void repositoryPointcut() {
+		// Method is empty as this is just a Pointcut, the implementations are in the
+		// advices.
+	}
+
+	/**
+	 * Pointcut that matches the services calling S3.
+	 */
+	@Pointcut("within(com.gl.platform.service.S3StorageService)"
+			+ " || within(com.gl.platform.service.S3ObjectStreamingService)"
+			+ " || within(com.gl.platform.service.PresignedUrlService)")
+	public void s3Pointcut() {
+		// Method is empty as this is just a Pointcut, the implementations are in the
+		// advices.
+	}
+
+	/**
+	 * Pointcut that matches all Web REST endpoints.
+	 */
+	@Pointcut("within(@org.springframework.web.bind.annotation.RestController *)")
+	public void restControllerPointcut() {
+		// Method is empty as this is just a Pointcut, the implementations are in the
+		// advices.
+	}
+
+	@Around("repositoryPointcut()")
+	public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+		return time(joinPoint, Category.DB);
+	}
+
+	@Around("s3Pointcut()")
+	public Object timeS3(ProceedingJoinPoint joinPoint) throws Throwable {
+		return time(joinPoint, Category.S3);
+	}
+
+	@Around("restControllerPointcut()")
+	public Object markHandlerEnd(ProceedingJoinPoint joinPoint) throws Throwable {
+		try {
+			return joinPoint.proceed();
+		} finally {
+			RequestTimings timings = RequestTimings.current();
+			if (timings != null) {
+				timings.handlerReturned();
+			}
+		}
+	}
+
+	private Object time(ProceedingJoinPoint joinPoint, Category category) throws Throwable {
+		RequestTimings timings = RequestTimings.current();
+		if (timings == null) {
+			return joinPoint.proceed();
+		}
+		boolean outermost = timings.enter(category);
+		long start = System.nanoTime();
+		try {
+			return joinPoint.proceed();
+		} finally {
+			timings.exit(category, outermost ? System.nanoTime() - start : 0);
+		}
+	}
+}
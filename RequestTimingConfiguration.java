@@ -0,0 +1,37 @@
+package com.gl.platform.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.codahale.metrics.MetricRegistry;
+import com.gl.platform.aop.timing.RequestTimingAspect;
+import com.gl.platform.aop.timing.RequestTimingInterceptor;
+
+@Configuration
+@EnableAspectJAutoProxy
+public class RequestTimingConfiguration implements WebMvcConfigurer {
+
+	private final MetricRegistry metricRegistry;
+
+	private final ApplicationProperties applicationProperties;
+
+	public RequestTimingConfiguration(MetricRegistry metricRegistry, ApplicationProperties applicationProperties) {
+		this.metricRegistry = metricRegistry;
+		this.applicationProperties = applicationProperties;
+	}
+
+	@Bean
+	public RequestTimingAspect requestTimingAspect() {
+		return new RequestTimingAspect();
+	}
+
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		registry.addInterceptor(
+				new RequestTimingInterceptor(metricRegistry, applicationProperties.getSlowRequestThresholdMs()))
+				.addPathPatterns("/api/**");
+	}
+}
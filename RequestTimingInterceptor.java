@@ -0,0 +1,81 @@
+package com.gl.platform.aop.timing;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import com.codahale.metrics.MetricRegistry;
+import com.gl.platform.aop.timing.RequestTimings.Category;
+
+/**
+ * Interceptor timing every REST request by controller method and status class.
+ * <p>
+ * Each {@code http.<Controller>.<method>.<Nxx>} timer uses the registry's
+ * default exponentially decaying reservoir, which keeps a fixed-size sample
+ * weighted towards the last few minutes whatever the request rate, and is
+ * published through the metric registry and its JMX reporter. Requests slower than the slow request threshold are logged
+ * with the time split between the database, S3 and writing the response.
+ */
+public class RequestTimingInterceptor implements AsyncHandlerInterceptor {
+
+	private final Logger log = LoggerFactory.getLogger(RequestTimingInterceptor.class);
+
+	private final MetricRegistry metricRegistry;
+
+	private final long slowRequestNanos;
+
+	public RequestTimingInterceptor(MetricRegistry metricRegistry, long slowRequestMillis) {
+		this.metricRegistry = metricRegistry;
+		this.slowRequestNanos = TimeUnit.MILLISECONDS.toNanos(slowRequestMillis);
+	}
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		if (handler instanceof HandlerMethod) {
+			RequestTimings.begin();
+		}
+		return true;
+	}
+
+	@Override
+	public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+			Object handler) {
+		// the rest of the request runs on another thread and is not timed
+		RequestTimings.end();
+	}
+
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+			Exception ex) {
+		RequestTimings timings = RequestTimings.end();
+		if (timings == null || !(handler instanceof HandlerMethod)) {
+			return;
+		}
+		long end = System.nanoTime();
+		long total = end - timings.getStartNanos();
+		HandlerMethod handlerMethod = (HandlerMethod) handler;
+		String name = MetricRegistry.name("http", handlerMethod.getBeanType().getSimpleName(),
+				handlerMethod.getMethod().getName(), response.getStatus() / 100 + "xx");
+		metricRegistry.timer(name).update(total, TimeUnit.NANOSECONDS);
+
+		if (total >= slowRequestNanos) {
+			long db = timings.getNanos(Category.DB);
+			long s3 = timings.getNanos(Category.S3);
+			long serialization = timings.getSerializationNanos(end);
+			log.warn("Slow request method={} uri={} endpoint={} status={} totalMs={} dbMs={} s3Ms={} "
+					+ "serializationMs={} otherMs={}", request.getMethod(), request.getRequestURI(), name,
+					response.getStatus(), toMillis(total), toMillis(db), toMillis(s3), toMillis(serialization),
+					toMillis(Math.max(0, total - db - s3 - serialization)));
+		}
+	}
+
+	private static long toMillis(long nanos) {
+		return TimeUnit.NANOSECONDS.toMillis(nanos);
+	}
+}
@@ -0,0 +1,101 @@
+package com.gl.platform.aop.timing;
+
+/**
+ * Time spent by the current request in the database and in S3, and in writing
+ * the response body.
+ * <p>
+ * It is bound to the request thread by {@link RequestTimingInterceptor}; work
+ * done on other threads is not attributed to the request. Nested calls of the
+ * same category, such as a repository called from a custom repository, are
+ * only counted once.
+ */
+public final class RequestTimings {
+
+	public enum Category {
+		DB, S3
+	}
+
+	private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+
+	private final long startNanos = System.nanoTime();
+
+	private final long[] nanos = new long[Category.values().length];
+
+	private final int[] depth = new int[Category.values().length];
+
+	private long handlerEndNanos;
+
+	private RequestTimings() {
+	}
+
+	static RequestTimings begin() {
+		RequestTimings timings = new RequestTimings();
+		CURRENT.set(timings);
+		return timings;
+	}
+
+	static RequestTimings end() {
+		RequestTimings timings = CURRENT.get();
+		CURRENT.remove();
+		return timings;
+	}
+
+	/**
+	 * @return the timings of the request being handled by this thread, or null
+	 */
+	public static RequestTimings current() {
+		return CURRENT.get();
+	}
+
+	/**
+	 * Add the time of a call that cannot nest, if a request is being timed.
+	 *
+	 * @param category     what the time was spent on
+	 * @param elapsedNanos the time spent
+	 */
+	public static void record(Category category, long elapsedNanos) {
+		RequestTimings timings = CURRENT.get();
+		if (timings != null && timings.depth[category.ordinal()] == 0) {
+			timings.nanos[category.ordinal()] += elapsedNanos;
+		}
+	}
+
+	/**
+	 * Enter a call of the given category.
+	 *
+	 * @return true if it is the outermost call of this category
+	 */
+	boolean enter(Category category) {
+		return depth[category.ordinal()]++ == 0;
+	}
+
+	/**
+	 * Leave a call of the given category.
+	 *
+	 * @param elapsedNanos the time of the call, or 0 if it was nested
+	 */
+	void exit(Category category, long elapsedNanos) {
+		depth[category.ordinal()]--;
+		nanos[category.ordinal()] += elapsedNanos;
+	}
+
+	void handlerReturned() {
+		handlerEndNanos = System.nanoTime();
+	}
+
+	long getStartNanos() {
+		return startNanos;
+	}
+
+	long getNanos(Category category) {
+		return nanos[category.ordinal()];
+	}
+
+	/**
+	 * @return the time between the controller method returning and the given
+	 *         time, which is spent writing the response body
+	 */
+	long getSerializationNanos(long endNanos) {
+		return handlerEndNanos == 0 ? 0 : endNanos - handlerEndNanos;
+	}
+}
@@ -0,0 +1,206 @@
+package com.gl.platform.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.S3Object;
+import com.gl.platform.config.ApplicationProperties;
+
+/**
+ * Service streaming S3 objects straight to the servlet response.
+ * <p>
+ * Honours {@code Range} and {@code If-None-Match}, sets {@code Content-Length}
+ * and {@code ETag} from the object metadata and copies the body through a
+ * {@link #BUFFER_SIZE} heap buffer instead of the commons-io 4 KB default. It
+ * uses the S3 client of {@link S3StorageService}. Every endpoint that proxies
+ * S3 bytes to the browser should go through {@link #stream}.
+ */
+@Service
+public class S3ObjectStreamingService {
+
+	private final Logger log = LoggerFactory.getLogger(S3ObjectStreamingService.class);
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private static final Pattern RANGE_PATTERN = Pattern.compile("^bytes=(\\d*)-(\\d*)$");
+
+	private static final String WEAK_PREFIX = "W/";
+
+	private final ApplicationProperties applicationProperties;
+
+	private final AmazonS3 amazonS3;
+
+	private final PresignedUrlService presignedUrlService;
+
+	public S3ObjectStreamingService(ApplicationProperties applicationProperties, S3StorageService s3StorageService,
+			PresignedUrlService presignedUrlService) {
+		this.applicationProperties = applicationProperties;
+		this.amazonS3 = s3StorageService.getAmazonS3();
+		this.presignedUrlService = presignedUrlService;
+	}
+
+	/**
+	 * Look up the metadata of an object without downloading its body.
+	 *
+	 * @param key the object key in the application bucket
+	 * @return the object metadata, or null if the object does not exist
+	 */
+	public ObjectMetadata getMetadata(String key) {
+		try {
+			return amazonS3.getObjectMetadata(applicationProperties.getS3BucketName(), key);
+		} catch (AmazonServiceException e) {
+			if (e.getStatusCode() == HttpServletResponse.SC_NOT_FOUND) {
+				return null;
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Check whether an object exists using a HEAD request.
+	 *
+	 * @param key the object key in the application bucket
+	 * @return true if the object exists
+	 */
+	public boolean exists(String key) {
+		return getMetadata(key) != null;
+	}
+
+	/**
+	 * Upload a local file to the application bucket, replacing any object under
+	 * the key and its cached presigned URLs.
+	 *
+	 * @param key         the object key in the application bucket
+	 * @param file        the file to upload
+	 * @param contentType the content type of the object
+	 */
+	public void upload(String key, File file, String contentType) {
+		ObjectMetadata metadata = new ObjectMetadata();
+		metadata.setContentType(contentType);
+		metadata.setContentLength(file.length());
+		amazonS3.putObject(
+				new PutObjectRequest(applicationProperties.getS3BucketName(), key, file).withMetadata(metadata));
+		presignedUrlService.evict(key);
+	}
+
+	/**
+	 * Stream an S3 object to the response.
+	 *
+	 * @param key         the object key in the application bucket
+	 * @param contentType the content type to send
+	 * @param disposition the Content-Disposition header value
+	 * @param request     the current request, used for Range and If-None-Match
+	 * @param response    the response to write to
+	 * @throws IOException if writing to the response fails
+	 */
+	public void stream(String key, String contentType, String disposition, HttpServletRequest request,
+			HttpServletResponse response) throws IOException {
+		ObjectMetadata metadata = getMetadata(key);
+		if (metadata == null) {
+			log.debug("S3 object not found : {}", key);
+			response.sendError(HttpServletResponse.SC_NOT_FOUND);
+			return;
+		}
+
+		long length = metadata.getContentLength();
+		String etag = "\"" + metadata.getETag() + "\"";
+
+		response.setHeader(HttpHeaders.ETAG, etag);
+		response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+		if (matchesAny(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+			response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+			return;
+		}
+
+		response.setContentType(contentType);
+		response.setHeader(HttpHeaders.CONTENT_DISPOSITION, disposition);
+
+		long start = 0;
+		long end = length - 1;
+		String range = request.getHeader(HttpHeaders.RANGE);
+		String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+		boolean partial = range != null && (ifRange == null || ifRange.equals(etag));
+		if (partial) {
+			Matcher matcher = RANGE_PATTERN.matcher(range.trim());
+			boolean satisfiable = true;
+			try {
+				if (!matcher.matches() || (matcher.group(1).isEmpty() && matcher.group(2).isEmpty())) {
+					partial = false;
+				} else if (matcher.group(1).isEmpty()) {
+					// suffix range: the last N bytes
+					start = Math.max(0, length - Long.parseLong(matcher.group(2)));
+				} else {
+					start = Long.parseLong(matcher.group(1));
+					if (!matcher.group(2).isEmpty()) {
+						end = Math.min(end, Long.parseLong(matcher.group(2)));
+					}
+				}
+			} catch (NumberFormatException e) {
+				// a position beyond Long.MAX_VALUE
+				satisfiable = false;
+			}
+			if (partial && (!satisfiable || start >= length || start > end)) {
+				response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+				response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+				return;
+			}
+		}
+
+		GetObjectRequest getObjectRequest = new GetObjectRequest(applicationProperties.getS3BucketName(), key);
+		if (partial) {
+			getObjectRequest.setRange(start, end);
+			response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+			response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+		}
+		response.setContentLengthLong(end - start + 1);
+
+		try (S3Object object = amazonS3.getObject(getObjectRequest);
+				InputStream in = object.getObjectContent()) {
+			copy(in, response);
+		}
+	}
+
+	private void copy(InputStream in, HttpServletResponse response) throws IOException {
+		IOUtils.copyLarge(in, response.getOutputStream(), new byte[BUFFER_SIZE]);
+		response.flushBuffer();
+	}
+
+	/**
+	 * Check an {@code If-None-Match} header against the object ETag. The header
+	 * may list several tags and, as the comparison is weak, {@code W/} tags match
+	 * the strong tag with the same value.
+	 */
+	private static boolean matchesAny(String ifNoneMatch, String etag) {
+		if (ifNoneMatch == null) {
+			return false;
+		}
+		for (String tag : ifNoneMatch.split(",")) {
+			tag = tag.trim();
+			if (tag.startsWith(WEAK_PREFIX)) {
+				tag = tag.substring(WEAK_PREFIX.length());
+			}
+			if (tag.equals("*") || tag.equals(etag)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -2,7 +2,6 @@ package com.gl.platform.web.rest;
 
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
-import java.util.List;
 import java.util.Map;
 
 import org.slf4j.Logger;
@@ -20,9 +19,10 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.codahale.metrics.annotation.Timed;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.gl.platform.domain.IntendedMajor;
 import com.gl.platform.service.HighSchoolTranscriptService;
 import com.gl.platform.service.NSAPIService;
+import com.gl.platform.service.ReferenceDataService;
+import com.gl.platform.service.ReferenceDataService.Dataset;
 import com.gl.platform.service.dto.ScholarshipActivityDTO;
 import com.gl.platform.service.dto.StatisticsRequestDTO;
 import com.gl.platform.service.dto.nsapi.NSAPIRequestObject;
@@ -41,6 +41,9 @@ public class ScholarshipResource {
 	@Autowired
 	private HighSchoolTranscriptService highschoolTranscriptService;
 
+	@Autowired
+	private ReferenceDataService referenceDataService;
+
 	@GetMapping("/scholarsnapp/redirecturl")
 	@Timed
 	public ResponseEntity<?> getScholarsnapp() throws UnsupportedEncodingException {
@@ -131,16 +134,14 @@ public class ScholarshipResource {
 	@Timed
 	public ResponseEntity<?> getScholarshipProviders() {
 		log.debug("REST request to get scholarship provid	er Details");
-		List<Map<String, Object>> listResult = nsapiService.getScholarshipProviderDetails();
-		return new ResponseEntity<>(listResult, HttpStatus.OK);
+		return referenceDataService.respond(Dataset.SCHOLARSHIP_PROVIDERS);
 	}
 
 	@GetMapping("/scholarship/major")
 	@Timed
 	public ResponseEntity<?> getScholarshipMajorsList() {
 		log.debug("REST request to get scholarship major drop down Details :");
-		List<IntendedMajor> listResult = nsapiService.getMajorsList();
-		return new ResponseEntity<>(listResult, HttpStatus.OK);
+		return referenceDataService.respond(Dataset.SCHOLARSHIP_MAJORS);
 	}
 
 }
@@ -23,7 +23,8 @@ import org.springframework.web.filter.CorsFilter;
 import org.zalando.problem.spring.web.advice.security.SecurityProblemSupport;
 
 import com.gl.platform.security.AuthoritiesConstants;
-import com.gl.platform.security.jwt.JWTConfigurer;
+import com.gl.platform.security.jwt.CachingJWTConfigurer;
+import com.gl.platform.security.jwt.JWTAuthenticationCache;
 import com.gl.platform.security.jwt.TokenProvider;
 
 @Configuration
@@ -38,16 +39,19 @@ public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
 
 	private final TokenProvider tokenProvider;
 
+	private final JWTAuthenticationCache jwtAuthenticationCache;
+
 	private final CorsFilter corsFilter;
 
 	private final SecurityProblemSupport problemSupport;
 
 	public SecurityConfiguration(AuthenticationManagerBuilder authenticationManagerBuilder,
-			UserDetailsService userDetailsService, TokenProvider tokenProvider, CorsFilter corsFilter,
-			SecurityProblemSupport problemSupport) {
+			UserDetailsService userDetailsService, TokenProvider tokenProvider,
+			JWTAuthenticationCache jwtAuthenticationCache, CorsFilter corsFilter, SecurityProblemSupport problemSupport) {
 		this.authenticationManagerBuilder = authenticationManagerBuilder;
 		this.userDetailsService = userDetailsService;
 		this.tokenProvider = tokenProvider;
+		this.jwtAuthenticationCache = jwtAuthenticationCache;
 		this.corsFilter = corsFilter;
 		this.problemSupport = problemSupport;
 	}
@@ -96,6 +100,7 @@ public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
 				.antMatchers("/api/all/jobs").permitAll()
 				.antMatchers("/api/training/student").permitAll()
 				.antMatchers("/api/v1/verifycredentials").permitAll()
+				.antMatchers("/api/v1/verifycredentials/batch").permitAll()
 				.antMatchers("/api/oauth/v1/token").permitAll()
 				.antMatchers("/api/verification/**").permitAll()
 				.antMatchers("/api/degree/verification").permitAll()
@@ -153,7 +158,7 @@ public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
 
 	}
 
-	private JWTConfigurer securityConfigurerAdapter() {
-		return new JWTConfigurer(tokenProvider);
+	private CachingJWTConfigurer securityConfigurerAdapter() {
+		return new CachingJWTConfigurer(tokenProvider, jwtAuthenticationCache);
 	}
 }
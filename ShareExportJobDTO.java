@@ -0,0 +1,118 @@
+package com.gl.platform.service.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * A DTO for a background shares zip export job.
+ */
+public class ShareExportJobDTO implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	public enum Status {
+		QUEUED, RUNNING, COMPLETED, FAILED
+	}
+
+	private String id;
+
+	private Long institutionId;
+
+	@JsonIgnore
+	private String ownerLogin;
+
+	private List<Long> shareIds;
+
+	private Status status;
+
+	private Instant submittedDate;
+
+	private Instant completedDate;
+
+	private Map<String, Object> result;
+
+	private String error;
+
+	public String getId() {
+		return id;
+	}
+
+	public void setId(String id) {
+		this.id = id;
+	}
+
+	public Long getInstitutionId() {
+		return institutionId;
+	}
+
+	public void setInstitutionId(Long institutionId) {
+		this.institutionId = institutionId;
+	}
+
+	public String getOwnerLogin() {
+		return ownerLogin;
+	}
+
+	public void setOwnerLogin(String ownerLogin) {
+		this.ownerLogin = ownerLogin;
+	}
+
+	public List<Long> getShareIds() {
+		return shareIds;
+	}
+
+	public void setShareIds(List<Long> shareIds) {
+		this.shareIds = shareIds;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	public void setStatus(Status status) {
+		this.status = status;
+	}
+
+	public Instant getSubmittedDate() {
+		return submittedDate;
+	}
+
+	public void setSubmittedDate(Instant submittedDate) {
+		this.submittedDate = submittedDate;
+	}
+
+	public Instant getCompletedDate() {
+		return completedDate;
+	}
+
+	public void setCompletedDate(Instant completedDate) {
+		this.completedDate = completedDate;
+	}
+
+	public Map<String, Object> getResult() {
+		return result;
+	}
+
+	public void setResult(Map<String, Object> result) {
+		this.result = result;
+	}
+
+	public String getError() {
+		return error;
+	}
+
+	public void setError(String error) {
+		this.error = error;
+	}
+
+	@Override
+	public String toString() {
+		return "ShareExportJobDTO{" + "id='" + getId() + "'" + ", institutionId=" + getInstitutionId() + ", status='"
+				+ getStatus() + "'" + ", submittedDate='" + getSubmittedDate() + "'" + ", completedDate='"
+				+ getCompletedDate() + "'" + "}";
+	}
+}
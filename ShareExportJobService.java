@@ -0,0 +1,168 @@
+package com.gl.platform.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.stereotype.Service;
+
+import com.gl.platform.config.ApplicationProperties;
+import com.gl.platform.service.dto.ShareExportJobDTO;
+import com.gl.platform.service.dto.ShareExportJobDTO.Status;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Service running shares zip exports in the background.
+ * <p>
+ * Exports run on their own bounded pool rather than the shared
+ * {@code taskExecutor}, and each institution may only have
+ * {@code application.share-export-institution-limit} exports queued or running
+ * at a time, so one registrar cannot starve everyone else. A job is only
+ * visible to the user who submitted it.
+ * <p>
+ * The zip file itself is still built by
+ * {@link ShareService#processZipFileFromShareIds}, so fetching the share files
+ * from S3 and uploading the zip happen the way that method does them; running
+ * them in parallel or as a multipart upload is a change to that method.
+ */
+@Service
+public class ShareExportJobService {
+
+	private final Logger log = LoggerFactory.getLogger(ShareExportJobService.class);
+
+	private static final int QUEUE_CAPACITY = 100;
+
+	private final ShareService shareService;
+
+	private final int institutionLimit;
+
+	private final ThreadPoolExecutor executor;
+
+	private final Map<Long, AtomicInteger> activeJobs = new ConcurrentHashMap<>();
+
+	private final Cache<String, ShareExportJobDTO> jobs = CacheBuilder.newBuilder().maximumSize(10000)
+			.expireAfterWrite(24, TimeUnit.HOURS).build();
+
+	public ShareExportJobService(ShareService shareService, ApplicationProperties applicationProperties) {
+		this.shareService = shareService;
+		this.institutionLimit = applicationProperties.getShareExportInstitutionLimit();
+		int poolSize = applicationProperties.getShareExportPoolSize();
+		this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(QUEUE_CAPACITY), new CustomizableThreadFactory("share-export-"));
+	}
+
+	/**
+	 * Submit a zip export of the given shares.
+	 *
+	 * @param institutionId the institution requesting the export
+	 * @param shareIds      the shares to put in the zip file
+	 * @param ownerLogin    the login of the user submitting the export
+	 * @return the queued job
+	 * @throws RejectedExecutionException if the institution already has too many
+	 *                                    exports in progress or the queue is full
+	 */
+	public ShareExportJobDTO submit(Long institutionId, List<Long> shareIds, String ownerLogin) {
+		AtomicInteger active = activeJobs.computeIfAbsent(institutionId, id -> new AtomicInteger());
+		if (active.incrementAndGet() > institutionLimit) {
+			active.decrementAndGet();
+			throw new RejectedExecutionException(
+					"Institution " + institutionId + " already has " + institutionLimit + " exports in progress");
+		}
+
+		ShareExportJobDTO job = new ShareExportJobDTO();
+		job.setId(UUID.randomUUID().toString());
+		job.setInstitutionId(institutionId);
+		job.setOwnerLogin(ownerLogin);
+		job.setShareIds(new ArrayList<>(shareIds));
+		job.setStatus(Status.QUEUED);
+		job.setSubmittedDate(Instant.now());
+		jobs.put(job.getId(), job);
+
+		try {
+			executor.execute(new DelegatingSecurityContextRunnable(() -> run(job.getId())));
+		} catch (RejectedExecutionException e) {
+			active.decrementAndGet();
+			jobs.invalidate(job.getId());
+			throw e;
+		}
+		log.debug("Queued share export job : {}", job);
+		return job;
+	}
+
+	/**
+	 * Get the current state of an export job submitted by a user.
+	 *
+	 * @param jobId      the job id
+	 * @param ownerLogin the login of the user asking
+	 * @return the job, or empty if it is unknown, has expired or was submitted by
+	 *         another user
+	 */
+	public Optional<ShareExportJobDTO> findOne(String jobId, String ownerLogin) {
+		return Optional.ofNullable(jobs.getIfPresent(jobId))
+				.filter(job -> job.getOwnerLogin() != null && job.getOwnerLogin().equals(ownerLogin));
+	}
+
+	private void run(String jobId) {
+		ShareExportJobDTO job = jobs.getIfPresent(jobId);
+		if (job == null) {
+			return;
+		}
+		jobs.put(jobId, copy(job, Status.RUNNING));
+		try {
+			Map<String, Object> result = shareService.processZipFileFromShareIds(job.getShareIds(),
+					job.getInstitutionId());
+			ShareExportJobDTO completed = copy(job, Status.COMPLETED);
+			completed.setResult(result);
+			completed.setCompletedDate(Instant.now());
+			jobs.put(jobId, completed);
+			log.debug("Completed share export job : {}", completed);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			fail(job, e);
+		} catch (Exception e) {
+			fail(job, e);
+		} finally {
+			activeJobs.get(job.getInstitutionId()).decrementAndGet();
+		}
+	}
+
+	private void fail(ShareExportJobDTO job, Exception e) {
+		log.error("Share export job {} failed", job.getId(), e);
+		ShareExportJobDTO failed = copy(job, Status.FAILED);
+		failed.setError(e.getMessage());
+		failed.setCompletedDate(Instant.now());
+		jobs.put(job.getId(), failed);
+	}
+
+	private ShareExportJobDTO copy(ShareExportJobDTO job, Status status) {
+		ShareExportJobDTO copy = new ShareExportJobDTO();
+		copy.setId(job.getId());
+		copy.setInstitutionId(job.getInstitutionId());
+		copy.setOwnerLogin(job.getOwnerLogin());
+		copy.setShareIds(job.getShareIds());
+		copy.setSubmittedDate(job.getSubmittedDate());
+		copy.setStatus(status);
+		return copy;
+	}
+
+	@PreDestroy
+	public void destroy() {
+		executor.shutdown();
+	}
+}
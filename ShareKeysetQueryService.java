@@ -0,0 +1,219 @@
+package com.gl.platform.service;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.gl.platform.repository.NamedQueryRegistry;
+import com.gl.platform.service.dto.CredentialShareDTO;
+import com.gl.platform.service.dto.KeysetPage;
+
+/**
+ * Service for keyset paginated institution share listings.
+ * <p>
+ * Pages are ordered by share date then id, newest first. The cursor encodes
+ * the (share date, id) of the last row of the previous page, null on the
+ * first page; the query compares that pair as a row, so fetching a page costs
+ * an index range scan of {@code size} rows whatever its position. Rows are
+ * mapped to the {@link CredentialShareDTO} of the full share listings. The
+ * summaries count the shares matching the same filters as the listings.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ShareKeysetQueryService {
+
+	private final Logger log = LoggerFactory.getLogger(ShareKeysetQueryService.class);
+
+	public static final int MAX_PAGE_SIZE = 500;
+
+	private static final String TIMESTAMP_CURSOR = "t";
+
+	private static final String DATE_CURSOR = "d";
+
+	private final NamedQueryRegistry namedQueryRegistry;
+
+	private final RowMapper<CredentialShareDTO> shareMapper = BeanPropertyRowMapper
+			.newInstance(CredentialShareDTO.class);
+
+	/**
+	 * A mapped row with the keyset values it was read at.
+	 */
+	private static final class Row {
+
+		private final CredentialShareDTO share;
+
+		private final Object shareDate;
+
+		private final long id;
+
+		Row(CredentialShareDTO share, Object shareDate, long id) {
+			this.share = share;
+			this.shareDate = shareDate;
+			this.id = id;
+		}
+	}
+
+	public ShareKeysetQueryService(NamedQueryRegistry namedQueryRegistry) {
+		this.namedQueryRegistry = namedQueryRegistry;
+	}
+
+	/**
+	 * Get a page of credentials received by an institution.
+	 *
+	 * @param receivingInstitutionId the institution, or one under it, the shares
+	 *                               were received by; the institution when null
+	 * @throws IllegalArgumentException if the cursor is malformed
+	 */
+	public KeysetPage<CredentialShareDTO> findReceivedByInstitutionId(Long institutionId, String studentSearchTerm,
+			Long issuingInstitutionId, Long receivingInstitutionId, String shareType, LocalDate start, LocalDate end,
+			String cursor, int size) {
+		log.debug("Request to get received shares page for institution : {}, cursor : {}", institutionId, cursor);
+		return fetchPage("share.received.page", receivedParams(institutionId, studentSearchTerm, issuingInstitutionId,
+				receivingInstitutionId, shareType, start, end), cursor, size);
+	}
+
+	/**
+	 * Get a page of credentials or certificates shared from an institution.
+	 *
+	 * @param sentFromInstitutionId     the institution, or one under it, the
+	 *                                  shares were sent from; the institution
+	 *                                  when null
+	 * @param individualStudentActivity only the shares students made themselves
+	 * @throws IllegalArgumentException if the cursor is malformed
+	 */
+	public KeysetPage<CredentialShareDTO> findSentByInstitutionId(Long institutionId, boolean certificate,
+			String studentSearchTerm, Long sentFromInstitutionId, String sentToType, Long sentToInstitutionId,
+			String sentToEmailAddress, boolean individualStudentActivity, LocalDate start, LocalDate end,
+			String cursor, int size) {
+		log.debug("Request to get sent shares page for institution : {}, cursor : {}", institutionId, cursor);
+		return fetchPage("share.sent.page", sentParams(institutionId, certificate, studentSearchTerm,
+				sentFromInstitutionId, sentToType, sentToInstitutionId, sentToEmailAddress, individualStudentActivity,
+				start, end), cursor, size);
+	}
+
+	/**
+	 * Get the counts per credential type of the shares received by an
+	 * institution, with the filters of
+	 * {@link #findReceivedByInstitutionId}.
+	 */
+	public List<Map<String, Object>> getReceivedSummary(Long institutionId, String studentSearchTerm,
+			Long issuingInstitutionId, Long receivingInstitutionId, String shareType, LocalDate start, LocalDate end) {
+		return namedQueryRegistry.get("share", "share.received.summary").queryForList(receivedParams(institutionId,
+				studentSearchTerm, issuingInstitutionId, receivingInstitutionId, shareType, start, end));
+	}
+
+	/**
+	 * Get the counts per credential type of the shares sent from an institution,
+	 * with the filters of {@link #findSentByInstitutionId}.
+	 *
+	 * @param certificate only certificates when true, only credentials when
+	 *                    false, both when null
+	 */
+	public List<Map<String, Object>> getSentSummary(Long institutionId, Boolean certificate,
+			String studentSearchTerm, Long sentFromInstitutionId, String sentToType, Long sentToInstitutionId,
+			String sentToEmailAddress, boolean individualStudentActivity, LocalDate start, LocalDate end) {
+		return namedQueryRegistry.get("share", "share.sent.summary").queryForList(sentParams(institutionId,
+				certificate, studentSearchTerm, sentFromInstitutionId, sentToType, sentToInstitutionId,
+				sentToEmailAddress, individualStudentActivity, start, end));
+	}
+
+	private MapSqlParameterSource receivedParams(Long institutionId, String studentSearchTerm,
+			Long issuingInstitutionId, Long receivingInstitutionId, String shareType, LocalDate start, LocalDate end) {
+		Long receivingId = receivingInstitutionId != null ? receivingInstitutionId : institutionId;
+		return baseParams(studentSearchTerm, start, end).addValue("receivingInstitutionId", receivingId)
+				.addValue("issuingInstitutionId", issuingInstitutionId).addValue("shareType", shareType);
+	}
+
+	private MapSqlParameterSource sentParams(Long institutionId, Boolean certificate, String studentSearchTerm,
+			Long sentFromInstitutionId, String sentToType, Long sentToInstitutionId, String sentToEmailAddress,
+			boolean individualStudentActivity, LocalDate start, LocalDate end) {
+		Long sentFromId = sentFromInstitutionId != null ? sentFromInstitutionId : institutionId;
+		return baseParams(studentSearchTerm, start, end).addValue("sentFromInstitutionId", sentFromId)
+				.addValue("certificate", certificate == null ? null : certificate ? 1 : 0)
+				.addValue("sentToType", sentToType).addValue("sentToInstitutionId", sentToInstitutionId)
+				.addValue("sentToEmail", sentToEmailAddress)
+				.addValue("individualStudent", individualStudentActivity ? 1 : 0);
+	}
+
+	private MapSqlParameterSource baseParams(String studentSearchTerm, LocalDate start, LocalDate end) {
+		String searchTerm = studentSearchTerm == null || studentSearchTerm.trim().isEmpty() ? null
+				: "%" + studentSearchTerm.trim().toLowerCase() + "%";
+		return new MapSqlParameterSource().addValue("searchTerm", searchTerm).addValue("startDate", start)
+				.addValue("endDate", end);
+	}
+
+	private KeysetPage<CredentialShareDTO> fetchPage(String queryName, MapSqlParameterSource params, String cursor,
+			int size) {
+		int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+		if (cursor != null && !cursor.isEmpty()) {
+			decodeCursor(cursor, params);
+		} else {
+			params.addValue("cursorDate", null).addValue("cursorId", null);
+		}
+		// fetch one extra row to know whether there is a next page
+		params.addValue("limit", pageSize + 1);
+
+		List<Row> rows = namedQueryRegistry.get("share", queryName).query(params, this::mapRow);
+		String nextCursor = null;
+		if (rows.size() > pageSize) {
+			rows = rows.subList(0, pageSize);
+			Row last = rows.get(pageSize - 1);
+			nextCursor = encodeCursor(last.shareDate, last.id);
+		}
+		List<CredentialShareDTO> content = rows.stream().map(row -> row.share).collect(Collectors.toList());
+		return new KeysetPage<>(content, nextCursor, content.size());
+	}
+
+	private Row mapRow(ResultSet rs, int rowNum) throws SQLException {
+		return new Row(shareMapper.mapRow(rs, rowNum), rs.getObject("share_date"), rs.getLong("id"));
+	}
+
+	/**
+	 * Encode the keyset of a row, keeping the type of the share date column so it
+	 * is bound back with the same type and the index stays usable.
+	 */
+	private String encodeCursor(Object shareDate, long id) {
+		String value;
+		if (shareDate instanceof Timestamp) {
+			value = TIMESTAMP_CURSOR + "|" + ((Timestamp) shareDate).toInstant() + "|" + id;
+		} else if (shareDate instanceof Date) {
+			value = DATE_CURSOR + "|" + ((Date) shareDate).toLocalDate() + "|" + id;
+		} else {
+			throw new IllegalStateException("Unsupported share date type : " + shareDate);
+		}
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private void decodeCursor(String cursor, MapSqlParameterSource params) {
+		try {
+			String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+			Object cursorDate;
+			if (TIMESTAMP_CURSOR.equals(parts[0])) {
+				cursorDate = Timestamp.from(Instant.parse(parts[1]));
+			} else if (DATE_CURSOR.equals(parts[0])) {
+				cursorDate = Date.valueOf(LocalDate.parse(parts[1]));
+			} else {
+				throw new IllegalArgumentException("Unknown cursor type : " + parts[0]);
+			}
+			params.addValue("cursorDate", cursorDate).addValue("cursorId", Long.valueOf(parts[2]));
+		} catch (RuntimeException e) {
+			throw new IllegalArgumentException("Invalid cursor : " + cursor, e);
+		}
+	}
+}
@@ -9,6 +9,7 @@ import java.time.ZoneId;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 import javax.validation.Valid;
 
@@ -17,6 +18,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -29,17 +31,26 @@ import com.amazonaws.services.sns.model.NotFoundException;
 import com.codahale.metrics.annotation.Timed;
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.databind.JsonMappingException;
+import com.gl.platform.security.SecurityUtils;
+import com.gl.platform.service.AuthorizationService;
+import com.gl.platform.service.InstitutionHierarchyService;
+import com.gl.platform.service.InstitutionShareStatsService;
+import com.gl.platform.service.ShareExportJobService;
+import com.gl.platform.service.ShareKeysetQueryService;
 import com.gl.platform.service.ShareService;
 import com.gl.platform.service.dto.AccomplishmentSharedRequestDTO;
 import com.gl.platform.service.dto.CertificateSharedRequestDTO;
 import com.gl.platform.service.dto.CredentialShareDTO;
+import com.gl.platform.service.dto.KeysetPage;
 import com.gl.platform.service.dto.OtherCredentialsRequestDTO;
 import com.gl.platform.service.dto.RecomLetterShareRequestDTO;
 import com.gl.platform.service.dto.ResumeSharedRequestDTO;
 import com.gl.platform.service.dto.SelfUploadedTranscriptRequestDTO;
 import com.gl.platform.service.dto.ShareDTO;
+import com.gl.platform.service.dto.ShareExportJobDTO;
 import com.gl.platform.service.dto.Shares;
 import com.gl.platform.service.dto.sar.SarSharedRequestDTO;
+import com.gl.platform.service.util.GlConstraints;
 import com.gl.platform.web.rest.errors.AccomplishmentShareFailedExcecption;
 import com.gl.platform.web.rest.errors.BadRequestAlertException;
 import com.gl.platform.web.rest.errors.CertificateSharedFailedException;
@@ -48,6 +59,8 @@ import com.gl.platform.web.rest.errors.ResumeSharedFailedException;
 import com.gl.platform.web.rest.errors.SarShareFailedException;
 import com.gl.platform.web.rest.util.HeaderUtil;
 
+import io.github.jhipster.web.util.ResponseUtil;
+
 /**
  * REST controller for Share.
  */
@@ -60,6 +73,21 @@ public class ShareResource {
 	@Autowired
 	private final ShareService shareService;
 
+	@Autowired
+	private ShareExportJobService shareExportJobService;
+
+	@Autowired
+	private ShareKeysetQueryService shareKeysetQueryService;
+
+	@Autowired
+	private InstitutionHierarchyService institutionHierarchyService;
+
+	@Autowired
+	private InstitutionShareStatsService institutionShareStatsService;
+
+	@Autowired
+	private AuthorizationService authorizationService;
+
 	public ShareResource(ShareService shareService) {
 		this.shareService = shareService;
 	}
@@ -108,14 +136,16 @@ public class ShareResource {
 
 	@GetMapping("/institutions/{id}/receivedcredentials")
 	@Timed
-	public ResponseEntity<Shares> getRecievedByInstitutionId(@PathVariable Long id,
+	public ResponseEntity<?> getRecievedByInstitutionId(@PathVariable Long id,
 			@RequestParam(value = "studentSearchTerm", required = false) String studentSearchTerm,
 			@RequestParam(value = "transcriptType", required = false) String transcriptType,
 			@RequestParam(value = "issuingInstitutionId", required = false) Long issuingInstitutionId,
 			@RequestParam(value = "receivingInstitutionId", required = false) Long receivingInstitutionId,
 			@RequestParam(value = "destinationInstitutionId", required = false) Long destinationInstitutionId,
 			@RequestParam(value = "startDate", required = false) Long startDate,
-			@RequestParam(value = "endDate", required = false) Long endDate) {
+			@RequestParam(value = "endDate", required = false) Long endDate,
+			@RequestParam(value = "cursor", required = false) String cursor,
+			@RequestParam(value = "size", required = false) Integer size) {
 
 		log.debug(
 				"REST request to search institution getRecievedByInstitutionId(id = {},searchTerm = {},startDate = {},endDate = {})",
@@ -134,6 +164,17 @@ public class ShareResource {
 			receivingInstitutionId = destinationInstitutionId;
 		}
 
+		if (size != null) {
+			Long receivingId = checkWithin(id, receivingInstitutionId);
+			try {
+				KeysetPage<CredentialShareDTO> page = shareKeysetQueryService.findReceivedByInstitutionId(id,
+						studentSearchTerm, issuingInstitutionId, receivingId, transcriptType, start, end, cursor, size);
+				return new ResponseEntity<>(page, HttpStatus.OK);
+			} catch (IllegalArgumentException e) {
+				throw invalidCursor(e);
+			}
+		}
+
 		Shares response = shareService.getReceivedCredentialStatsByInstitutionId(id, studentSearchTerm,
 				issuingInstitutionId, receivingInstitutionId, transcriptType, start, end);
 
@@ -143,7 +184,7 @@ public class ShareResource {
 
 	@GetMapping("/institutions/{id}/credentialshares")
 	@Timed
-	public ResponseEntity<Shares> getCredentialSharesStatsByInstitutionId(@PathVariable Long id,
+	public ResponseEntity<?> getCredentialSharesStatsByInstitutionId(@PathVariable Long id,
 			@RequestParam(value = "studentSearchTerm", required = false) String studentSearchTerm,
 			@RequestParam(value = "sentToType", required = false) String sentToType,
 			@RequestParam(value = "sentToEmailAddress", required = false) String sentToEmailAddress,
@@ -151,7 +192,9 @@ public class ShareResource {
 			@RequestParam(value = "sentFromInstitutionId", required = false) Long sentFromInstitutionId,
 			@RequestParam(value = "startDate", required = false) Long startDate,
 			@RequestParam(value = "endDate", required = false) Long endDate,
-			@RequestParam(value = "individualStudentShareActivity", required = false) boolean individualStudentShareActivity) {
+			@RequestParam(value = "individualStudentShareActivity", required = false) boolean individualStudentShareActivity,
+			@RequestParam(value = "cursor", required = false) String cursor,
+			@RequestParam(value = "size", required = false) Integer size) {
 
 		// my transcript that is shared
 
@@ -167,6 +210,18 @@ public class ShareResource {
 			end = Instant.ofEpochMilli(endDate).atZone(ZoneId.systemDefault()).toLocalDate();
 		}
 
+		if (size != null) {
+			Long sentFromId = checkWithin(id, sentFromInstitutionId);
+			try {
+				KeysetPage<CredentialShareDTO> page = shareKeysetQueryService.findSentByInstitutionId(id, false,
+						studentSearchTerm, sentFromId, sentToType, sentToInstitutionId, sentToEmailAddress,
+						individualStudentShareActivity, start, end, cursor, size);
+				return new ResponseEntity<>(page, HttpStatus.OK);
+			} catch (IllegalArgumentException e) {
+				throw invalidCursor(e);
+			}
+		}
+
 		Shares response = shareService.getCredentialSharesStatsByInstitutionId(id, studentSearchTerm,
 				sentFromInstitutionId, sentToType, sentToInstitutionId, sentToEmailAddress, start, end,
 				individualStudentShareActivity);
@@ -177,7 +232,7 @@ public class ShareResource {
 
 	@GetMapping("/institutions/{id}/certificateshares")
 	@Timed
-	public ResponseEntity<Shares> getCertificateSharesStatsByInstitutionId(@PathVariable Long id,
+	public ResponseEntity<?> getCertificateSharesStatsByInstitutionId(@PathVariable Long id,
 			@RequestParam(value = "studentSearchTerm", required = false) String studentSearchTerm,
 			@RequestParam(value = "sentToType", required = false) String sentToType,
 			@RequestParam(value = "sentToEmailAddress", required = false) String sentToEmailAddress,
@@ -185,7 +240,9 @@ public class ShareResource {
 			@RequestParam(value = "sentFromInstitutionId", required = false) Long sentFromInstitutionId,
 			@RequestParam(value = "startDate", required = false) Long startDate,
 			@RequestParam(value = "endDate", required = false) Long endDate,
-			@RequestParam(value = "individualStudentShareActivity", required = false) boolean individualStudentShareActivity) {
+			@RequestParam(value = "individualStudentShareActivity", required = false) boolean individualStudentShareActivity,
+			@RequestParam(value = "cursor", required = false) String cursor,
+			@RequestParam(value = "size", required = false) Integer size) {
 
 		// my certificate that is shared
 
@@ -201,6 +258,18 @@ public class ShareResource {
 			end = Instant.ofEpochMilli(endDate).atZone(ZoneId.systemDefault()).toLocalDate();
 		}
 
+		if (size != null) {
+			Long sentFromId = checkWithin(id, sentFromInstitutionId);
+			try {
+				KeysetPage<CredentialShareDTO> page = shareKeysetQueryService.findSentByInstitutionId(id, true,
+						studentSearchTerm, sentFromId, sentToType, sentToInstitutionId, sentToEmailAddress,
+						individualStudentShareActivity, start, end, cursor, size);
+				return new ResponseEntity<>(page, HttpStatus.OK);
+			} catch (IllegalArgumentException e) {
+				throw invalidCursor(e);
+			}
+		}
+
 		Shares response = shareService.getCertificateSharesStatsByInstitutionId(id, studentSearchTerm,
 				sentFromInstitutionId, sentToType, sentToInstitutionId, sentToEmailAddress, start, end,
 				individualStudentShareActivity);
@@ -209,6 +278,100 @@ public class ShareResource {
 
 	}
 
+	/**
+	 * Check that a sub-institution filter of a keyset listing is the institution
+	 * or one of its campuses.
+	 */
+	private Long checkWithin(Long id, Long institutionId) {
+		if (institutionId != null && !institutionHierarchyService.getHierarchy().isWithin(id, institutionId)) {
+			throw new BadRequestAlertException("Institution " + institutionId + " is not within institution " + id,
+					"share", "institutionnotwithin");
+		}
+		return institutionId;
+	}
+
+	private BadRequestAlertException invalidCursor(IllegalArgumentException e) {
+		return new BadRequestAlertException(e.getMessage(), "share", "invalidcursor");
+	}
+
+	/**
+	 * GET /institutions/{id}/shares/summary : get share counts per credential
+	 * type for an institution, to go with the paginated share listings. Takes
+	 * the filters of the listing of its direction.
+	 *
+	 * @param id          the institution id
+	 * @param direction   "received" for shares received by the institution, "sent"
+	 *                    for shares sent from it
+	 * @param certificate for sent shares, only certificates when true, only
+	 *                    credentials when false, both when absent
+	 * @return the ResponseEntity with status 200 (OK) and the counts in body
+	 */
+	@GetMapping("/institutions/{id}/shares/summary")
+	@Timed
+	public ResponseEntity<List<Map<String, Object>>> getSharesSummaryByInstitutionId(@PathVariable Long id,
+			@RequestParam(value = "direction", defaultValue = "received") String direction,
+			@RequestParam(value = "studentSearchTerm", required = false) String studentSearchTerm,
+			@RequestParam(value = "transcriptType", required = false) String transcriptType,
+			@RequestParam(value = "issuingInstitutionId", required = false) Long issuingInstitutionId,
+			@RequestParam(value = "receivingInstitutionId", required = false) Long receivingInstitutionId,
+			@RequestParam(value = "destinationInstitutionId", required = false) Long destinationInstitutionId,
+			@RequestParam(value = "certificate", required = false) Boolean certificate,
+			@RequestParam(value = "sentToType", required = false) String sentToType,
+			@RequestParam(value = "sentToEmailAddress", required = false) String sentToEmailAddress,
+			@RequestParam(value = "sentToInstitutionId", required = false) Long sentToInstitutionId,
+			@RequestParam(value = "sentFromInstitutionId", required = false) Long sentFromInstitutionId,
+			@RequestParam(value = "individualStudentShareActivity", required = false) boolean individualStudentShareActivity,
+			@RequestParam(value = "startDate", required = false) Long startDate,
+			@RequestParam(value = "endDate", required = false) Long endDate) {
+		log.debug("REST request to get shares summary for institution : {}, direction : {}", id, direction);
+		LocalDate start = null;
+		LocalDate end = null;
+		if (startDate != null) {
+			start = Instant.ofEpochMilli(startDate).atZone(ZoneId.systemDefault()).toLocalDate();
+		}
+		if (endDate != null) {
+			end = Instant.ofEpochMilli(endDate).atZone(ZoneId.systemDefault()).toLocalDate();
+		}
+		List<Map<String, Object>> response;
+		if ("sent".equals(direction)) {
+			Long sentFromId = checkWithin(id, sentFromInstitutionId);
+			response = shareKeysetQueryService.getSentSummary(id, certificate, studentSearchTerm, sentFromId,
+					sentToType, sentToInstitutionId, sentToEmailAddress, individualStudentShareActivity, start, end);
+		} else {
+			Long receivingId = checkWithin(id,
+					receivingInstitutionId != null ? receivingInstitutionId : destinationInstitutionId);
+			response = shareKeysetQueryService.getReceivedSummary(id, studentSearchTerm, issuingInstitutionId,
+					receivingId, transcriptType, start, end);
+		}
+		return new ResponseEntity<>(response, HttpStatus.OK);
+	}
+
+	/**
+	 * GET /institutions/{id}/shares/daily : get the pre-aggregated daily share
+	 * counts of an institution.
+	 *
+	 * @param id the institution id
+	 * @return the ResponseEntity with status 200 (OK) and one row per day,
+	 *         direction and credential type in body
+	 */
+	@GetMapping("/institutions/{id}/shares/daily")
+	@Timed
+	public ResponseEntity<List<Map<String, Object>>> getDailyShareStatsByInstitutionId(@PathVariable Long id,
+			@RequestParam(value = "startDate", required = false) Long startDate,
+			@RequestParam(value = "endDate", required = false) Long endDate) {
+		log.debug("REST request to get daily share statistics for institution : {}", id);
+		LocalDate start = null;
+		LocalDate end = null;
+		if (startDate != null) {
+			start = Instant.ofEpochMilli(startDate).atZone(ZoneId.systemDefault()).toLocalDate();
+		}
+		if (endDate != null) {
+			end = Instant.ofEpochMilli(endDate).atZone(ZoneId.systemDefault()).toLocalDate();
+		}
+		List<Map<String, Object>> response = institutionShareStatsService.getDailyStats(id, start, end);
+		return new ResponseEntity<>(response, HttpStatus.OK);
+	}
+
 	@GetMapping("share/{id}")
 	@Timed
 	public ResponseEntity<?> getSharesByInstitutionId(@PathVariable Long id) {
@@ -282,6 +445,7 @@ public class ShareResource {
 					"sharedRequestDTO", "idexists");
 		}
 		RecomLetterShareRequestDTO result = shareService.saveRecomLetterShare(sharedRequestDTO);
+		institutionShareStatsService.shareCreated();
 		return ResponseEntity.created(new URI("/api/reccommendationletter/share" + result.getId()))
 				.headers(HeaderUtil.createEntityCreationAlert("", result.getId().toString())).body(result);
 	}
@@ -299,6 +463,7 @@ public class ShareResource {
 					"certSharedRequestDTO", "idexists");
 		}
 		CertificateSharedRequestDTO result = shareService.saveCertificateShare(certSharedRequestDTO);
+		institutionShareStatsService.shareCreated();
 		return ResponseEntity.created(new URI("/api/certificate/share" + result.getId()))
 				.headers(HeaderUtil.createEntityCreationAlert("", result.getId().toString())).body(result);
 	}
@@ -316,6 +481,7 @@ public class ShareResource {
 					"idexists");
 		}
 		ResumeSharedRequestDTO result = shareService.saveResumeShare(resumeSharedRequestDTO);
+		institutionShareStatsService.shareCreated();
 		return ResponseEntity.created(new URI("/api/resume/share" + result.getId()))
 				.headers(HeaderUtil.createEntityCreationAlert("", result.getId().toString())).body(result);
 	}
@@ -333,6 +499,7 @@ public class ShareResource {
 					"otherCredSharedRequestDTO", "idexists");
 		}
 		OtherCredentialsRequestDTO result = shareService.saveOtherCredentialsShare(otherCredSharedRequestDTO);
+		institutionShareStatsService.shareCreated();
 		return ResponseEntity.created(new URI("/api/other/credential/share" + result.getId()))
 				.headers(HeaderUtil.createEntityCreationAlert("", result.getId().toString())).body(result);
 	}
@@ -350,6 +517,7 @@ public class ShareResource {
 					"selfUploadTranscriptDTO", "idexists");
 		}
 		SelfUploadedTranscriptRequestDTO result = shareService.saveTranscriptShare(selfUploadTranscriptDTO);
+		institutionShareStatsService.shareCreated();
 		return ResponseEntity.created(new URI("/api/selfupload/transcript/share" + result.getId()))
 				.headers(HeaderUtil.createEntityCreationAlert("", result.getId().toString())).body(result);
 	}
@@ -364,6 +532,7 @@ public class ShareResource {
 					"idexists");
 		}
 		SarSharedRequestDTO result = shareService.saveSarShare(sharedRequestDTO);
+		institutionShareStatsService.shareCreated();
 		return ResponseEntity.created(new URI("/api/sar/share" + result.getId()))
 				.headers(HeaderUtil.createEntityCreationAlert("", result.getId().toString())).body(result);
 	}
@@ -379,6 +548,7 @@ public class ShareResource {
 					"accomplishmentSharedRequestDTO", "idexists");
 		}
 		AccomplishmentSharedRequestDTO result = shareService.saveAccomplishmentShare(accomplishmentSharedRequestDTO);
+		institutionShareStatsService.shareCreated();
 		return ResponseEntity.created(new URI("/api/accomplishment/share" + result.getId()))
 				.headers(HeaderUtil.createEntityCreationAlert("", result.getId().toString())).body(result);
 	}
@@ -410,6 +580,54 @@ public class ShareResource {
 		return new ResponseEntity<>(result, HttpStatus.OK);
 	}
 
+	/**
+	 * POST /download/shares/{institutionId}/jobs : submit a background zip export
+	 * of the selected shares.
+	 *
+	 * @param institutionId the institution requesting the export
+	 * @param shareIds      the shares to export
+	 * @return the ResponseEntity with status 202 (Accepted) and the queued job,
+	 *         or with status 400 (Bad Request) if the institution already has
+	 *         too many exports in progress
+	 * @throws AccessDeniedException if the user does not belong to the
+	 *                               institution
+	 */
+	@PostMapping("/download/shares/{institutionId}/jobs")
+	@Timed
+	public ResponseEntity<ShareExportJobDTO> submitSharesZipFileJob(@PathVariable Long institutionId,
+			@Valid @RequestBody List<Long> shareIds) {
+		log.debug("REST request to submit shares zip export for institution id : {}", institutionId);
+		if (!authorizationService.ownedByInstitution(institutionId)) {
+			throw new AccessDeniedException(GlConstraints.OWNER);
+		}
+		if (shareIds == null || shareIds.isEmpty()) {
+			throw new BadRequestAlertException("No shares selected", "shareExport", "idnull");
+		}
+		try {
+			ShareExportJobDTO job = shareExportJobService.submit(institutionId, shareIds,
+					SecurityUtils.getCurrentUserLogin().orElse(null));
+			return new ResponseEntity<>(job, HttpStatus.ACCEPTED);
+		} catch (RejectedExecutionException e) {
+			throw new BadRequestAlertException(e.getMessage(), "shareExport", "exportlimit");
+		}
+	}
+
+	/**
+	 * GET /download/shares/jobs/{jobId} : poll a background zip export.
+	 *
+	 * @param jobId the job id returned on submit
+	 * @return the ResponseEntity with status 200 (OK) and the job, with the zip
+	 *         file details in its result once completed, or with status 404 (Not
+	 *         Found) if it is unknown or was submitted by another user
+	 */
+	@GetMapping("/download/shares/jobs/{jobId}")
+	@Timed
+	public ResponseEntity<ShareExportJobDTO> getSharesZipFileJob(@PathVariable String jobId) {
+		log.debug("REST request to get shares zip export job : {}", jobId);
+		return ResponseUtil.wrapOrNotFound(
+				shareExportJobService.findOne(jobId, SecurityUtils.getCurrentUserLogin().orElse(null)));
+	}
+
 //	@PostMapping("/multiple/credential/share")
 //	@Timed
 //	public ResponseEntity<Map<String, Object>> createBulkShare(
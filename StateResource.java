@@ -23,6 +23,8 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.codahale.metrics.annotation.Timed;
 import com.gl.platform.domain.StateCounty;
+import com.gl.platform.service.ReferenceDataService;
+import com.gl.platform.service.ReferenceDataService.Dataset;
 import com.gl.platform.service.StateService;
 import com.gl.platform.service.dto.StateDTO;
 import com.gl.platform.web.rest.errors.BadRequestAlertException;
@@ -44,9 +46,11 @@ public class StateResource {
 
 	private final StateService stateService;
 
+	private final ReferenceDataService referenceDataService;
 
-	public StateResource(StateService stateService) {
+	public StateResource(StateService stateService, ReferenceDataService referenceDataService) {
 		this.stateService = stateService;
+		this.referenceDataService = referenceDataService;
 	}
 
 	/**
@@ -66,6 +70,7 @@ public class StateResource {
 			throw new BadRequestAlertException("A new state cannot already have an ID", ENTITY_NAME, "idexists");
 		}
 		StateDTO result = stateService.save(stateDTO);
+		referenceDataService.refresh(Dataset.STATES);
 		return ResponseEntity.created(new URI("/api/states/" + result.getId()))
 				.headers(HeaderUtil.createEntityCreationAlert(ENTITY_NAME, result.getId().toString())).body(result);
 	}
@@ -88,6 +93,7 @@ public class StateResource {
 			throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
 		}
 		StateDTO result = stateService.save(stateDTO);
+		referenceDataService.refresh(Dataset.STATES);
 		return ResponseEntity.ok().headers(HeaderUtil.createEntityUpdateAlert(ENTITY_NAME, stateDTO.getId().toString()))
 				.body(result);
 	}
@@ -134,8 +140,7 @@ public class StateResource {
 	@Timed
 	public ResponseEntity<List<StateDTO>> getStates() {
 		log.debug("REST request to get List of State :");
-		List<StateDTO> states = stateService.listOfStates();
-		return new ResponseEntity<>(states,HttpStatus.OK);
+		return referenceDataService.respond(Dataset.STATES);
 	}
 	
 	
@@ -153,6 +158,7 @@ public class StateResource {
 	public ResponseEntity<Void> deleteState(@PathVariable Long id) {
 		log.debug("REST request to delete State : {}", id);
 		stateService.delete(id);
+		referenceDataService.refresh(Dataset.STATES);
 		return ResponseEntity.ok().headers(HeaderUtil.createEntityDeletionAlert(ENTITY_NAME, id.toString())).build();
 	}
 	
@@ -168,7 +174,6 @@ public class StateResource {
 	@Timed
 	public ResponseEntity<List<StateCounty>> getStateCounties(@PathVariable Long stateId) {
 		log.debug("REST request to get State counties by stateId : {}", stateId);
-		List<StateCounty> counties = stateService.findStateCountiesByStateId(stateId);
-		return new ResponseEntity<>(counties,HttpStatus.OK);
+		return referenceDataService.respond(Dataset.STATE_COUNTIES, stateId);
 	}
 }
@@ -1,11 +1,15 @@
 package com.gl.platform.web.rest;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
+import javax.servlet.http.HttpServletResponse;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -13,11 +17,16 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.gl.platform.aop.routing.ReadReplica;
 import com.gl.platform.service.AuthorizationService;
+import com.gl.platform.service.ReportCacheService;
+import com.gl.platform.service.ReportCacheService.Topic;
+import com.gl.platform.service.ReportStreamingService;
 import com.gl.platform.service.StatisticsService;
 import com.gl.platform.service.dto.StatisticsRequestDTO;
 import com.gl.platform.service.util.GlConstraints;
@@ -26,6 +35,7 @@ import javassist.NotFoundException;
 
 @RestController
 @RequestMapping("/api/analytics")
+@ReadReplica
 public class StatisticsResource {
 
 	private final Logger log = LoggerFactory.getLogger(this.getClass());
@@ -36,6 +46,12 @@ public class StatisticsResource {
 	@Autowired
 	private StatisticsService statisticsService;
 
+	@Autowired
+	private ReportStreamingService reportStreamingService;
+
+	@Autowired
+	private ReportCacheService reportCacheService;
+
 	public static final String OWNER = "not the owner";
 
 	@GetMapping("/dashboard/{institutionId}")
@@ -55,7 +71,9 @@ public class StatisticsResource {
 			@RequestParam(value = "childInstitutionId", required = false) Long childInstitutionId,
 			@RequestParam(value = "fromDate", required = false) String fromDate,
 			@RequestParam(value = "toDate", required = false) String toDate,
-			@RequestParam(value = "isCurrentlyEnrolled", required = false) Boolean isCurrentlyEnrolled) {
+			@RequestParam(value = "isCurrentlyEnrolled", required = false) Boolean isCurrentlyEnrolled,
+			@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+			HttpServletResponse servletResponse) throws IOException {
 		log.info("REST request to get the stduent participation statistics for institution : {}", institutionId);
 		if (!authorizationService.isMarketingUser() && !authorizationService.isCounsellor()) {
 			throw new AccessDeniedException(OWNER);
@@ -63,7 +81,7 @@ public class StatisticsResource {
 		isCurrentlyEnrolled = isCurrentlyEnrolled == null ? Boolean.FALSE : isCurrentlyEnrolled;
 		List<Map<String, Object>> response = statisticsService.getStudentParticipationReport(institutionId,
 				childInstitutionId, fromDate, toDate, isCurrentlyEnrolled);
-		return new ResponseEntity<>(response, HttpStatus.OK);
+		return reportStreamingService.respond(accept, "student-participation-report", response, servletResponse);
 	}
 
 	@GetMapping("/students/jobs/report")
@@ -73,14 +91,16 @@ public class StatisticsResource {
 			@RequestParam(value = "employerId", required = false) String employerId,
 			@RequestParam(value = "status", required = true) String status,
 			@RequestParam(value = "fromDate", required = false) String fromDate,
-			@RequestParam(value = "toDate", required = false) String toDate) {
+			@RequestParam(value = "toDate", required = false) String toDate,
+			@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+			HttpServletResponse servletResponse) throws IOException {
 		log.info("REST request to get the stduents jobs report statistics for institution : {}", institutionId);
 		if (!authorizationService.isMarketingUser()) {
 			throw new AccessDeniedException(OWNER);
 		}
 		List<Map<String, Object>> response = statisticsService.getStudentsAppliedJobsReport(institutionId,
 				childInstitutionId, employerId, fromDate, toDate, status);
-		return new ResponseEntity<>(response, HttpStatus.OK);
+		return reportStreamingService.respond(accept, "students-jobs-report", response, servletResponse);
 	}
 
 	@PostMapping("/students/resgistartion/report")
@@ -103,7 +123,8 @@ public class StatisticsResource {
 		if (!authorizationService.ownedByInstitution(Long.parseLong(statisTicsRequestDTO.getInstitutionId()))) {
 			throw new AccessDeniedException(GlConstraints.OWNER);
 		}
-		Map<String, Object> response = statisticsService.getOverAllStudentsRegistrationReport(statisTicsRequestDTO);
+		Map<String, Object> response = reportCacheService.get("overall-registration", statisTicsRequestDTO,
+				() -> statisticsService.getOverAllStudentsRegistrationReport(statisTicsRequestDTO), Topic.REGISTRATION);
 		return new ResponseEntity<>(response, HttpStatus.OK);
 	}
 
@@ -114,7 +135,8 @@ public class StatisticsResource {
 		if (!authorizationService.isMarketingUser()) {
 			throw new AccessDeniedException(OWNER);
 		}
-		List<Map<String, Object>> response = statisticsService.getJobPostingsReportForMarketing(statisTicsRequestDTO);
+		List<Map<String, Object>> response = reportCacheService.get("marketing-job-postings", statisTicsRequestDTO,
+				() -> statisticsService.getJobPostingsReportForMarketing(statisTicsRequestDTO), Topic.JOB_POSTING);
 		return new ResponseEntity<>(response, HttpStatus.OK);
 	}
 
@@ -125,8 +147,10 @@ public class StatisticsResource {
 		if (!authorizationService.isMarketingUser()) {
 			throw new AccessDeniedException(OWNER);
 		}
-		List<Map<String, Object>> response = statisticsService
-				.getApplicantJobStatusReportForMarketing(statisTicsRequestDTO);
+		List<Map<String, Object>> response = reportCacheService.get("marketing-applicant-job-status",
+				statisTicsRequestDTO,
+				() -> statisticsService.getApplicantJobStatusReportForMarketing(statisTicsRequestDTO),
+				Topic.JOB_POSTING, Topic.JOB_APPLICATION);
 		return new ResponseEntity<>(response, HttpStatus.OK);
 	}
 
@@ -137,7 +161,9 @@ public class StatisticsResource {
 		if (!authorizationService.isMarketingUser()) {
 			throw new AccessDeniedException(OWNER);
 		}
-		Map<String, Object> response = statisticsService.getGreenLightJobAnalytics(statisTicsRequestDTO);
+		Map<String, Object> response = reportCacheService.get("marketing-job-analytics", statisTicsRequestDTO,
+				() -> statisticsService.getGreenLightJobAnalytics(statisTicsRequestDTO), Topic.JOB_POSTING,
+				Topic.JOB_APPLICATION);
 		return new ResponseEntity<>(response, HttpStatus.OK);
 	}
 
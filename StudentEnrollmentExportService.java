@@ -0,0 +1,151 @@
+package com.gl.platform.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.stereotype.Service;
+
+import com.gl.platform.repository.NamedQuery;
+import com.gl.platform.repository.NamedQueryRegistry;
+import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
+import com.opencsv.CSVWriter;
+
+/**
+ * Service exporting the enrollment UUID of a list of students of an
+ * institution.
+ * <p>
+ * Student numbers are read from the uploaded csv file in chunks of
+ * {@link #CHUNK_SIZE} and each chunk is resolved with a single query joining
+ * students to their enrollments, instead of two lookups per student. Rows are
+ * written out chunk by chunk in input order, so neither the input nor the
+ * output is ever held in memory as a whole.
+ */
+@Service
+public class StudentEnrollmentExportService {
+
+	private final Logger log = LoggerFactory.getLogger(StudentEnrollmentExportService.class);
+
+	public static final int CHUNK_SIZE = 1000;
+
+	/**
+	 * Prefix of every enrollment export object; exports never write outside it.
+	 */
+	public static final String S3_EXPORT_PREFIX = "exports/enrollments/";
+
+	private static final String[] HEADER = { "studentNumber", "enrollmentUUID" };
+
+	private final NamedQuery enrollmentsQuery;
+
+	private final S3ObjectStreamingService s3ObjectStreamingService;
+
+	public StudentEnrollmentExportService(NamedQueryRegistry namedQueryRegistry,
+			S3ObjectStreamingService s3ObjectStreamingService) {
+		this.enrollmentsQuery = namedQueryRegistry.get("student-export", "student.enrollments.by.student.numbers");
+		this.s3ObjectStreamingService = s3ObjectStreamingService;
+	}
+
+	/**
+	 * Write the enrollment UUID of every student number of a csv file. The first
+	 * line of the input is a header and every other cell is a student number.
+	 * Students without an enrollment in the institution are left out.
+	 *
+	 * @param in            the csv file of student numbers, not closed by this
+	 *                      method
+	 * @param institutionId the institution whose enrollments are exported
+	 * @param out           where to write the studentNumber,enrollmentUUID csv,
+	 *                      flushed after each chunk but not closed
+	 * @return the number of rows written, header excluded
+	 * @throws IOException if reading or writing fails
+	 */
+	private long export(Reader in, Long institutionId, Writer out) throws IOException {
+		CSVReader csvReader = new CSVReaderBuilder(in).withSkipLines(1).build();
+		CSVWriter writer = new CSVWriter(out);
+		writer.writeNext(HEADER);
+
+		long written = 0;
+		List<String> chunk = new ArrayList<>(CHUNK_SIZE);
+		for (String[] row : csvReader) {
+			for (String cell : row) {
+				if (cell == null || cell.isEmpty()) {
+					continue;
+				}
+				chunk.add(cell);
+				if (chunk.size() == CHUNK_SIZE) {
+					written += writeChunk(chunk, institutionId, writer);
+					chunk.clear();
+				}
+			}
+		}
+		if (!chunk.isEmpty()) {
+			written += writeChunk(chunk, institutionId, writer);
+		}
+		writer.flush();
+		return written;
+	}
+
+	/**
+	 * Export the enrollment UUID of every student number of a csv file to S3.
+	 * The object key is generated under {@link #S3_EXPORT_PREFIX} and the
+	 * institution id, so an export can never overwrite another object.
+	 *
+	 * @param in            the csv file of student numbers, not closed by this
+	 *                      method
+	 * @param institutionId the institution the export is made for
+	 * @return the object key and the number of rows written
+	 * @throws IOException if reading or spooling the export fails
+	 */
+	public Map<String, Object> exportToS3(Reader in, Long institutionId) throws IOException {
+		String key = S3_EXPORT_PREFIX + institutionId + "/" + UUID.randomUUID() + ".csv";
+		Path spool = Files.createTempFile("enrollment-export-", ".csv");
+		try {
+			long written;
+			try (Writer out = Files.newBufferedWriter(spool, StandardCharsets.UTF_8)) {
+				written = export(in, institutionId, out);
+			}
+			s3ObjectStreamingService.upload(key, spool.toFile(), "text/csv");
+			log.info("Exported {} student enrollments to {}", written, key);
+
+			Map<String, Object> result = new HashMap<>();
+			result.put("key", key);
+			result.put("rows", written);
+			return result;
+		} finally {
+			FileUtils.deleteQuietly(spool.toFile());
+		}
+	}
+
+	private int writeChunk(List<String> studentNumbers, Long institutionId, CSVWriter writer) throws IOException {
+		Map<String, String> enrollmentByStudentNumber = new HashMap<>(studentNumbers.size() * 2);
+		MapSqlParameterSource params = new MapSqlParameterSource("studentNumbers", studentNumbers)
+				.addValue("institutionId", institutionId);
+		enrollmentsQuery.query(params, rs -> {
+			enrollmentByStudentNumber.putIfAbsent(rs.getString("school_student_id"), rs.getString("enrollment_uuid"));
+		});
+
+		int written = 0;
+		for (String studentNumber : studentNumbers) {
+			String enrollmentUuid = enrollmentByStudentNumber.get(studentNumber);
+			if (enrollmentUuid != null) {
+				writer.writeNext(new String[] { studentNumber, enrollmentUuid });
+				written++;
+			}
+		}
+		writer.flush();
+		log.debug("Resolved {} of {} student numbers", written, studentNumbers.size());
+		return written;
+	}
+}
@@ -1,13 +1,17 @@
 package com.gl.platform.web.rest;
 
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Map;
 
+import javax.servlet.http.HttpServletResponse;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -15,10 +19,12 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.gl.platform.service.ReportStreamingService;
 import com.gl.platform.service.TcbStudentSurveyService;
 import com.gl.platform.service.dto.TcbStudentSurveyDTO;
 import com.gl.platform.web.rest.util.HeaderUtil;
@@ -37,6 +43,9 @@ public class TcbStudentSurveyResource {
 	@Autowired
 	private TcbStudentSurveyService tcbStudentSurveyService;
 
+	@Autowired
+	private ReportStreamingService reportStreamingService;
+
 	@PostMapping("/tcb/student/survey")
 	public ResponseEntity<TcbStudentSurveyDTO> createTcbStudentSurvey(
 			@RequestBody TcbStudentSurveyDTO tcbStudentSurveyDTO)
@@ -73,10 +82,12 @@ public class TcbStudentSurveyResource {
 	@GetMapping("/tcb/survey/report")
 	public ResponseEntity<List<Map<String, Object>>> getTcbSurveyReports(
 			@RequestParam("institutionId") String institution,
-			@RequestParam("prefersTranscript") String prefersTranscript) {
+			@RequestParam("prefersTranscript") String prefersTranscript,
+			@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+			HttpServletResponse servletResponse) throws IOException {
 		log.info("REST request to get the tcb survey reports for institution : {}", institution);
 		List<Map<String, Object>> response = tcbStudentSurveyService.getTcbSurveyReportsWithCriteria(institution,
 				prefersTranscript);
-		return new ResponseEntity<>(response, HttpStatus.OK);
+		return reportStreamingService.respond(accept, "tcb-survey-report", response, servletResponse);
 	}
 }
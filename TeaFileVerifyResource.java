@@ -1,14 +1,11 @@
 package com.gl.platform.web.rest;
 
 import java.io.BufferedReader;
-import java.io.File;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -54,14 +51,12 @@ public class TeaFileVerifyResource {
 			throw new BadRequestException("Please upload a valid file");
 		}
 
-		File createFile = File.createTempFile("TeaStudentFile", ".csv");
-		file.transferTo(createFile);
-		createFile.deleteOnExit();
-
-		Path myPath = Paths.get(createFile.getAbsolutePath());
 		Map<String, String> response = new HashMap<>();
 
-		try (BufferedReader br = Files.newBufferedReader(myPath, StandardCharsets.UTF_8)) {
+		// the verifier checks rows against each other, so it gets the whole file
+		// in one call; the rows are read from the upload without a temp copy
+		try (BufferedReader br = new BufferedReader(
+				new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
 
 			HeaderColumnNameMappingStrategy<TeaStudentCsvPositioning> strategy = new HeaderColumnNameMappingStrategy<>();
 			strategy.setType(TeaStudentCsvPositioning.class);
@@ -87,14 +82,10 @@ public class TeaFileVerifyResource {
 			throw new BadRequestException("Please upload a valid file");
 		}
 
-		File createFile = File.createTempFile("TeaStudentFile", ".csv");
-		file.transferTo(createFile);
-		createFile.deleteOnExit();
-
-		Path myPath = Paths.get(createFile.getAbsolutePath());
 		Map<String, String> response = new HashMap<>();
 
-		try (BufferedReader br = Files.newBufferedReader(myPath, StandardCharsets.UTF_8)) {
+		try (BufferedReader br = new BufferedReader(
+				new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
 
 			HeaderColumnNameMappingStrategy<TeaSchoolCsvPositioning> strategy = new HeaderColumnNameMappingStrategy<>();
 			strategy.setType(TeaSchoolCsvPositioning.class);
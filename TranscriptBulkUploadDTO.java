@@ -0,0 +1,160 @@
+package com.gl.platform.service.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * A DTO for the progress of a bulk transcript upload.
+ * <p>
+ * Its state is updated by the upload workers while it is being polled, so the
+ * mutable fields are volatile.
+ */
+public class TranscriptBulkUploadDTO implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	public enum FileState {
+		SPOOLED, UPLOADING, COMPLETED, FAILED
+	}
+
+	private String id;
+
+	private Long universityId;
+
+	private Instant submittedDate;
+
+	private volatile Instant completedDate;
+
+	private List<FileProgress> files;
+
+	public String getId() {
+		return id;
+	}
+
+	public void setId(String id) {
+		this.id = id;
+	}
+
+	public Long getUniversityId() {
+		return universityId;
+	}
+
+	public void setUniversityId(Long universityId) {
+		this.universityId = universityId;
+	}
+
+	public Instant getSubmittedDate() {
+		return submittedDate;
+	}
+
+	public void setSubmittedDate(Instant submittedDate) {
+		this.submittedDate = submittedDate;
+	}
+
+	public Instant getCompletedDate() {
+		return completedDate;
+	}
+
+	public void setCompletedDate(Instant completedDate) {
+		this.completedDate = completedDate;
+	}
+
+	public List<FileProgress> getFiles() {
+		return files;
+	}
+
+	public void setFiles(List<FileProgress> files) {
+		this.files = files;
+	}
+
+	public long getCompletedCount() {
+		return files.stream().filter(file -> file.getState() == FileState.COMPLETED).count();
+	}
+
+	public long getFailedCount() {
+		return files.stream().filter(file -> file.getState() == FileState.FAILED).count();
+	}
+
+	/**
+	 * Progress of a single file of the upload.
+	 */
+	public static class FileProgress implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private String fileName;
+
+		private String contentType;
+
+		private long size;
+
+		@JsonIgnore
+		private transient String path;
+
+		private volatile FileState state;
+
+		private volatile Map<String, Object> result;
+
+		private volatile String error;
+
+		public String getFileName() {
+			return fileName;
+		}
+
+		public void setFileName(String fileName) {
+			this.fileName = fileName;
+		}
+
+		public String getContentType() {
+			return contentType;
+		}
+
+		public void setContentType(String contentType) {
+			this.contentType = contentType;
+		}
+
+		public long getSize() {
+			return size;
+		}
+
+		public void setSize(long size) {
+			this.size = size;
+		}
+
+		public String getPath() {
+			return path;
+		}
+
+		public void setPath(String path) {
+			this.path = path;
+		}
+
+		public FileState getState() {
+			return state;
+		}
+
+		public void setState(FileState state) {
+			this.state = state;
+		}
+
+		public Map<String, Object> getResult() {
+			return result;
+		}
+
+		public void setResult(Map<String, Object> result) {
+			this.result = result;
+		}
+
+		public String getError() {
+			return error;
+		}
+
+		public void setError(String error) {
+			this.error = error;
+		}
+	}
+}
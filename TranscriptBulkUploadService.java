@@ -0,0 +1,229 @@
+package com.gl.platform.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.gl.platform.config.ApplicationProperties;
+import com.gl.platform.service.dto.TranscriptBulkUploadDTO;
+import com.gl.platform.service.dto.TranscriptBulkUploadDTO.FileProgress;
+import com.gl.platform.service.dto.TranscriptBulkUploadDTO.FileState;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Service for pipelined bulk transcript uploads.
+ * <p>
+ * The request thread only spools the files to disk. Each file is then handed
+ * to {@link TranscriptsService#uploadTranscript} on its own on a bounded upload
+ * pool, whose queue holds at most {@link #QUEUE_CAPACITY} files. As for the
+ * single upload endpoint, a file is uploaded when that call returns and failed
+ * when it throws; its result map is kept with the file. Progress is tracked per
+ * file and can be polled by upload id.
+ */
+@Service
+public class TranscriptBulkUploadService {
+
+	private final Logger log = LoggerFactory.getLogger(TranscriptBulkUploadService.class);
+
+	private static final int QUEUE_CAPACITY = 500;
+
+	private final TranscriptsService transcriptsService;
+
+	private final ThreadPoolExecutor uploadExecutor;
+
+	private final Cache<String, TranscriptBulkUploadDTO> uploads = CacheBuilder.newBuilder().maximumSize(1000)
+			.expireAfterWrite(24, TimeUnit.HOURS).build();
+
+	public TranscriptBulkUploadService(TranscriptsService transcriptsService,
+			ApplicationProperties applicationProperties) {
+		this.transcriptsService = transcriptsService;
+		int poolSize = applicationProperties.getTranscriptUploadPoolSize();
+		this.uploadExecutor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(QUEUE_CAPACITY), new CustomizableThreadFactory("transcript-upload-"));
+	}
+
+	/**
+	 * Spool the files to disk and start processing them in the background.
+	 *
+	 * @return the upload progress, with every file in state SPOOLED
+	 * @throws IOException                if a file cannot be spooled
+	 * @throws RejectedExecutionException if the upload queue cannot take the
+	 *                                    files
+	 */
+	public TranscriptBulkUploadDTO submit(MultipartFile[] files, String email, Long universityId,
+			Boolean sendEnrollmentEmail) throws IOException {
+		if (uploadExecutor.getQueue().remainingCapacity() < files.length) {
+			throw new RejectedExecutionException("Transcript upload queue cannot take " + files.length + " files");
+		}
+		Path directory = Files.createTempDirectory("transcript-upload-");
+		List<FileProgress> progress = new ArrayList<>(files.length);
+		try {
+			for (int i = 0; i < files.length; i++) {
+				Path path = directory.resolve(i + ".part");
+				try (InputStream in = files[i].getInputStream()) {
+					Files.copy(in, path, StandardCopyOption.REPLACE_EXISTING);
+				}
+				FileProgress file = new FileProgress();
+				file.setFileName(files[i].getOriginalFilename());
+				file.setContentType(files[i].getContentType());
+				file.setSize(files[i].getSize());
+				file.setPath(path.toString());
+				file.setState(FileState.SPOOLED);
+				progress.add(file);
+			}
+		} catch (IOException e) {
+			FileUtils.deleteQuietly(directory.toFile());
+			throw e;
+		}
+
+		TranscriptBulkUploadDTO upload = new TranscriptBulkUploadDTO();
+		upload.setId(UUID.randomUUID().toString());
+		upload.setUniversityId(universityId);
+		upload.setSubmittedDate(Instant.now());
+		upload.setFiles(progress);
+		uploads.put(upload.getId(), upload);
+		log.info("Spooled {} transcript files for bulk upload {}", files.length, upload.getId());
+
+		Executor uploader = new DelegatingSecurityContextExecutor(uploadExecutor, SecurityContextHolder.getContext());
+		CompletableFuture<?>[] pipeline = progress.stream()
+				.map(file -> start(file, uploader, email, universityId, sendEnrollmentEmail))
+				.toArray(CompletableFuture[]::new);
+		CompletableFuture.allOf(pipeline).whenComplete((result, e) -> {
+			upload.setCompletedDate(Instant.now());
+			FileUtils.deleteQuietly(directory.toFile());
+			log.info("Completed bulk upload {} : {} completed, {} failed", upload.getId(), upload.getCompletedCount(),
+					upload.getFailedCount());
+		});
+		return upload;
+	}
+
+	/**
+	 * Get the progress of a bulk upload.
+	 *
+	 * @param uploadId the upload id
+	 * @return the progress, or empty if it is unknown or has expired
+	 */
+	public Optional<TranscriptBulkUploadDTO> findOne(String uploadId) {
+		return Optional.ofNullable(uploads.getIfPresent(uploadId));
+	}
+
+	private CompletableFuture<Void> start(FileProgress file, Executor uploader, String email, Long universityId,
+			Boolean sendEnrollmentEmail) {
+		try {
+			return CompletableFuture.runAsync(() -> upload(file, email, universityId, sendEnrollmentEmail), uploader);
+		} catch (RejectedExecutionException e) {
+			// another upload filled the queue since the capacity check
+			fail(file, e);
+			return CompletableFuture.completedFuture(null);
+		}
+	}
+
+	private void upload(FileProgress file, String email, Long universityId, Boolean sendEnrollmentEmail) {
+		file.setState(FileState.UPLOADING);
+		try {
+			MultipartFile multipartFile = new SpooledMultipartFile(new File(file.getPath()), file.getFileName(),
+					file.getContentType());
+			file.setResult(transcriptsService.uploadTranscript(new MultipartFile[] { multipartFile }, email,
+					universityId, sendEnrollmentEmail));
+			file.setState(FileState.COMPLETED);
+		} catch (Exception e) {
+			fail(file, e);
+		}
+	}
+
+	private Void fail(FileProgress file, Throwable e) {
+		log.error("Bulk upload of transcript {} failed", file.getFileName(), e);
+		file.setError(e.getMessage());
+		file.setState(FileState.FAILED);
+		return null;
+	}
+
+	@PreDestroy
+	public void destroy() {
+		uploadExecutor.shutdown();
+	}
+
+	/**
+	 * A {@link MultipartFile} backed by a spooled file on disk.
+	 */
+	static class SpooledMultipartFile implements MultipartFile {
+
+		private final File file;
+
+		private final String originalFilename;
+
+		private final String contentType;
+
+		SpooledMultipartFile(File file, String originalFilename, String contentType) {
+			this.file = file;
+			this.originalFilename = originalFilename;
+			this.contentType = contentType;
+		}
+
+		@Override
+		public String getName() {
+			return "files";
+		}
+
+		@Override
+		public String getOriginalFilename() {
+			return originalFilename;
+		}
+
+		@Override
+		public String getContentType() {
+			return contentType;
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return file.length() == 0;
+		}
+
+		@Override
+		public long getSize() {
+			return file.length();
+		}
+
+		@Override
+		public byte[] getBytes() throws IOException {
+			return Files.readAllBytes(file.toPath());
+		}
+
+		@Override
+		public InputStream getInputStream() throws IOException {
+			return Files.newInputStream(file.toPath());
+		}
+
+		@Override
+		public void transferTo(File dest) throws IOException {
+			Files.copy(file.toPath(), dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+}
@@ -1,16 +1,15 @@
 package com.gl.platform.web.rest;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.nio.charset.StandardCharsets;
 import java.text.ParseException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
-import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -31,15 +30,15 @@ import com.gl.platform.repository.UniversityRepository;
 import com.gl.platform.service.AuthorizationService;
 import com.gl.platform.service.GlUserService;
 import com.gl.platform.service.InstitutionService;
-import com.gl.platform.service.S3StorageService;
+import com.gl.platform.service.S3ObjectStreamingService;
+import com.gl.platform.service.PresignedUrlService;
 import com.gl.platform.service.TranscriptCourseQueryService;
 import com.gl.platform.service.TranscriptService;
 import com.gl.platform.service.TranscriptSharedService;
-import com.gl.platform.service.TranscriptsService;
+import com.gl.platform.service.TranscriptVerificationService;
 import com.gl.platform.service.UserActivityQueryService;
 import com.gl.platform.service.dto.GlUserDTO;
 import com.gl.platform.service.dto.InstitutionDTO;
-import com.gl.platform.service.dto.NamedInputStreamWrapper;
 import com.gl.platform.service.dto.TranscriptCourseCriteria;
 import com.gl.platform.service.dto.TranscriptCourseDTO;
 import com.gl.platform.service.dto.TranscriptDTO;
@@ -50,7 +49,6 @@ import com.gl.platform.service.dto.TranscriptsStatusReasonDTO;
 import com.gl.platform.service.dto.UserActivityCriteria;
 import com.gl.platform.service.dto.UserActivityDTO;
 import com.gl.platform.web.rest.errors.BadRequestAlertException;
-import com.google.common.hash.Hashing;
 
 import io.github.jhipster.service.filter.LongFilter;
 import io.github.jhipster.service.filter.StringFilter;
@@ -81,17 +79,20 @@ public class TranscriptResource {
 	private GlUserService glUserService;
 
 	@Autowired
-	private S3StorageService s3StorageService;
+	private PresignedUrlService presignedUrlService;
 
 	@Autowired
-	private UniversityRepository universityRepository;
+	private S3ObjectStreamingService s3ObjectStreamingService;
 
 	@Autowired
-	private TranscriptsService transcriptsService;
+	private UniversityRepository universityRepository;
 
 	@Autowired
 	private AuthorizationService authorizationService;
 
+	@Autowired
+	private TranscriptVerificationService transcriptVerificationService;
+
 	public TranscriptResource(TranscriptService transcriptService, InstitutionService institutionService,
 			TranscriptCourseQueryService transcriptCourseQueryService) {
 		this.transcriptService = transcriptService;
@@ -146,26 +147,19 @@ public class TranscriptResource {
 			transcripts.get().setTranscriptCourses(null);// setting courses null to send them separately in response
 															// object
 			String s3Path = "transcripts/" + transcripts.get().getId() + "/pdf_transcript";
-			transcripts.get().setUrl(s3StorageService.generatePresignedUrl(s3Path));
+			transcripts.get().setUrl(presignedUrlService.getPresignedUrl(s3Path));
 			String s3ViewPath = "transcripts/" + transcripts.get().getId() + "/pdf_transcript_view";
-			transcripts.get().setViewUrl(s3StorageService.generatePresignedUrl(s3ViewPath));
+			transcripts.get().setViewUrl(presignedUrlService.getPresignedUrl(s3ViewPath));
 			String s3DownloadPath = "transcripts/" + transcripts.get().getId() + "/pdf_transcript_student";
 
-			try (NamedInputStreamWrapper file = s3StorageService.retrieve(s3DownloadPath)) {
-				if (file == null) {
-					transcripts.get().setStudentUrl(s3StorageService.generatePresignedUrl(s3Path));
+			try {
+				if (s3ObjectStreamingService.exists(s3DownloadPath)) {
+					transcripts.get().setStudentUrl(presignedUrlService.getPresignedUrl(s3DownloadPath));
 				} else {
-					try {
-						if (file != null) {
-							file.close();
-						}
-					} catch (Exception ex) {
-						log.error("error closing file", ex);
-					}
-					transcripts.get().setStudentUrl(s3StorageService.generatePresignedUrl(s3DownloadPath));
+					transcripts.get().setStudentUrl(presignedUrlService.getPresignedUrl(s3Path));
 				}
 			} catch (Exception ex) {
-				transcripts.get().setStudentUrl(s3StorageService.generatePresignedUrl(s3DownloadPath));
+				transcripts.get().setStudentUrl(presignedUrlService.getPresignedUrl(s3DownloadPath));
 			}
 			response.put("transcript", transcript);
 			GlUserDTO glUserDTO = glUserService.findOne(transcripts.get().getUserId());
@@ -225,11 +219,11 @@ public class TranscriptResource {
 				TranscriptDTO transcript = optTranscripts.get();
 
 				transcript.setTranscriptCourses(null);// setting courses null to send them separately in response object
-				transcript.setUrl(s3StorageService.generatePresignedUrl(s3Path));
+				transcript.setUrl(presignedUrlService.getPresignedUrl(s3Path));
 
 				String s3ViewPath = transcriptPath + "/pdf_transcript_view";
 
-				transcript.setViewUrl(s3StorageService.generatePresignedUrl(s3ViewPath));
+				transcript.setViewUrl(presignedUrlService.getPresignedUrl(s3ViewPath));
 
 				response.put("transcript", transcript);
 
@@ -292,10 +286,9 @@ public class TranscriptResource {
 
 			try {
 
-				String transcript = IOUtils.toString(files[i].getInputStream(), "UTF-8");
-
-				String transcriptSha256hex = Hashing.sha256().hashString(transcript, StandardCharsets.UTF_8).toString();
-				transcriptVerification = transcriptsService.validateTranscript(transcriptSha256hex);
+				try (InputStream in = files[i].getInputStream()) {
+					transcriptVerification = transcriptVerificationService.verify(in);
+				}
 
 			} catch (IOException e) {
 				log.error("Error occured access the file", e);
@@ -0,0 +1,125 @@
+package com.gl.platform.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.gl.platform.service.dto.TranscriptVerification;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+/**
+ * Service verifying uploaded credentials against the stored transcript hashes.
+ * <p>
+ * Hashes have always been computed over the file decoded as UTF-8 and encoded
+ * back, so {@link #digest} keeps exactly that behaviour while streaming: it
+ * decodes a buffer at a time instead of building the whole file as a String.
+ * Verification results are cached by hash, positive ones for
+ * {@link #VERIFIED_TTL_MINUTES} minutes and negative ones for one minute so a
+ * newly issued transcript is found quickly.
+ */
+@Service
+public class TranscriptVerificationService {
+
+	private final Logger log = LoggerFactory.getLogger(TranscriptVerificationService.class);
+
+	private static final int BUFFER_SIZE = 16 * 1024;
+
+	private static final long VERIFIED_TTL_MINUTES = 10;
+
+	private final TranscriptsService transcriptsService;
+
+	private final Cache<String, TranscriptVerification> verified = CacheBuilder.newBuilder().maximumSize(10000)
+			.expireAfterWrite(VERIFIED_TTL_MINUTES, TimeUnit.MINUTES).build();
+
+	private final Cache<String, TranscriptVerification> unverified = CacheBuilder.newBuilder().maximumSize(10000)
+			.expireAfterWrite(1, TimeUnit.MINUTES).build();
+
+	public TranscriptVerificationService(TranscriptsService transcriptsService) {
+		this.transcriptsService = transcriptsService;
+	}
+
+	/**
+	 * Compute the SHA-256 hex digest of a transcript file.
+	 *
+	 * @param in the file contents, not closed by this method
+	 * @return the hex digest
+	 * @throws IOException if the stream cannot be read
+	 */
+	public String digest(InputStream in) throws IOException {
+		Hasher hasher = Hashing.sha256().newHasher();
+		Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8);
+		CharBuffer buffer = CharBuffer.allocate(BUFFER_SIZE);
+		while (reader.read(buffer) != -1) {
+			buffer.flip();
+			// keep a trailing high surrogate for the next round so pairs are never
+			// encoded apart
+			int end = buffer.limit();
+			if (end > 0 && Character.isHighSurrogate(buffer.get(end - 1))) {
+				end--;
+			}
+			if (end > 0) {
+				hasher.putString(buffer.subSequence(0, end), StandardCharsets.UTF_8);
+			}
+			buffer.position(end);
+			buffer.compact();
+		}
+		buffer.flip();
+		if (buffer.hasRemaining()) {
+			hasher.putString(buffer, StandardCharsets.UTF_8);
+		}
+		return hasher.hash().toString();
+	}
+
+	/**
+	 * Verify a transcript file.
+	 *
+	 * @param in the file contents, not closed by this method
+	 * @return the verification result
+	 * @throws IOException if the stream cannot be read
+	 */
+	public TranscriptVerification verify(InputStream in) throws IOException {
+		return verifyHash(digest(in));
+	}
+
+	/**
+	 * Verify a transcript by its hash, using the cached result when there is
+	 * one.
+	 *
+	 * @param sha256hex the SHA-256 hex digest of the file
+	 * @return the verification result
+	 */
+	public TranscriptVerification verifyHash(String sha256hex) {
+		TranscriptVerification result = verified.getIfPresent(sha256hex);
+		if (result == null) {
+			result = unverified.getIfPresent(sha256hex);
+		}
+		if (result != null) {
+			return result;
+		}
+		try {
+			// loading through the cache means concurrent requests for the same hash
+			// only hit the database once
+			result = unverified.get(sha256hex, () -> transcriptsService.validateTranscript(sha256hex));
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+		if (result.isVerified()) {
+			unverified.invalidate(sha256hex);
+			verified.put(sha256hex, result);
+		}
+		log.debug("Verified transcript hash {} : {}", sha256hex, result.isVerified());
+		return result;
+	}
+}
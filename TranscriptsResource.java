@@ -6,7 +6,10 @@ import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 
@@ -33,12 +36,15 @@ import org.springframework.web.multipart.MultipartFile;
 import com.codahale.metrics.annotation.Timed;
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.databind.JsonMappingException;
+import com.gl.platform.service.AuditEventWriter;
+import com.gl.platform.service.PresignedUrlService;
+import com.gl.platform.service.S3ObjectStreamingService;
 import com.gl.platform.service.S3StorageService;
+import com.gl.platform.service.TranscriptBulkUploadService;
 import com.gl.platform.service.TranscriptDataLoadService;
 import com.gl.platform.service.TranscriptsQueryService;
 import com.gl.platform.service.TranscriptsService;
-import com.gl.platform.service.UserActivityService;
-import com.gl.platform.service.dto.NamedInputStreamWrapper;
+import com.gl.platform.service.dto.TranscriptBulkUploadDTO;
 import com.gl.platform.service.dto.TranscriptDTO;
 import com.gl.platform.service.dto.TranscriptGeneration;
 import com.gl.platform.service.dto.TranscriptsCriteria;
@@ -62,10 +68,19 @@ public class TranscriptsResource {
 	private static final String ENTITY_NAME = "transcripts";
 
 	@Autowired
-	private UserActivityService userActivityService;
+	private AuditEventWriter auditEventWriter;
 	
 	@Autowired
 	private TranscriptDataLoadService 	transcriptDataLoadService;
+
+	@Autowired
+	private S3ObjectStreamingService s3ObjectStreamingService;
+
+	@Autowired
+	private PresignedUrlService presignedUrlService;
+
+	@Autowired
+	private TranscriptBulkUploadService transcriptBulkUploadService;
 	
 
 	
@@ -134,6 +149,52 @@ public class TranscriptsResource {
 
 	}
 
+	/**
+	 * POST /upload/transcripts/bulk : Start a background bulk upload of
+	 * transcripts. The files are spooled to disk and processed after the request
+	 * returns.
+	 *
+	 * @param files the transcript files
+	 * @return the ResponseEntity with status 202 (Accepted) and with body the
+	 *         upload progress, or with status 400 (Bad Request) if the files are
+	 *         missing or too many uploads are queued
+	 * @throws IOException if the files cannot be spooled
+	 */
+	@PostMapping("/upload/transcripts/bulk")
+	@Timed
+	public ResponseEntity<TranscriptBulkUploadDTO> bulkUploadTranscripts(
+			@RequestParam("studentEmailAddress") String email, @RequestParam("universityId") Long universityId,
+			@RequestParam("files") MultipartFile[] files,
+			@RequestParam(value = "sendEnrollmentEmail", required = false) Boolean sendEnrollmentEmail)
+			throws IOException {
+		if (files == null || files.length == 0 || email == null || universityId == null) {
+			throw new BadRequestAlertException("Transcrips files missing", ENTITY_NAME, "idnull");
+		}
+		log.debug("REST request to bulk upload {} Transcripts", files.length);
+		try {
+			TranscriptBulkUploadDTO result = transcriptBulkUploadService.submit(files, email, universityId,
+					sendEnrollmentEmail);
+			return new ResponseEntity<>(result, HttpStatus.ACCEPTED);
+		} catch (RejectedExecutionException e) {
+			throw new BadRequestAlertException("Too many transcript uploads in progress", ENTITY_NAME, "uploadlimit");
+		}
+	}
+
+	/**
+	 * GET /upload/transcripts/bulk/:id : get the per-file progress of a bulk
+	 * upload.
+	 *
+	 * @param id the upload id
+	 * @return the ResponseEntity with status 200 (OK) and with body the upload
+	 *         progress, or with status 404 (Not Found)
+	 */
+	@GetMapping("/upload/transcripts/bulk/{id}")
+	@Timed
+	public ResponseEntity<TranscriptBulkUploadDTO> getBulkUploadProgress(@PathVariable String id) {
+		log.debug("REST request to get bulk upload progress : {}", id);
+		return ResponseUtil.wrapOrNotFound(transcriptBulkUploadService.findOne(id));
+	}
+
 	/**
 	 * PUT /transcripts : Updates an existing transcripts.
 	 *
@@ -153,7 +214,7 @@ public class TranscriptsResource {
 			throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
 		}
 		TranscriptDTO result = transcriptsService.save(transcriptsDTO);
-		userActivityService.audit("Transcript", "Updated Transcript");
+		auditEventWriter.audit("Transcript", "Updated Transcript");
 		return ResponseEntity.ok()
 				.headers(HeaderUtil.createEntityUpdateAlert(ENTITY_NAME, transcriptsDTO.getId().toString()))
 				.body(result);
@@ -175,9 +236,10 @@ public class TranscriptsResource {
 
 		List<TranscriptsDTO> transcripts = page.getContent();
 
+		Map<String, String> urls = presignedUrlService.getPresignedUrls(transcripts.stream()
+				.map(transcript -> "transcripts/" + transcript.getId() + "/pdf_transcript").collect(Collectors.toList()));
 		for (TranscriptsDTO transcript : transcripts) {
-			String s3Path = "transcripts/" + transcript.getId() + "/pdf_transcript";
-			transcript.setUrl(s3StorageService.generatePresignedUrl(s3Path));
+			transcript.setUrl(urls.get("transcripts/" + transcript.getId() + "/pdf_transcript"));
 		}
 
 		HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/transcripts");
@@ -201,8 +263,8 @@ public class TranscriptsResource {
 			String s3Path = "transcripts/" + transcript.getId() + "/pdf_transcript";
 			String s3ViewPath = "transcripts/" + transcript.getId() + "/pdf_transcript_view";
 
-			transcript.setUrl(s3StorageService.generatePresignedUrl(s3Path));
-			transcript.setViewUrl(s3StorageService.generatePresignedUrl(s3ViewPath));
+			transcript.setUrl(presignedUrlService.getPresignedUrl(s3Path));
+			transcript.setViewUrl(presignedUrlService.getPresignedUrl(s3ViewPath));
 		}
 
 		return ResponseUtil.wrapOrNotFound(transcriptsDTO);
@@ -212,31 +274,21 @@ public class TranscriptsResource {
 
 	@GetMapping("/transcripts/{id}/view")
 	@Timed
-	public void getViewerableTranscript(HttpServletResponse response, @PathVariable Long id) throws IOException {
+	public void getViewerableTranscript(HttpServletRequest request, HttpServletResponse response,
+			@PathVariable Long id) throws IOException {
 		log.debug("REST request to view transcript");
-		response.setContentType("application/pdf");
-		response.setHeader("Content-Disposition", "inline; filename=\"transcript_pdf_view\"");
-
-		try (NamedInputStreamWrapper nisw = s3StorageService.retrieve("transcripts/" + id + "/pdf_transcript_view")) {
-			org.apache.commons.io.IOUtils.copy(nisw, response.getOutputStream());
-			response.flushBuffer();
-		}
+		s3ObjectStreamingService.stream("transcripts/" + id + "/pdf_transcript_view", "application/pdf",
+				"inline; filename=\"transcript_pdf_view\"", request, response);
 	}
 	
 	@GetMapping("/transcripts/{id}/download")
 	@Timed
-	public void getDownloadableTranscript(HttpServletResponse response, @PathVariable Long id) throws IOException {
+	public void getDownloadableTranscript(HttpServletRequest request, HttpServletResponse response,
+			@PathVariable Long id) throws IOException {
 		
 		log.debug("REST request to download transcripts");
-		response.setContentType("application/pdf");
-		response.setHeader("Content-Disposition", "attachment; filename=\"transcript_pdf\"");
-
-		try (NamedInputStreamWrapper nisw = s3StorageService
-				.retrieve("transcripts/" + id + "/pdf_transcript_student")) {
-			org.apache.commons.io.IOUtils.copy(nisw, response.getOutputStream());
-			response.flushBuffer();
-		}
-
+		s3ObjectStreamingService.stream("transcripts/" + id + "/pdf_transcript_student", "application/pdf",
+				"attachment; filename=\"transcript_pdf\"", request, response);
 	}
 
 	/**
@@ -250,6 +302,9 @@ public class TranscriptsResource {
 	public ResponseEntity<Void> deleteTranscripts(@PathVariable Long id) {
 		log.debug("REST request to delete Transcripts : {}", id);
 		transcriptsService.delete(id);
+		presignedUrlService.evict("transcripts/" + id + "/pdf_transcript");
+		presignedUrlService.evict("transcripts/" + id + "/pdf_transcript_view");
+		presignedUrlService.evict("transcripts/" + id + "/pdf_transcript_student");
 		return ResponseEntity.ok().headers(HeaderUtil.createEntityDeletionAlert(ENTITY_NAME, id.toString())).build();
 	}
 
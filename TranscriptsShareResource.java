@@ -33,7 +33,7 @@ import com.codahale.metrics.annotation.Timed;
 import com.gl.platform.service.GlStudentQueryService;
 import com.gl.platform.service.InstitutionQueryService;
 import com.gl.platform.service.InstitutionService;
-import com.gl.platform.service.S3StorageService;
+import com.gl.platform.service.PresignedUrlService;
 import com.gl.platform.service.TranscriptService;
 import com.gl.platform.service.TranscriptsQueryService;
 import com.gl.platform.service.TranscriptsShareQueryService;
@@ -84,7 +84,7 @@ public class TranscriptsShareResource {
 	private InstitutionQueryService institutionQueryService;
 
 	@Autowired
-	private S3StorageService s3StorageService;
+	private PresignedUrlService presignedUrlService;
 
 	public TranscriptsShareResource(TranscriptsShareService transcriptsShareService,
 			TranscriptsShareQueryService transcriptsShareQueryService, TranscriptService transcriptService,
@@ -196,6 +196,9 @@ public class TranscriptsShareResource {
 					.stream().collect(Collectors.toMap(InstitutionDTO::getId, Function.identity()));
 			;
 
+			Map<String, String> urls = presignedUrlService.getPresignedUrls(transcripts.keySet().stream()
+					.map(transcriptId -> "transcripts/" + transcriptId + "/pdf_transcript").collect(Collectors.toList()));
+
 			for (TranscriptsShareDTO transcriptsShareDTO : transcriptShares) {
 				transcriptsShareDTO.setStudent(students.get(transcriptsShareDTO.getStudentId()));
 				transcriptsShareDTO.setInstitution(institutions.get(transcriptsShareDTO.getInstitutionId()));
@@ -203,8 +206,7 @@ public class TranscriptsShareResource {
 
 				if (transcriptsShareDTO.getTranscript() != null) {
 					TranscriptsDTO transcript = transcriptsShareDTO.getTranscript();
-					String s3Path = "transcripts/" + transcript.getId() + "/pdf_transcript";
-					transcript.setUrl(s3StorageService.generatePresignedUrl(s3Path));
+					transcript.setUrl(urls.get("transcripts/" + transcript.getId() + "/pdf_transcript"));
 				}
 
 			}
@@ -235,8 +237,8 @@ public class TranscriptsShareResource {
 				String s3Path = "transcripts/" + transcript.getId() + "/pdf_transcript";
 				String s3ViewPath = "transcripts/" + transcript.getId() + "/pdf_transcript_view";
 
-				transcript.setUrl(s3StorageService.generatePresignedUrl(s3Path));
-				transcript.setViewUrl(s3StorageService.generatePresignedUrl(s3ViewPath));
+				transcript.setUrl(presignedUrlService.getPresignedUrl(s3Path));
+				transcript.setViewUrl(presignedUrlService.getPresignedUrl(s3ViewPath));
 			}
 		}
 		return ResponseUtil.wrapOrNotFound(transcriptsShareDTO);
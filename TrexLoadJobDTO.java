@@ -0,0 +1,144 @@
+package com.gl.platform.service.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A DTO for the progress of a streaming TREx file load.
+ * <p>
+ * Its counters are updated by the loader while it is being polled, so the
+ * mutable fields are volatile.
+ */
+public class TrexLoadJobDTO implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	public enum Status {
+		QUEUED, RUNNING, COMPLETED, FAILED
+	}
+
+	private String id;
+
+	private Long universityId;
+
+	private String fileName;
+
+	private int batchSize;
+
+	private volatile Status status;
+
+	private volatile long recordsRead;
+
+	private volatile long recordsLoaded;
+
+	private volatile long recordsFailed;
+
+	private volatile int batchesCompleted;
+
+	private final List<String> errors = new CopyOnWriteArrayList<>();
+
+	private Instant submittedDate;
+
+	private volatile Instant completedDate;
+
+	public String getId() {
+		return id;
+	}
+
+	public void setId(String id) {
+		this.id = id;
+	}
+
+	public Long getUniversityId() {
+		return universityId;
+	}
+
+	public void setUniversityId(Long universityId) {
+		this.universityId = universityId;
+	}
+
+	public String getFileName() {
+		return fileName;
+	}
+
+	public void setFileName(String fileName) {
+		this.fileName = fileName;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	public void setStatus(Status status) {
+		this.status = status;
+	}
+
+	public long getRecordsRead() {
+		return recordsRead;
+	}
+
+	public void setRecordsRead(long recordsRead) {
+		this.recordsRead = recordsRead;
+	}
+
+	public long getRecordsLoaded() {
+		return recordsLoaded;
+	}
+
+	public void setRecordsLoaded(long recordsLoaded) {
+		this.recordsLoaded = recordsLoaded;
+	}
+
+	public long getRecordsFailed() {
+		return recordsFailed;
+	}
+
+	public void setRecordsFailed(long recordsFailed) {
+		this.recordsFailed = recordsFailed;
+	}
+
+	public int getBatchesCompleted() {
+		return batchesCompleted;
+	}
+
+	public void setBatchesCompleted(int batchesCompleted) {
+		this.batchesCompleted = batchesCompleted;
+	}
+
+	public List<String> getErrors() {
+		return errors;
+	}
+
+	public Instant getSubmittedDate() {
+		return submittedDate;
+	}
+
+	public void setSubmittedDate(Instant submittedDate) {
+		this.submittedDate = submittedDate;
+	}
+
+	public Instant getCompletedDate() {
+		return completedDate;
+	}
+
+	public void setCompletedDate(Instant completedDate) {
+		this.completedDate = completedDate;
+	}
+
+	@Override
+	public String toString() {
+		return "TrexLoadJobDTO{" + "id='" + getId() + "'" + ", universityId=" + getUniversityId() + ", fileName='"
+				+ getFileName() + "'" + ", status=" + getStatus() + ", recordsRead=" + getRecordsRead()
+				+ ", recordsLoaded=" + getRecordsLoaded() + ", recordsFailed=" + getRecordsFailed() + "}";
+	}
+}
@@ -1,14 +1,14 @@
 package com.gl.platform.web.rest;
 
-import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 import javax.xml.bind.JAXBException;
 
@@ -17,6 +17,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -25,19 +26,18 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
-import com.gl.platform.domain.Enrollment;
-import com.gl.platform.domain.GlStudent;
-import com.gl.platform.repository.EnrollmentRepository;
-import com.gl.platform.repository.GlStudentRepository;
+import com.gl.platform.service.AuthorizationService;
 import com.gl.platform.service.DeltaFileService;
 import com.gl.platform.service.S3StorageService;
+import com.gl.platform.service.StudentEnrollmentExportService;
 import com.gl.platform.service.TrexDataLoadService;
 import com.gl.platform.service.TrexDataLoaderManualService;
+import com.gl.platform.service.TrexStreamingLoadService;
+import com.gl.platform.service.dto.TrexLoadJobDTO;
+import com.gl.platform.service.util.GlConstraints;
 import com.gl.platform.web.rest.errors.BadRequestAlertException;
-import com.opencsv.CSVReader;
-import com.opencsv.CSVReaderBuilder;
-import com.opencsv.CSVWriter;
 
+import io.github.jhipster.web.util.ResponseUtil;
 import io.undertow.util.BadRequestException;
 
 @RestController
@@ -54,55 +54,47 @@ public class TrexResource {
 	private DeltaFileService delta;
 
 	@Autowired
-	private static GlStudentRepository glStudentRepository;
+	private StudentEnrollmentExportService studentEnrollmentExportService;
 
 	@Autowired
-	private static EnrollmentRepository enrollmentRepo;
+	private TrexDataLoaderManualService trexService;
 
 	@Autowired
-	private TrexDataLoaderManualService trexService;
+	private TrexStreamingLoadService trexStreamingLoadService;
+
+	@Autowired
+	private AuthorizationService authorizationService;
 
 	private final Logger log = LoggerFactory.getLogger(TrexResource.class);
 
 	private static final String ENTITY_NAME = TrexResource.class.getSimpleName().toLowerCase();
 
-	@GetMapping("/get/enrollment")
-	public String dataLoad() throws IllegalStateException, IOException {
-
-		File file = new File("/home/yashu/Documents/studentWithEnrollmentsProdBackup.csv");
-
-		try {
-			FileWriter outputfile = new FileWriter(file);
-
-			CSVWriter writer = new CSVWriter(outputfile);
-
-			String[] header = { "studentNumber", "enrollmentUUID" };
-			writer.writeNext(header);
-			FileReader filereader = new FileReader("/home/yashu/Music/CorrectStudentsInBkpStudentNumber.csv");
-
-			CSVReader csvReader = new CSVReaderBuilder(filereader).withSkipLines(1).build();
-			List<String[]> allData = csvReader.readAll();
-
-			for (String[] row : allData) {
-				for (String cell : row) {
-
-					Optional<GlStudent> student = glStudentRepository.findBySchoolStudentId(cell);
-					if (student.isPresent()) {
-						Enrollment enrollment = enrollmentRepo.findByStudentId(student.get().getId());
-
-						if (enrollment != null) {
-							String[] data1 = { cell, enrollment.getEnrollmentUuid() };
-							System.out.println("Loaded student number : " + cell);
-							writer.writeNext(data1);
-						}
-					}
-				}
-			}
-			writer.close();
-		} catch (Exception e) {
-			log.error(e.getMessage());
+	/**
+	 * POST /get/enrollment/s3 : export the enrollment UUID of the students of an
+	 * institution from an uploaded csv file of student numbers to an S3 object.
+	 * The object key is generated under the enrollment export prefix of the
+	 * institution.
+	 *
+	 * @param file         the csv file of student numbers, with a header line
+	 * @param universityId the institution the export is made for
+	 * @return the ResponseEntity with status 200 (OK) and with body the object
+	 *         key and the number of rows exported
+	 * @throws IOException if reading the file or spooling the export fails
+	 */
+	@PostMapping("/get/enrollment/s3")
+	public ResponseEntity<Map<String, Object>> dataLoadToS3(@RequestParam("files") MultipartFile file,
+			@RequestParam("universityId") Long universityId) throws BadRequestException, IOException {
+		log.debug("REST request to export student enrollments to S3 for institution : {}", universityId);
+		if (!authorizationService.ownedByInstitution(universityId) && !authorizationService.isSupport()) {
+			throw new AccessDeniedException(GlConstraints.OWNER);
+		}
+		if (file == null || file.isEmpty()) {
+			throw new BadRequestException("Please select valid file ");
+		}
+		try (Reader in = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8)) {
+			return new ResponseEntity<>(studentEnrollmentExportService.exportToS3(in, universityId),
+					HttpStatus.OK);
 		}
-		return "Delta Files Generated Successfully";
 	}
 
 	@GetMapping("/dataload/{institution}/{filename}")
@@ -179,6 +171,46 @@ public class TrexResource {
 		return new ResponseEntity<>(response, HttpStatus.OK);
 	}
 
+	/**
+	 * POST /trexfile/load/stream : Start a background load of a TREx file, one
+	 * student record at a time, so that large district files do not have to fit
+	 * in memory.
+	 *
+	 * @param file         the TREx student records file
+	 * @param universityId the institution the records are loaded for
+	 * @return the ResponseEntity with status 202 (Accepted) and with body the
+	 *         load job
+	 * @throws IOException if the file cannot be spooled
+	 */
+	@PostMapping("/trexfile/load/stream")
+	public ResponseEntity<TrexLoadJobDTO> streamISD(@RequestParam("files") MultipartFile file,
+			@RequestParam("universityId") Long universityId) throws BadRequestException, IOException {
+		log.info("REST request to stream all the values from xml");
+		if (file == null || file.isEmpty()) {
+			throw new BadRequestException("Please select valid file ");
+		}
+		try {
+			TrexLoadJobDTO job = trexStreamingLoadService.submit(file, universityId);
+			return new ResponseEntity<>(job, HttpStatus.ACCEPTED);
+		} catch (RejectedExecutionException e) {
+			throw new BadRequestAlertException("Too many TREx loads in progress", ENTITY_NAME, "loadlimit");
+		}
+	}
+
+	/**
+	 * GET /trexfile/load/stream/:id : get the record counts and errors of a
+	 * TREx load.
+	 *
+	 * @param id the load job id
+	 * @return the ResponseEntity with status 200 (OK) and with body the load
+	 *         job, or with status 404 (Not Found)
+	 */
+	@GetMapping("/trexfile/load/stream/{id}")
+	public ResponseEntity<TrexLoadJobDTO> getStreamLoadProgress(@PathVariable String id) {
+		log.debug("REST request to get TREx load progress : {}", id);
+		return ResponseUtil.wrapOrNotFound(trexStreamingLoadService.findOne(id));
+	}
+
 	@PostMapping("/student/ext/load")
 	public ResponseEntity<Map<String, Object>> loadStudentExt(@RequestParam("files") MultipartFile file,
 			@RequestParam("universityId") Long universityId) throws BadRequestException, IOException {
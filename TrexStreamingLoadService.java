@@ -0,0 +1,294 @@
+package com.gl.platform.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.namespace.QName;
+import javax.xml.stream.StreamFilter;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.gl.platform.config.ApplicationProperties;
+import com.gl.platform.jaxb.trex.v118.StudentRecordType;
+import com.gl.platform.jaxb.trex.v118.StudentRecordsType;
+import com.gl.platform.service.TranscriptBulkUploadService.SpooledMultipartFile;
+import com.gl.platform.service.dto.TrexLoadJobDTO;
+import com.gl.platform.service.dto.TrexLoadJobDTO.Status;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Service loading TREx student records files one record at a time.
+ * <p>
+ * The upload is spooled to disk and read with a StAX reader; each
+ * {@code StudentRecord} element is unmarshalled on its own, so only the current
+ * batch of {@code application.trex-load-batch-size} records is ever held in
+ * memory whatever the size of the district file. A first pass reads the
+ * root-level data of the file, everything but the records. Each full batch is
+ * written back as a small {@code TRExStudentRecords} document with that data
+ * and handed to {@link TrexStudentRecordsLoader#loadStudentRecords}, which
+ * persists it in its own transaction. A failing batch is recorded on the job
+ * and the load carries on with the next one. The upload history and
+ * notifications of the file are left to
+ * {@link TrexStudentRecordsLoader#fileLoaded}, once the whole file is loaded.
+ */
+@Service
+public class TrexStreamingLoadService {
+
+	private final Logger log = LoggerFactory.getLogger(TrexStreamingLoadService.class);
+
+	private static final QName ROOT_ELEMENT = new QName("urn:us:tx:state:tea:TREx:v1.18", "TRExStudentRecords");
+
+	private static final String RECORD_ELEMENT = "StudentRecord";
+
+	private static final int POOL_SIZE = 2;
+
+	private static final int QUEUE_CAPACITY = 20;
+
+	private static final int MAX_ERRORS = 100;
+
+	private final TrexStudentRecordsLoader trexLoader;
+
+	private final int batchSize;
+
+	private final JAXBContext jaxbContext;
+
+	private final XMLInputFactory inputFactory;
+
+	private final ThreadPoolExecutor executor;
+
+	private final Cache<String, TrexLoadJobDTO> jobs = CacheBuilder.newBuilder().maximumSize(1000)
+			.expireAfterWrite(24, TimeUnit.HOURS).build();
+
+	public TrexStreamingLoadService(TrexStudentRecordsLoader trexLoader,
+			ApplicationProperties applicationProperties) throws JAXBException {
+		this.trexLoader = trexLoader;
+		this.batchSize = Math.max(1, applicationProperties.getTrexLoadBatchSize());
+		this.jaxbContext = JAXBContext.newInstance(StudentRecordsType.class);
+		this.inputFactory = XMLInputFactory.newFactory();
+		this.inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+		this.inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+		this.executor = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(QUEUE_CAPACITY), new CustomizableThreadFactory("trex-load-"));
+	}
+
+	/**
+	 * Spool a TREx file to disk and start loading it in the background.
+	 *
+	 * @param file         the TREx student records file
+	 * @param universityId the institution the records are loaded for
+	 * @return the queued job
+	 * @throws IOException                if the file cannot be spooled
+	 * @throws RejectedExecutionException if too many loads are already queued
+	 */
+	public TrexLoadJobDTO submit(MultipartFile file, Long universityId) throws IOException {
+		Path spool = Files.createTempFile("trex-load-", ".xml");
+		try (InputStream in = file.getInputStream()) {
+			Files.copy(in, spool, StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			FileUtils.deleteQuietly(spool.toFile());
+			throw e;
+		}
+
+		TrexLoadJobDTO job = new TrexLoadJobDTO();
+		job.setId(UUID.randomUUID().toString());
+		job.setUniversityId(universityId);
+		job.setFileName(file.getOriginalFilename());
+		job.setBatchSize(batchSize);
+		job.setStatus(Status.QUEUED);
+		job.setSubmittedDate(Instant.now());
+		jobs.put(job.getId(), job);
+
+		try {
+			executor.execute(new DelegatingSecurityContextRunnable(() -> run(job, spool)));
+		} catch (RejectedExecutionException e) {
+			jobs.invalidate(job.getId());
+			FileUtils.deleteQuietly(spool.toFile());
+			throw e;
+		}
+		log.debug("Queued TREx load job : {}", job);
+		return job;
+	}
+
+	/**
+	 * Get the progress of a load job.
+	 *
+	 * @param jobId the job id
+	 * @return the job, or empty if it is unknown or has expired
+	 */
+	public Optional<TrexLoadJobDTO> findOne(String jobId) {
+		return Optional.ofNullable(jobs.getIfPresent(jobId));
+	}
+
+	private void run(TrexLoadJobDTO job, Path spool) {
+		job.setStatus(Status.RUNNING);
+		try {
+			Unmarshaller unmarshaller = jaxbContext.createUnmarshaller();
+			StudentRecordsType header = readHeader(spool, unmarshaller);
+			try (InputStream in = Files.newInputStream(spool)) {
+				XMLStreamReader reader = inputFactory.createXMLStreamReader(in);
+				try {
+					List<StudentRecordType> batch = new ArrayList<>(batchSize);
+					while (nextRecord(reader)) {
+						batch.add(unmarshaller.unmarshal(reader, StudentRecordType.class).getValue());
+						job.setRecordsRead(job.getRecordsRead() + 1);
+						if (batch.size() == batchSize) {
+							flush(job, header, batch);
+							batch.clear();
+						}
+					}
+					if (!batch.isEmpty()) {
+						flush(job, header, batch);
+					}
+				} finally {
+					reader.close();
+				}
+			}
+			job.setStatus(Status.COMPLETED);
+			log.info("Completed TREx load job : {}", job);
+		} catch (IOException | XMLStreamException | JAXBException e) {
+			log.error("TREx load job {} failed after {} records", job.getId(), job.getRecordsRead(), e);
+			addError(job, "Unreadable file after record " + job.getRecordsRead() + " : " + e.getMessage());
+			job.setStatus(Status.FAILED);
+		} finally {
+			job.setCompletedDate(Instant.now());
+			FileUtils.deleteQuietly(spool.toFile());
+		}
+		try {
+			trexLoader.fileLoaded(job);
+		} catch (RuntimeException e) {
+			log.error("Could not record the upload of TREx load job {}", job.getId(), e);
+			addError(job, "Upload history and notifications : " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Read the root element of the file with its attributes and every child but
+	 * the student records, which are skipped by the reader without being
+	 * unmarshalled.
+	 */
+	private StudentRecordsType readHeader(Path spool, Unmarshaller unmarshaller)
+			throws IOException, XMLStreamException, JAXBException {
+		try (InputStream in = Files.newInputStream(spool)) {
+			XMLStreamReader reader = inputFactory.createFilteredReader(inputFactory.createXMLStreamReader(in),
+					new RecordSkippingFilter());
+			try {
+				StudentRecordsType header = unmarshaller.unmarshal(reader, StudentRecordsType.class).getValue();
+				header.getStudentRecord().clear();
+				return header;
+			} finally {
+				reader.close();
+			}
+		}
+	}
+
+	/**
+	 * Drops the events of every {@code StudentRecord} element, with its content.
+	 */
+	private static final class RecordSkippingFilter implements StreamFilter {
+
+		private int depth;
+
+		@Override
+		public boolean accept(XMLStreamReader reader) {
+			if (reader.isStartElement() && (depth > 0 || RECORD_ELEMENT.equals(reader.getLocalName()))) {
+				depth++;
+				return false;
+			}
+			if (reader.isEndElement() && depth > 0) {
+				depth--;
+				return false;
+			}
+			return depth == 0;
+		}
+	}
+
+	/**
+	 * Move the reader to the start of the next student record. After a record
+	 * has been unmarshalled the reader already sits on the event that follows
+	 * it, which may itself be the next record.
+	 */
+	private boolean nextRecord(XMLStreamReader reader) throws XMLStreamException {
+		while (true) {
+			if (reader.isStartElement() && RECORD_ELEMENT.equals(reader.getLocalName())) {
+				return true;
+			}
+			if (!reader.hasNext()) {
+				return false;
+			}
+			reader.next();
+		}
+	}
+
+	/**
+	 * Load a batch as a document with the root-level data of the file. The header
+	 * is reused by every batch of the file, which are flushed one at a time.
+	 */
+	private void flush(TrexLoadJobDTO job, StudentRecordsType header, List<StudentRecordType> batch) {
+		long first = job.getRecordsRead() - batch.size() + 1;
+		Path batchFile = null;
+		try {
+			header.getStudentRecord().addAll(batch);
+			batchFile = Files.createTempFile("trex-batch-", ".xml");
+			Marshaller marshaller = jaxbContext.createMarshaller();
+			try (OutputStream out = Files.newOutputStream(batchFile)) {
+				marshaller.marshal(new JAXBElement<>(ROOT_ELEMENT, StudentRecordsType.class, header), out);
+			}
+			String response = trexLoader.loadStudentRecords(
+					new SpooledMultipartFile(batchFile.toFile(), job.getFileName(), "application/xml"),
+					job.getUniversityId());
+			job.setRecordsLoaded(job.getRecordsLoaded() + batch.size());
+			log.debug("TREx load job {} loaded records {} to {} : {}", job.getId(), first, job.getRecordsRead(),
+					response);
+		} catch (Exception e) {
+			log.error("TREx load job {} failed on records {} to {}", job.getId(), first, job.getRecordsRead(), e);
+			job.setRecordsFailed(job.getRecordsFailed() + batch.size());
+			addError(job, "Records " + first + " to " + job.getRecordsRead() + " : " + e.getMessage());
+		} finally {
+			header.getStudentRecord().clear();
+			job.setBatchesCompleted(job.getBatchesCompleted() + 1);
+			if (batchFile != null) {
+				FileUtils.deleteQuietly(batchFile.toFile());
+			}
+		}
+	}
+
+	private void addError(TrexLoadJobDTO job, String error) {
+		if (job.getErrors().size() < MAX_ERRORS) {
+			job.getErrors().add(error);
+		}
+	}
+
+	@PreDestroy
+	public void destroy() {
+		executor.shutdown();
+	}
+}
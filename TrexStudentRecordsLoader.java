@@ -0,0 +1,33 @@
+package com.gl.platform.service;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import com.gl.platform.service.dto.TrexLoadJobDTO;
+
+/**
+ * The persistence of TREx student records, split from the per-file side
+ * effects of {@link TrexDataLoaderManualService#dataLoaderManual} so that a
+ * file loaded in batches by {@link TrexStreamingLoadService} records its upload
+ * and notifies once, not once per batch.
+ */
+public interface TrexStudentRecordsLoader {
+
+	/**
+	 * Persist the student records of a {@code TRExStudentRecords} document in
+	 * one transaction, without recording the upload or sending notifications.
+	 *
+	 * @param file         the document
+	 * @param universityId the institution the records are loaded for
+	 * @return a summary of the records loaded
+	 * @throws Exception if the document cannot be read or persisted
+	 */
+	String loadStudentRecords(MultipartFile file, Long universityId) throws Exception;
+
+	/**
+	 * Record the upload history of a loaded file and send its notification
+	 * emails.
+	 *
+	 * @param job the finished load, with the file name, institution and counts
+	 */
+	void fileLoaded(TrexLoadJobDTO job);
+}
@@ -27,6 +27,7 @@ import org.springframework.web.bind.annotation.RestController;
 import com.codahale.metrics.annotation.Timed;
 import com.gl.platform.repository.UserRepository;
 import com.gl.platform.security.AuthoritiesConstants;
+import com.gl.platform.service.AuthorizationDecisionCache;
 import com.gl.platform.service.AuthorizationService;
 import com.gl.platform.service.UniversityService;
 import com.gl.platform.service.dto.GlStudentDTO;
@@ -53,6 +54,9 @@ public class UniversityResource {
 	@Autowired
 	private AuthorizationService authorizationService;
 
+	@Autowired
+	private AuthorizationDecisionCache authorizationDecisionCache;
+
 	public UniversityResource(UniversityService universityService) {
 		this.universityService = universityService;
 	}
@@ -142,6 +146,7 @@ public class UniversityResource {
 	public ResponseEntity<Map<String, Object>> deleteAllStudents(@PathVariable Long id) {
 		log.info("REST request to delete administartor : {}", id);
 		Map<String, Object> response = universityService.deleteAdminByUserId(id);
+		authorizationDecisionCache.invalidateAll();
 		return new ResponseEntity<>(response, HttpStatus.OK);
 	}
 
@@ -158,6 +163,7 @@ public class UniversityResource {
 		});
 
 		Map<String, Object> response = universityService.saveByValidate(requestedDTO);
+		authorizationDecisionCache.invalidateAll();
 
 		return new ResponseEntity<>(response, HttpStatus.OK);
 	}
@@ -173,6 +179,7 @@ public class UniversityResource {
 	public ResponseEntity<Object> deactivateAdminstrator(@RequestBody List<Long> userIds) {
 		log.debug("REST request to deactivate adminstrators by userIds: {}", userIds);
 		Map<String, Object> response = universityService.deactivateAdminsByUserIds(userIds);
+		authorizationDecisionCache.invalidateAll();
 
 		return new ResponseEntity<>(response, HttpStatus.OK);
 	}
@@ -188,6 +195,7 @@ public class UniversityResource {
 	public ResponseEntity<Object> activateAdminstrator(@RequestBody List<Long> userIds) {
 		log.debug("REST request to activate adminstrators by userIds: {}", userIds);
 		Map<String, Object> response = universityService.activateAdminsByUserIds(userIds);
+		authorizationDecisionCache.invalidateAll();
 
 		return new ResponseEntity<>(response, HttpStatus.OK);
 	}
@@ -251,6 +259,7 @@ public class UniversityResource {
 		}
 		Map<String, String> result = universityService.updateCousellorSchool(userId, previousInstitutionId,
 				currentInstitutionId);
+		authorizationDecisionCache.invalidateAll();
 		return new ResponseEntity<>(result, HttpStatus.OK);
 	}
 
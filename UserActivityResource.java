@@ -26,6 +26,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.codahale.metrics.annotation.Timed;
+import com.gl.platform.service.AuditEventWriter;
 import com.gl.platform.service.AuthorizationService;
 import com.gl.platform.service.UserActivityQueryService;
 import com.gl.platform.service.UserActivityService;
@@ -56,6 +57,9 @@ public class UserActivityResource {
 	@Autowired
 	private AuthorizationService authorizationService;
 
+	@Autowired
+	private AuditEventWriter auditEventWriter;
+
 	public UserActivityResource(UserActivityService userActivityService,
 			UserActivityQueryService userActivityQueryService) {
 		this.userActivityService = userActivityService;
@@ -121,6 +125,7 @@ public class UserActivityResource {
 	public ResponseEntity<List<UserActivityDTO>> getAllUserActivities(UserActivityCriteria criteria,
 			Pageable pageable) {
 		log.debug("REST request to get UserActivities by criteria: {}", criteria);
+		auditEventWriter.flush();
 				Page<UserActivityDTO> pages = userActivityQueryService.findByCriteria(criteria, pageable);
 		for(UserActivityDTO page : pages) {
 			if (!authorizationService.ownedByUserOnly(page.getUserId())) {
@@ -143,6 +148,7 @@ public class UserActivityResource {
 	@Timed
 	public ResponseEntity<UserActivityDTO> getUserActivity(@PathVariable Long id) {
 		log.debug("REST request to get UserActivity : {}", id);
+		auditEventWriter.flush();
 		Optional<UserActivityDTO> userActivityDTO = userActivityService.findOne(id);
 		return ResponseUtil.wrapOrNotFound(userActivityDTO);
 	}
@@ -174,6 +180,7 @@ public class UserActivityResource {
 	public ResponseEntity<List<UserActivityDTO>> getAllActivitiesByCriteria(UserActivityCriteria criteria,
 			Pageable pageable) {
 		log.debug("REST request to get UserActivities by criteria: {}", criteria);
+		auditEventWriter.flush();
 		Page<UserActivityDTO> page = userActivityQueryService.findByCriteria(criteria, pageable);
 		HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/activity");
 		return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
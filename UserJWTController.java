@@ -18,6 +18,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.codahale.metrics.annotation.Timed;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.gl.platform.security.jwt.JWTAuthenticationCache;
 import com.gl.platform.security.jwt.JWTConfigurer;
 import com.gl.platform.security.jwt.TokenProvider;
 import com.gl.platform.web.rest.vm.LoginVM;
@@ -33,11 +34,15 @@ public class UserJWTController {
 
 	private final AuthenticationManager authenticationManager;
 
+	private final JWTAuthenticationCache jwtAuthenticationCache;
+
 	private final Logger log = LoggerFactory.getLogger(this.getClass());
 
-	public UserJWTController(TokenProvider tokenProvider, AuthenticationManager authenticationManager) {
+	public UserJWTController(TokenProvider tokenProvider, AuthenticationManager authenticationManager,
+			JWTAuthenticationCache jwtAuthenticationCache) {
 		this.tokenProvider = tokenProvider;
 		this.authenticationManager = authenticationManager;
+		this.jwtAuthenticationCache = jwtAuthenticationCache;
 	}
 
 	@PostMapping("/authenticate")
@@ -51,6 +56,7 @@ public class UserJWTController {
 		SecurityContextHolder.getContext().setAuthentication(authentication);
 		boolean rememberMe = (loginVM.isRememberMe() == null) ? false : loginVM.isRememberMe();
 		String jwt = tokenProvider.createToken(authentication, rememberMe);
+		jwtAuthenticationCache.issued(jwt, authentication.getName());
 		HttpHeaders httpHeaders = new HttpHeaders();
 		httpHeaders.add(JWTConfigurer.AUTHORIZATION_HEADER, "Bearer " + jwt);
 		log.info("Authentication success for username : {}", loginVM.getUsername());
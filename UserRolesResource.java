@@ -22,6 +22,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.codahale.metrics.annotation.Timed;
+import com.gl.platform.service.AuthorizationDecisionCache;
 import com.gl.platform.service.UserRolesQueryService;
 import com.gl.platform.service.UserRolesService;
 import com.gl.platform.service.dto.UserRolesCriteria;
@@ -47,9 +48,13 @@ public class UserRolesResource {
 
 	private final UserRolesQueryService userRolesQueryService;
 
-	public UserRolesResource(UserRolesService userRolesService, UserRolesQueryService userRolesQueryService) {
+	private final AuthorizationDecisionCache authorizationDecisionCache;
+
+	public UserRolesResource(UserRolesService userRolesService, UserRolesQueryService userRolesQueryService,
+			AuthorizationDecisionCache authorizationDecisionCache) {
 		this.userRolesService = userRolesService;
 		this.userRolesQueryService = userRolesQueryService;
+		this.authorizationDecisionCache = authorizationDecisionCache;
 	}
 
 	/**
@@ -70,6 +75,7 @@ public class UserRolesResource {
 			throw new BadRequestAlertException("A new userRoles cannot already have an ID", ENTITY_NAME, "idexists");
 		}
 		UserRolesDTO result = userRolesService.save(userRolesDTO);
+		authorizationDecisionCache.invalidateAll();
 		return ResponseEntity.created(new URI("/api/user-roles/" + result.getId()))
 				.headers(HeaderUtil.createEntityCreationAlert(ENTITY_NAME, result.getId().toString())).body(result);
 	}
@@ -93,6 +99,7 @@ public class UserRolesResource {
 			throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
 		}
 		UserRolesDTO result = userRolesService.save(userRolesDTO);
+		authorizationDecisionCache.invalidateAll();
 		return ResponseEntity.ok()
 				.headers(HeaderUtil.createEntityUpdateAlert(ENTITY_NAME, userRolesDTO.getId().toString())).body(result);
 	}
@@ -140,6 +147,7 @@ public class UserRolesResource {
 	public ResponseEntity<Void> deleteUserRoles(@PathVariable Long id) {
 		log.debug("REST request to delete UserRoles : {}", id);
 		userRolesService.delete(id);
+		authorizationDecisionCache.invalidateAll();
 		return ResponseEntity.ok().headers(HeaderUtil.createEntityDeletionAlert(ENTITY_NAME, id.toString())).build();
 	}
 }